@@ -0,0 +1,412 @@
+package org.foxesworld.lvm.harness;
+
+import javafx.application.Platform;
+import javafx.concurrent.Worker;
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import org.foxesworld.lvm.LVMCore;
+import org.foxesworld.lvm.config.LottieAnimationConfig;
+import org.foxesworld.lvm.metadata.AnimationMetadata;
+import org.foxesworld.lvm.telemetry.AnimationTelemetry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end rendering benchmark: loads every bundled animation into a real {@link LVMCore} with each
+ * bodymovin renderer and measures what the JMH benchmarks cannot, the cost inside WebKit.
+ * <p>
+ * For every animation and renderer the harness records the time from creating the view until the page
+ * reaches {@code SUCCEEDED} and until Lottie raises {@code DOMLoaded}, then lets the animation play and takes
+ * the frame rate and frame-time percentiles from the view's {@link AnimationTelemetry}. Per renderer it also
+ * creates and disposes views repeatedly and records how the heap and the resident set size grow.
+ * </p>
+ * Meant to run headless with Monocle and the software pipeline ({@code -Dglass.platform=Monocle
+ * -Dmonocle.platform=Headless -Dprism.order=sw}), as the Gradle task {@code renderHarness} does. The result
+ * is a {@link RenderReport}; with {@code --baseline} the run fails if it is slower than an earlier report or an animation
+ * that loaded there fails to load.
+ */
+public final class RenderHarness {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenderHarness.class);
+    private static final List<String> DEFAULT_RENDERERS = List.of("svg", "canvas", "html");
+    private static final long LOAD_TIMEOUT_MILLIS = 30_000;
+    private static final long WARMUP_MILLIS = 1000;
+    private static final long POLL_MILLIS = 10;
+    private static final long REPORT_POLL_MILLIS = 100;
+    private static final long REPORT_GRACE_MILLIS = 3000;
+    private static final int WARMUP_CYCLES = 2;
+    private static final double VIEW_SIZE = 400;
+
+    private final List<String> animations;
+    private final List<String> renderers;
+    private final int measureSeconds;
+    private final int cycles;
+    private StackPane root;
+
+    public RenderHarness(List<String> animations, List<String> renderers, int measureSeconds, int cycles) {
+        if (animations.isEmpty()) throw new IllegalArgumentException("No animations to measure");
+        if (measureSeconds <= 0) throw new IllegalArgumentException("Measurement time must be positive");
+        if (cycles < 0) throw new IllegalArgumentException("Cycle count must not be negative");
+        this.animations = animations;
+        this.renderers = renderers;
+        this.measureSeconds = measureSeconds;
+        this.cycles = cycles;
+    }
+
+    /**
+     * Runs all measurements. Must not be called on the JavaFX Application Thread, which has to be running.
+     */
+    public RenderReport run() throws Exception {
+        fx(() -> {
+            root = new StackPane();
+            Stage stage = new Stage();
+            stage.setScene(new Scene(root, VIEW_SIZE, VIEW_SIZE));
+            stage.show();
+            return null;
+        });
+        RenderReport report = new RenderReport();
+        report.measureSeconds = measureSeconds;
+        for (String renderer : renderers) {
+            List<String> loadable = new ArrayList<>();
+            for (String animation : animations) {
+                RenderReport.AnimationResult result = measure(animation, renderer);
+                report.animations.add(result);
+                if (result.error == null) {
+                    loadable.add(animation);
+                }
+                if (result.error != null) {
+                    logger.warn("{}: {}", result.key(), result.error);
+                } else {
+                    logger.info("{}: SUCCEEDED {} ms, DOMLoaded {} ms, {} fps, p50/p95/p99 {}/{}/{} ms",
+                            result.key(), round(result.timeToSucceededMillis), round(result.timeToDomLoadedMillis),
+                            round(result.fps), result.frameTimeP50Millis, result.frameTimeP95Millis,
+                            result.frameTimeP99Millis);
+                }
+            }
+            // Cycles only use animations that loaded, so they do not wait for load timeouts
+            if (cycles > 0 && !loadable.isEmpty()) {
+                RenderReport.MemoryResult memory = measureMemory(loadable, renderer);
+                report.memory.add(memory);
+                logger.info("[{}] {} create/dispose cycles: heap {} KiB, RSS {} KiB", renderer, cycles,
+                        memory.heapGrowthBytes() / 1024, memory.rssGrowthBytes() / 1024);
+            }
+        }
+        return report;
+    }
+
+    private RenderReport.AnimationResult measure(String animation, String renderer) throws Exception {
+        RenderReport.AnimationResult result = new RenderReport.AnimationResult();
+        result.animation = animation;
+        result.renderer = renderer;
+        LoadedView loaded = load(animation, renderer);
+        try {
+            if (loaded.error != null) {
+                result.error = loaded.error;
+                return result;
+            }
+            result.timeToSucceededMillis = millis(loaded.succeededAt - loaded.createdAt);
+            result.timeToDomLoadedMillis = millis(loaded.domLoadedAt - loaded.createdAt);
+            AnimationTelemetry telemetry = loaded.view.getTelemetry();
+            result.resourceReadMillis = telemetry.getResourceReadMillis();
+            result.templateRenderMillis = telemetry.getTemplateRenderMillis();
+            AnimationMetadata metadata = loaded.view.getAnimationMetadata();
+            result.sourceBytes = metadata != null ? metadata.getSourceBytes() : -1;
+
+            Thread.sleep(WARMUP_MILLIS);
+            fx(() -> {
+                telemetry.reset();
+                return null;
+            });
+            // The page reports frames about once per second; wait for whole reports covering the measuring time
+            long measureMillis = TimeUnit.SECONDS.toMillis(measureSeconds);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(measureMillis + REPORT_GRACE_MILLIS);
+            while (fx(telemetry::getReportedMillis) < measureMillis && System.nanoTime() < deadline) {
+                Thread.sleep(REPORT_POLL_MILLIS);
+            }
+            fx(() -> {
+                result.frames = telemetry.getFrameCount();
+                result.droppedFrames = telemetry.getDroppedFrames();
+                result.fps = telemetry.getAverageFps();
+                result.frameTimeP50Millis = telemetry.getFrameTimeP50Millis();
+                result.frameTimeP95Millis = telemetry.getFrameTimeP95Millis();
+                result.frameTimeP99Millis = telemetry.getFrameTimeP99Millis();
+                return null;
+            });
+        } finally {
+            dispose(loaded.view);
+        }
+        return result;
+    }
+
+    private RenderReport.MemoryResult measureMemory(List<String> animations, String renderer) throws Exception {
+        for (int i = 0; i < WARMUP_CYCLES; i++) {
+            cycle(animations.get(i % animations.size()), renderer);
+        }
+        RenderReport.MemoryResult result = new RenderReport.MemoryResult();
+        result.renderer = renderer;
+        result.cycles = cycles;
+        settleHeap();
+        result.heapBeforeBytes = usedHeap();
+        result.rssBeforeBytes = residentSetSize();
+        for (int i = 0; i < cycles; i++) {
+            cycle(animations.get(i % animations.size()), renderer);
+        }
+        settleHeap();
+        result.heapAfterBytes = usedHeap();
+        result.rssAfterBytes = residentSetSize();
+        return result;
+    }
+
+    private void cycle(String animation, String renderer) throws Exception {
+        dispose(load(animation, renderer).view);
+    }
+
+    /**
+     * Creates a view for the animation and waits until Lottie has built its DOM, the page failed, or the
+     * load timed out.
+     */
+    private LoadedView load(String animation, String renderer) throws Exception {
+        LoadedView loaded = fx(() -> {
+            LottieAnimationConfig config = new LottieAnimationConfig();
+            config.setAnimationJsonResourcePath(animation);
+            config.setRenderer(renderer);
+            config.setLoop(true);
+            config.setAutoplay(true);
+            config.setTelemetryEnabled(true);
+            // Only the harness's own telemetry crosses the bridge
+            config.setSubscribedEvents(List.of());
+            LoadedView view = new LoadedView();
+            view.createdAt = System.nanoTime();
+            try {
+                view.view = new LVMCore(config);
+            } catch (RuntimeException e) {
+                view.error = "Creating the view failed: " + e;
+                return view;
+            }
+            Worker<Void> worker = view.view.getWebView().getEngine().getLoadWorker();
+            worker.stateProperty().addListener((obs, oldState, newState) -> view.onState(newState));
+            view.onState(worker.getState());
+            root.getChildren().setAll(view.view);
+            return view;
+        });
+        if (loaded.error != null) {
+            return loaded;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LOAD_TIMEOUT_MILLIS);
+        while (true) {
+            boolean done = fx(() -> {
+                if (loaded.error != null) {
+                    return true;
+                }
+                double domLoaded = loaded.view.getTelemetry().getDomLoadedMillis();
+                if (loaded.succeededAt != 0 && domLoaded > 0) {
+                    loaded.domLoadedAt = loaded.succeededAt + (long) (domLoaded * 1_000_000);
+                    return true;
+                }
+                return false;
+            });
+            if (done) {
+                return loaded;
+            }
+            if (System.nanoTime() > deadline) {
+                loaded.error = "DOMLoaded not raised within " + LOAD_TIMEOUT_MILLIS + " ms";
+                return loaded;
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    private void dispose(LVMCore view) throws Exception {
+        if (view == null) {
+            return;
+        }
+        fx(() -> {
+            root.getChildren().remove(view);
+            view.dispose();
+            return null;
+        });
+    }
+
+    private static final class LoadedView {
+        private LVMCore view;
+        private long createdAt;
+        private long succeededAt;
+        private long domLoadedAt;
+        private String error;
+
+        private void onState(Worker.State state) {
+            if (state == Worker.State.SUCCEEDED && succeededAt == 0) {
+                succeededAt = System.nanoTime();
+            } else if (state == Worker.State.FAILED && error == null) {
+                error = "Page load failed";
+            }
+        }
+    }
+
+    // ---- helpers ----
+
+    /**
+     * Runs a task on the JavaFX Application Thread and waits for its result.
+     */
+    private static <T> T fx(Callable<T> task) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        try {
+            return result.get(LOAD_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+        }
+    }
+
+    private static void settleHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Returns the resident set size of this process from {@code /proc/self/status}, or {@code -1} where that
+     * is not available.
+     */
+    static long residentSetSize() {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try (Stream<String> lines = Files.lines(status, StandardCharsets.US_ASCII)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> line.replaceAll("[^0-9]", ""))
+                    .filter(kib -> !kib.isEmpty())
+                    .mapToLong(kib -> Long.parseLong(kib) * 1024)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not read the resident set size", e);
+            return -1;
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    /**
+     * Lists the Lottie animations below a directory as resource paths, e.g. {@code /anim/menu/menuV4.json}.
+     *
+     * @param animDir      the directory, e.g. {@code src/main/resources/assets/anim}
+     * @param resourceRoot the resource path of that directory, e.g. {@code /anim}
+     */
+    static List<String> listAnimations(Path animDir, String resourceRoot) throws IOException {
+        try (Stream<Path> walk = Files.walk(animDir)) {
+            return walk.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".json"))
+                    .map(p -> resourceRoot + "/" + animDir.relativize(p).toString().replace('\\', '/'))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Usage: {@code RenderHarness [--out file] [--seconds n] [--cycles n] [--renderers svg,canvas,html]
+     * [--baseline file] [--tolerance 0.2] <anim dir>}.
+     */
+    public static void main(String[] args) throws Exception {
+        Path out = Paths.get("build/reports/render/report.json");
+        Path baseline = null;
+        double tolerance = 0.2;
+        int seconds = 3;
+        int cycles = 20;
+        List<String> renderers = DEFAULT_RENDERERS;
+        Path animDir = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                animDir = Paths.get(arg);
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                usage();
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--out": out = Paths.get(value); break;
+                case "--baseline": baseline = Paths.get(value); break;
+                case "--tolerance": tolerance = Double.parseDouble(value); break;
+                case "--seconds": seconds = Integer.parseInt(value); break;
+                case "--cycles": cycles = Integer.parseInt(value); break;
+                case "--renderers": renderers = Arrays.asList(value.split(",")); break;
+                default: usage();
+            }
+        }
+        if (animDir == null) {
+            usage();
+        }
+
+        List<String> animations = new ArrayList<>(listAnimations(animDir, "/anim"));
+        logger.info("Measuring {} animations with {} for {} s each, {} create/dispose cycles per renderer",
+                animations.size(), renderers, seconds, cycles);
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        Platform.setImplicitExit(false);
+        if (!started.await(LOAD_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("JavaFX did not start");
+        }
+
+        int status = 0;
+        try {
+            RenderReport report = new RenderHarness(animations, renderers, seconds, cycles).run();
+            report.write(out);
+            logger.info("Report written to {}", out.toAbsolutePath());
+            if (baseline != null) {
+                List<String> regressions = report.findRegressions(RenderReport.read(baseline), tolerance);
+                regressions.forEach(regression -> logger.error("Regression: {}", regression));
+                if (!regressions.isEmpty()) {
+                    status = 1;
+                }
+            }
+        } finally {
+            Platform.exit();
+        }
+        System.exit(status);
+    }
+
+    private static void usage() {
+        System.err.println("Usage: RenderHarness [--out file] [--seconds n] [--cycles n] [--renderers svg,canvas,html] "
+                + "[--baseline file] [--tolerance 0.2] <anim dir>");
+        System.exit(2);
+    }
+}
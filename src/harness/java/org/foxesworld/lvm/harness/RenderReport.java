@@ -0,0 +1,141 @@
+package org.foxesworld.lvm.harness;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine-readable result of a {@link RenderHarness} run, written as JSON.
+ * <p>
+ * Times are in milliseconds and memory figures in bytes; {@code -1} marks a figure that could not be
+ * measured, e.g. the resident set size outside Linux.
+ * </p>
+ */
+public class RenderReport {
+
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    String javaVersion = System.getProperty("java.version");
+    String javafxVersion = System.getProperty("javafx.runtime.version");
+    String os = System.getProperty("os.name") + " " + System.getProperty("os.arch");
+    String glassPlatform = System.getProperty("glass.platform");
+    long timestamp = System.currentTimeMillis();
+    int measureSeconds;
+    List<AnimationResult> animations = new ArrayList<>();
+    List<MemoryResult> memory = new ArrayList<>();
+
+    /**
+     * Load and playback figures of one animation with one renderer.
+     */
+    public static class AnimationResult {
+        String animation;
+        String renderer;
+        long sourceBytes;
+        /** From creating the view until the page reached {@code SUCCEEDED}. */
+        double timeToSucceededMillis;
+        /** From creating the view until Lottie raised {@code DOMLoaded}. */
+        double timeToDomLoadedMillis;
+        double resourceReadMillis;
+        double templateRenderMillis;
+        double fps;
+        long frames;
+        long droppedFrames;
+        double frameTimeP50Millis;
+        double frameTimeP95Millis;
+        double frameTimeP99Millis;
+        String error;
+
+        String key() {
+            return animation + " [" + renderer + "]";
+        }
+    }
+
+    /**
+     * Heap and resident set size before and after repeatedly creating and disposing views.
+     */
+    public static class MemoryResult {
+        String renderer;
+        int cycles;
+        long heapBeforeBytes;
+        long heapAfterBytes;
+        long rssBeforeBytes;
+        long rssAfterBytes;
+
+        long heapGrowthBytes() {
+            return heapAfterBytes - heapBeforeBytes;
+        }
+
+        long rssGrowthBytes() {
+            return rssBeforeBytes < 0 || rssAfterBytes < 0 ? -1 : rssAfterBytes - rssBeforeBytes;
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(this, writer);
+        }
+    }
+
+    public static RenderReport read(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, RenderReport.class);
+        }
+    }
+
+    /**
+     * Compares this run with an earlier one. Loading may take, and frames may last, up to {@code tolerance}
+     * longer than in the baseline, and the frame rate may be that much lower. An animation that loaded in the
+     * baseline but fails now is a regression; animations missing from the baseline are not compared.
+     *
+     * @param baseline  the earlier report
+     * @param tolerance the allowed relative change, e.g. {@code 0.2} for 20%
+     * @return one line per regression, empty if there is none
+     */
+    public List<String> findRegressions(RenderReport baseline, double tolerance) {
+        Map<String, AnimationResult> previous = new HashMap<>();
+        for (AnimationResult result : baseline.animations) {
+            previous.put(result.key(), result);
+        }
+        List<String> regressions = new ArrayList<>();
+        for (AnimationResult current : animations) {
+            AnimationResult before = previous.get(current.key());
+            if (before == null || before.error != null) {
+                continue;
+            }
+            if (current.error != null) {
+                regressions.add(current.key() + ": " + current.error);
+                continue;
+            }
+            checkIncrease(regressions, current.key(), "time to SUCCEEDED", before.timeToSucceededMillis,
+                    current.timeToSucceededMillis, tolerance);
+            checkIncrease(regressions, current.key(), "time to DOMLoaded", before.timeToDomLoadedMillis,
+                    current.timeToDomLoadedMillis, tolerance);
+            checkIncrease(regressions, current.key(), "p95 frame time", before.frameTimeP95Millis,
+                    current.frameTimeP95Millis, tolerance);
+            if (before.fps > 0 && current.fps < before.fps * (1 - tolerance)) {
+                regressions.add(String.format("%s: fps %.1f -> %.1f", current.key(), before.fps, current.fps));
+            }
+        }
+        return regressions;
+    }
+
+    private static void checkIncrease(List<String> regressions, String key, String figure, double before,
+                                      double current, double tolerance) {
+        if (before > 0 && current > before * (1 + tolerance)) {
+            regressions.add(String.format("%s: %s %.1f -> %.1f ms", key, figure, before, current));
+        }
+    }
+}
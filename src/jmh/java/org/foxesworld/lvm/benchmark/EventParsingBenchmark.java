@@ -0,0 +1,45 @@
+package org.foxesworld.lvm.benchmark;
+
+import com.google.gson.Gson;
+import org.foxesworld.lvm.event.LottieEventData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson parsing of the event payloads the page sends to an {@code AnimationCallback}, once per frame for
+ * {@code enterFrame}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventParsingBenchmark {
+
+    private static final String ENTER_FRAME = "{\"type\":\"enterFrame\",\"currentTime\":42.35791666666667,"
+            + "\"totalTime\":180,\"direction\":1}";
+    private static final String LOOP_COMPLETE = "{\"type\":\"loopComplete\",\"currentLoop\":3,\"totalLoops\":false,"
+            + "\"direction\":1}";
+
+    private final Gson gson = new Gson();
+
+    @Benchmark
+    public LottieEventData parseEnterFrame() {
+        return gson.fromJson(ENTER_FRAME, LottieEventData.class);
+    }
+
+    @Benchmark
+    public LottieEventData parseLoopComplete() {
+        return gson.fromJson(LOOP_COMPLETE, LottieEventData.class);
+    }
+}
@@ -0,0 +1,56 @@
+package org.foxesworld.lvm.benchmark;
+
+import org.foxesworld.lvm.config.LottieAnimationConfig;
+import org.foxesworld.lvm.html.HtmlContentBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HtmlContentBuilder#buildHtmlContent(LottieAnimationConfig)} end to end: resource loading through
+ * the shared cache, template rendering and, optionally, the JSON optimizer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HtmlContentBuilderBenchmark {
+
+    @Param({"/anim/menu/menuV4.json", "/anim/test.json"})
+    public String animation;
+
+    @Param({"false", "true"})
+    public boolean optimize;
+
+    private final HtmlContentBuilder htmlContentBuilder = new HtmlContentBuilder("html/content.html");
+    private LottieAnimationConfig config;
+
+    @Setup
+    public void setUp() {
+        config = new LottieAnimationConfig();
+        config.setAnimationJsonResourcePath(animation);
+        config.setOptimizeAnimationJson(optimize);
+    }
+
+    @Benchmark
+    public String buildHtmlContent() {
+        return htmlContentBuilder.buildHtmlContent(config);
+    }
+
+    @Benchmark
+    public String buildHostContent() {
+        return htmlContentBuilder.buildHostContent(config);
+    }
+}
@@ -0,0 +1,64 @@
+package org.foxesworld.lvm.benchmark;
+
+import org.foxesworld.lvm.resourceLoader.ResourceCache;
+import org.foxesworld.lvm.resourceLoader.ResourceLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ResourceLoader#loadResource(String, Class)} on a small icon and the multi-MB {@code anim/test.json},
+ * served from the shared cache or read and decoded on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceLoaderBenchmark {
+
+    @Param({"anim/menu/menuV4.json", "anim/test.json"})
+    public String path;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private final ResourceLoader resourceLoader = new ResourceLoader();
+    private long previousBudget;
+
+    @Setup
+    public void setUp() {
+        ResourceCache cache = ResourceLoader.getCache();
+        previousBudget = cache.getMaxBytes();
+        cache.invalidateAll();
+        // A budget of 0 disables caching, so every call reads the resource
+        cache.setMaxBytes(cached ? ResourceCache.DEFAULT_MAX_BYTES : 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ResourceLoader.getCache().setMaxBytes(previousBudget);
+    }
+
+    @Benchmark
+    public String loadString() {
+        return resourceLoader.loadResource(path, String.class);
+    }
+
+    @Benchmark
+    public byte[] loadBytes() {
+        return resourceLoader.loadResource(path, byte[].class);
+    }
+}
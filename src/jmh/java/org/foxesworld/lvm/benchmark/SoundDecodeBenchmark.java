@@ -0,0 +1,39 @@
+package org.foxesworld.lvm.benchmark;
+
+import org.foxesworld.lvm.sound.DecodedSound;
+import org.foxesworld.lvm.sound.SoundResourceLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full OGG Vorbis decode of the bundled sounds to PCM through {@link SoundResourceLoader}. Audio streams are
+ * not cached, so every call reads and decodes the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SoundDecodeBenchmark {
+
+    @Param({"sounds/sound1.ogg", "sounds/whoosh1.ogg"})
+    public String sound;
+
+    private final SoundResourceLoader soundResourceLoader = new SoundResourceLoader();
+
+    @Benchmark
+    public DecodedSound decode() {
+        return soundResourceLoader.loadDecodedSound(sound);
+    }
+}
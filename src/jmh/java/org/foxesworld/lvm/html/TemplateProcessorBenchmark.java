@@ -0,0 +1,61 @@
+package org.foxesworld.lvm.html;
+
+import org.foxesworld.lvm.config.LottieAnimationConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TemplateProcessor#process(String, String, Map, int)} with the real {@code content.html}, bodymovin
+ * and an animation, as the page builder calls it. The compiled template is reused across calls.
+ * <p>
+ * Lives in the {@code html} package to take the template model from {@link HtmlContentBuilder}, so that it
+ * renders exactly what the pages do.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateProcessorBenchmark {
+
+    @Param({"/anim/menu/menuV4.json", "/anim/test.json"})
+    public String animation;
+
+    private final TemplateProcessor templateProcessor = new TemplateProcessor();
+    private String template;
+    private Map<String, Object> values;
+    private int expectedLength;
+
+    @Setup
+    public void setUp() {
+        HtmlContentBuilder htmlContentBuilder = new HtmlContentBuilder("html/content.html");
+        LottieAnimationConfig config = new LottieAnimationConfig();
+        config.setAnimationJsonResourcePath(animation);
+        config.setSubscribedEvents(List.of("complete", "loopComplete"));
+        template = htmlContentBuilder.getTemplateContent();
+        String bodymovinJs = htmlContentBuilder.loadResource(config.getBodymovinJsResourcePath(), String.class);
+        String animationJson = htmlContentBuilder.loadAnimationJson(config);
+        values = htmlContentBuilder.buildTemplateModel(config, bodymovinJs, animationJson);
+        expectedLength = HtmlContentBuilder.expectedLength(config, template, bodymovinJs, animationJson);
+    }
+
+    @Benchmark
+    public String process() {
+        return templateProcessor.process("html/content.html", template, values, expectedLength);
+    }
+}
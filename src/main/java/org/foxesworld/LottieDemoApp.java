@@ -1,6 +1,5 @@
 package org.foxesworld;
 
-import com.google.gson.Gson;
 import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -18,15 +17,16 @@ import org.controlsfx.glyphfont.FontAwesome;
 import org.controlsfx.glyphfont.Glyph;
 import org.foxesworld.lvm.LVMCore;
 import org.foxesworld.lvm.config.LottieAnimationConfig;
-import org.foxesworld.lvm.event.AnimationCallback;
-import org.foxesworld.lvm.event.LottieEventData;
-import org.foxesworld.lvm.event.LottieHoverType;
+import org.foxesworld.lvm.event.AnimationListener;
+import org.foxesworld.lvm.sound.SoundPlayer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.File;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
 
-public class LottieDemoApp extends Application implements AnimationCallback {
+public class LottieDemoApp extends Application implements AnimationListener {
 
     private static final Logger logger = LoggerFactory.getLogger(LottieDemoApp.class);
     private LVMCore lvmCore;
@@ -36,6 +36,8 @@ public class LottieDemoApp extends Application implements AnimationCallback {
     @Override
     public void start(Stage primaryStage) {
         logger.info("Initializing LottieDemoApp...");
+        // Звуки декодируются параллельно с загрузкой страницы, чтобы whoosh на DOMLoaded не запаздывал
+        new SoundPlayer().preloadAll().thenAccept(result -> logger.info("Sounds preloaded: {}", result));
         try {
             LottieAnimationConfig config = new LottieAnimationConfig();
             config.setAnimationJsonResourcePath("/anim/test.json");
@@ -43,8 +45,13 @@ public class LottieDemoApp extends Application implements AnimationCallback {
             config.setRenderer("svg");
             config.setLoop(true);
             config.setAutoplay(true);
+            config.setPersistentHost(true);
+            config.setAutoPauseWhenHidden(true);
+            config.setSubscribedEvents(List.of("DOMLoaded", "loopComplete"));
+            // Файлы, открытые через "Load", перезагружаются при каждом сохранении
+            config.setWatchAnimationFile(true);
             lvmCore = new LVMCore(config);
-            lvmCore.setAnimationCallback(this);
+            lvmCore.setAnimationListener(this);
             HBox buttonBox = createControlButtons(primaryStage);
             Slider animationSlider = createAnimationSlider();
             VBox controlPanel = new VBox(10, new Label("Animation Controls"), buttonBox, animationSlider);
@@ -137,7 +144,11 @@ public class LottieDemoApp extends Application implements AnimationCallback {
         File file = fileChooser.showOpenDialog(stage);
         if (file != null) {
             logger.info("Loading new animation: {}", file.toURI());
-            lvmCore.loadAnimation(file.toURI().toString());
+            lvmCore.loadAnimationAsync(file.toURI().toString()).whenComplete((ignored, error) -> {
+                if (error != null && !(error instanceof CancellationException)) {
+                    logger.error("Failed to load animation: {}", file, error);
+                }
+            });
         }
     }
 
@@ -155,30 +166,22 @@ public class LottieDemoApp extends Application implements AnimationCallback {
     }
 
     @Override
-    public void onEvent(String eventName, Object eventData) {
-        LottieEventData data = new Gson().fromJson(eventData.toString(), LottieEventData.class);
-        switch (eventName) {
-            case "DOMLoaded" -> lvmCore.getSoundPlayer().playSound("whoosh1.ogg", 1.0f);
-            case "loopComplete" -> lvmCore.getSoundPlayer().playSound("sound1.ogg", 1.0f);
-            default -> {
-                // Пример обновления слайдера (раскомментируйте и доработайте при необходимости)
-                // slider.setValue(data.getCurrentTime() / data.getTotalTime());
-            }
-        }
+    public void onDOMLoaded() {
+        lvmCore.getSoundPlayer().playSound("whoosh1.ogg", 1.0f);
     }
 
     @Override
-    public void onHover(Object hoverEventData) {
-        LottieHoverType type = new Gson().fromJson(hoverEventData.toString(), LottieHoverType.class);
-        switch (type.getType()) {
-            case "mouseenter" -> lvmCore.setSpeed(2.0f);
-            case "mouseleave" -> lvmCore.setSpeed(1.0f);
-            default -> logger.debug("Unhandled hover event: {}", type.getType());
-        }
+    public void onLoopComplete(int currentLoop, int direction) {
+        lvmCore.getSoundPlayer().playSound("sound1.ogg", 1.0f);
+    }
+
+    @Override
+    public void onHover(boolean entered) {
+        lvmCore.setSpeed(entered ? 2.0f : 1.0f);
     }
 
     @Override
-    public void onClick(Object clickEventData) {
+    public void onClick(double x, double y) {
         logger.info("Animation clicked.");
     }
 
@@ -1,6 +1,8 @@
 package org.foxesworld.lvm;
 
 import org.foxesworld.lvm.event.AnimationCallback;
+import org.foxesworld.lvm.event.AnimationListener;
+import org.foxesworld.lvm.event.AnimationListenerCallback;
 
 public interface AnimationController {
     void play();
@@ -8,4 +10,16 @@ public interface AnimationController {
     void stop();
     void setSpeed(float speed);
     void setAnimationCallback(AnimationCallback callback);
+
+    /**
+     * Sets a typed listener for animation events. The default implementation delivers the events through
+     * {@link #setAnimationCallback(AnimationCallback)} with an {@link AnimationListenerCallback}, replacing any
+     * callback set before; the controllers in this library override it to call the listener directly.
+     *
+     * @param listener the listener
+     * @throws IllegalArgumentException if {@code listener} is {@code null}
+     */
+    default void setAnimationListener(AnimationListener listener) {
+        setAnimationCallback(new AnimationListenerCallback(listener));
+    }
 }
@@ -2,10 +2,13 @@ package org.foxesworld.lvm;
 
 import org.foxesworld.lvm.config.LottieAnimationConfig;
 import org.foxesworld.lvm.event.AnimationCallback;
+import org.foxesworld.lvm.event.AnimationListener;
 import org.foxesworld.lvm.view.AnimationWebView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
+
 public class LVMCore extends AnimationWebView implements AnimationController {
 
     private static final Logger logger = LoggerFactory.getLogger(LVMCore.class);
@@ -13,6 +16,7 @@ public class LVMCore extends AnimationWebView implements AnimationController {
 
     public LVMCore(LottieAnimationConfig config) {
         super(config);
+        this.animPath = config.getAnimationJsonResourcePath();
     }
 
     @Override
@@ -24,17 +28,68 @@ public class LVMCore extends AnimationWebView implements AnimationController {
         super.setAnimationCallback(callback);
     }
 
+    @Override
+    public void setAnimationListener(AnimationListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("AnimationListener must not be null");
+        }
+        logger.debug("Setting animation listener.");
+        super.setAnimationListener(listener);
+    }
+
+    @Override
     public void loadAnimation(String animationUri) {
         this.animPath = animationUri;
-        getConfig().setAnimationJsonResourcePath(animationUri);
-        try {
-            String htmlContent = getHtmlContentBuilder().buildHtmlContent(getConfig());
-            getWebView().getEngine().loadContent(htmlContent);
-        } catch (Exception e) {
-            logger.error("Failed to load animation", e);
-            throw new RuntimeException("Failed to load animation", e);
-        }
+        logger.debug("Loading animation: {}", animationUri);
+        super.loadAnimation(animationUri);
+    }
+
+    /**
+     * Loads an animation off the JavaFX Application Thread; only the final engine call runs on it.
+     * A newer load, synchronous or asynchronous, cancels this one.
+     *
+     * @param animationUri the animation resource path or {@code file:} URI
+     * @return a future that completes when the animation is loaded
+     */
+    @Override
+    public CompletableFuture<Void> loadAnimationAsync(String animationUri) {
+        this.animPath = animationUri;
+        logger.debug("Loading animation asynchronously: {}", animationUri);
+        return super.loadAnimationAsync(animationUri);
+    }
+
+    /**
+     * Applies a changed configuration. Settings the running player can take are applied in the page, a
+     * renderer change only re-creates the player, and the animation is loaded again only if its source changed.
+     *
+     * @param config the new configuration; may be the current instance after changing it
+     */
+    @Override
+    public void updateConfig(LottieAnimationConfig config) {
+        logger.debug("Updating configuration.");
+        super.updateConfig(config);
+    }
+
+    /**
+     * Pre-renders the animation into images at the view's size and plays them back without the page.
+     * Meant for small looping icons; see {@link LottieAnimationConfig#setBakedPlayback(boolean)}.
+     *
+     * @return a future that completes when the baked frames are playing back
+     */
+    public CompletableFuture<Void> bake() {
+        logger.debug("Baking animation: {}", animPath);
+        return super.bakeFrames();
     }
+
+    /**
+     * Releases the animation page; a pooled {@code WebView} goes back to the pool.
+     */
+    @Override
+    public void dispose() {
+        logger.debug("Disposing animation: {}", animPath);
+        super.dispose();
+    }
+
     @Override
     public void play() {
         logger.debug("Playing animation.");
@@ -0,0 +1,198 @@
+package org.foxesworld.lvm;
+
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import org.foxesworld.lvm.canvas.CanvasAnimationView;
+import org.foxesworld.lvm.canvas.LottieComposition;
+import org.foxesworld.lvm.canvas.LottieCompositionParser;
+import org.foxesworld.lvm.config.LottieAnimationConfig;
+import org.foxesworld.lvm.config.RenderEngine;
+import org.foxesworld.lvm.event.AnimationCallback;
+import org.foxesworld.lvm.event.AnimationListener;
+import org.foxesworld.lvm.metadata.AnimationMetadata;
+import org.foxesworld.lvm.metadata.AnimationMetadataIndex;
+import org.foxesworld.lvm.resourceLoader.ResourceLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Animation view that chooses its rendering engine from the configuration's {@link RenderEngine}.
+ * <p>
+ * With {@link RenderEngine#AUTO} the animation is parsed first: if it only uses features the canvas renderer
+ * supports, it is played by a {@link CanvasAnimationView}, otherwise by an {@link LVMCore} {@code WebView}.
+ * Control calls, callbacks and listeners are passed on to whichever view was chosen.
+ * </p>
+ */
+public final class LVMView extends StackPane implements AnimationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(LVMView.class);
+
+    private final LottieAnimationConfig config;
+    private final ResourceLoader resourceLoader = new ResourceLoader();
+    private Region view;
+    private RenderEngine activeEngine;
+    private AnimationCallback animationCallback;
+    private AnimationListener animationListener;
+
+    public LVMView(LottieAnimationConfig config) {
+        if (config == null) throw new IllegalArgumentException("LottieAnimationConfig must not be null");
+        this.config = config;
+        createView();
+    }
+
+    /**
+     * Loads another animation. The engine is chosen again, so the underlying view may be replaced.
+     *
+     * @param animationUri the animation resource path or {@code file:} URI
+     */
+    public void loadAnimation(String animationUri) {
+        if (animationUri == null) throw new IllegalArgumentException("Animation URI must not be null");
+        config.setAnimationJsonResourcePath(animationUri);
+        disposeView();
+        createView();
+    }
+
+    private void createView() {
+        LottieComposition composition = null;
+        if (config.getRenderEngine() != RenderEngine.WEBVIEW) {
+            composition = parse(config.getAnimationJsonResourcePath());
+        }
+        if (composition != null && (composition.isSupported() || config.getRenderEngine() == RenderEngine.CANVAS)) {
+            view = new CanvasAnimationView(config, composition);
+            activeEngine = RenderEngine.CANVAS;
+        } else {
+            if (composition != null) {
+                logger.debug("Falling back to WebView for {}: {}", config.getAnimationJsonResourcePath(),
+                        composition.getUnsupportedFeatures());
+            }
+            view = new LVMCore(config);
+            activeEngine = RenderEngine.WEBVIEW;
+        }
+        logger.debug("Rendering {} with {}", config.getAnimationJsonResourcePath(), activeEngine);
+        if (animationCallback != null) {
+            getController().setAnimationCallback(animationCallback);
+        }
+        if (animationListener != null) {
+            getController().setAnimationListener(animationListener);
+        }
+        getChildren().setAll(view);
+    }
+
+    /**
+     * Parses the animation for the capability check.
+     *
+     * @return the composition, or {@code null} if it cannot be parsed; the WebView engine then reports the error
+     */
+    private LottieComposition parse(String animationUri) {
+        try {
+            return LottieCompositionParser.parse(resourceLoader.loadResource(animationUri, String.class));
+        } catch (RuntimeException e) {
+            logger.warn("Could not parse {} for the canvas renderer", animationUri, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the engine actually used for the current animation: {@link RenderEngine#CANVAS} or
+     * {@link RenderEngine#WEBVIEW}.
+     */
+    public RenderEngine getActiveEngine() {
+        return activeEngine;
+    }
+
+    /**
+     * Returns the view that renders the animation, a {@link CanvasAnimationView} or an {@link LVMCore}.
+     */
+    public Region getView() {
+        return view;
+    }
+
+    /**
+     * Returns the metadata of the current animation, or {@code null} if it could not be read.
+     */
+    public AnimationMetadata getAnimationMetadata() {
+        return AnimationMetadataIndex.getShared().find(config.getAnimationJsonResourcePath());
+    }
+
+    public LottieAnimationConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public void play() {
+        getController().play();
+    }
+
+    @Override
+    public void pause() {
+        getController().pause();
+    }
+
+    @Override
+    public void stop() {
+        getController().stop();
+    }
+
+    @Override
+    public void setSpeed(float speed) {
+        getController().setSpeed(speed);
+    }
+
+    /**
+     * Sets the animation progress.
+     * @param progress a value from 0 to 1, where 0 is the first and 1 the last frame
+     */
+    public void setAnimationProgress(float progress) {
+        if (view instanceof CanvasAnimationView) {
+            ((CanvasAnimationView) view).setAnimationProgress(progress);
+        } else {
+            ((LVMCore) view).setAnimationProgress(progress);
+        }
+    }
+
+    /**
+     * Moves the playhead to the given frame and stops there.
+     * @param frame the frame to show, relative to the first frame of the animation
+     */
+    public void seekToFrame(double frame) {
+        if (view instanceof CanvasAnimationView) {
+            ((CanvasAnimationView) view).seekToFrame(frame);
+        } else {
+            ((LVMCore) view).seekToFrame(frame);
+        }
+    }
+
+    @Override
+    public void setAnimationCallback(AnimationCallback callback) {
+        if (callback == null) throw new IllegalArgumentException("AnimationCallback must not be null");
+        this.animationCallback = callback;
+        getController().setAnimationCallback(callback);
+    }
+
+    @Override
+    public void setAnimationListener(AnimationListener listener) {
+        if (listener == null) throw new IllegalArgumentException("AnimationListener must not be null");
+        this.animationListener = listener;
+        getController().setAnimationListener(listener);
+    }
+
+    /**
+     * Releases the underlying view.
+     */
+    public void dispose() {
+        disposeView();
+        getChildren().clear();
+    }
+
+    private void disposeView() {
+        if (view instanceof CanvasAnimationView) {
+            ((CanvasAnimationView) view).dispose();
+        } else if (view instanceof LVMCore) {
+            ((LVMCore) view).dispose();
+        }
+    }
+
+    private AnimationController getController() {
+        return (AnimationController) view;
+    }
+}
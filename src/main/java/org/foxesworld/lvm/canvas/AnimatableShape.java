@@ -0,0 +1,55 @@
+package org.foxesworld.lvm.canvas;
+
+/**
+ * A bezier path property, static or keyframed.
+ */
+final class AnimatableShape {
+
+    private final BezierPath staticPath;
+    private final double[] times;
+    private final BezierPath[] paths;
+    private final BezierEasing[] easings;
+    private final boolean[] holds;
+
+    AnimatableShape(BezierPath staticPath) {
+        this(staticPath, null, null, null, null);
+    }
+
+    /**
+     * @param times   keyframe times
+     * @param paths   the path at each keyframe
+     * @param easings easing from each keyframe to the next
+     * @param holds   whether each keyframe holds its value until the next one
+     */
+    AnimatableShape(double[] times, BezierPath[] paths, BezierEasing[] easings, boolean[] holds) {
+        this(null, times, paths, easings, holds);
+    }
+
+    private AnimatableShape(BezierPath staticPath, double[] times, BezierPath[] paths, BezierEasing[] easings,
+                            boolean[] holds) {
+        this.staticPath = staticPath;
+        this.times = times;
+        this.paths = paths;
+        this.easings = easings;
+        this.holds = holds;
+    }
+
+    BezierPath getPath(double frame) {
+        if (staticPath != null) {
+            return staticPath;
+        }
+        if (paths.length == 1 || frame <= times[0]) {
+            return paths[0];
+        }
+        for (int i = 0; i < paths.length - 1; i++) {
+            if (frame < times[i + 1]) {
+                if (holds[i]) {
+                    return paths[i];
+                }
+                double progress = (frame - times[i]) / (times[i + 1] - times[i]);
+                return BezierPath.lerp(paths[i], paths[i + 1], easings[i].ease(progress));
+            }
+        }
+        return paths[paths.length - 1];
+    }
+}
@@ -0,0 +1,141 @@
+package org.foxesworld.lvm.canvas;
+
+/**
+ * A numeric property, static or keyframed, with one or more dimensions.
+ */
+final class AnimatableValue {
+
+    private final double[] staticValue;
+    private final Keyframe[] keyframes;
+
+    private AnimatableValue(double[] staticValue, Keyframe[] keyframes) {
+        this.staticValue = staticValue;
+        this.keyframes = keyframes;
+    }
+
+    static AnimatableValue of(double... value) {
+        return new AnimatableValue(value, null);
+    }
+
+    static AnimatableValue keyframed(Keyframe[] keyframes) {
+        // Old files store the end value on the keyframe, newer ones only as the next keyframe's start
+        for (int i = 0; i < keyframes.length; i++) {
+            Keyframe keyframe = keyframes[i];
+            if (keyframe.start == null && i > 0) {
+                keyframe.start = keyframes[i - 1].end != null ? keyframes[i - 1].end : keyframes[i - 1].start;
+            }
+            if (keyframe.end == null && i + 1 < keyframes.length) {
+                keyframe.end = keyframes[i + 1].start;
+            }
+        }
+        for (int i = keyframes.length - 1; i >= 0; i--) {
+            if (keyframes[i].end == null) {
+                keyframes[i].end = keyframes[i].start;
+            }
+            if (keyframes[i].start == null) {
+                keyframes[i].start = i + 1 < keyframes.length ? keyframes[i + 1].start : new double[]{0};
+                keyframes[i].end = keyframes[i].start;
+            }
+        }
+        return new AnimatableValue(null, keyframes);
+    }
+
+    boolean isAnimated() {
+        return keyframes != null;
+    }
+
+    double get(double frame) {
+        return getValue(frame)[0];
+    }
+
+    double get(double frame, int dimension) {
+        double[] value = getValue(frame);
+        return dimension < value.length ? value[dimension] : 0;
+    }
+
+    double[] getValue(double frame) {
+        if (keyframes == null) {
+            return staticValue;
+        }
+        Keyframe first = keyframes[0];
+        if (keyframes.length == 1 || frame <= first.time) {
+            return first.start;
+        }
+        for (int i = 0; i < keyframes.length - 1; i++) {
+            Keyframe keyframe = keyframes[i];
+            Keyframe next = keyframes[i + 1];
+            if (frame < next.time) {
+                if (frame < keyframe.time) {
+                    return keyframe.start;
+                }
+                if (keyframe.hold) {
+                    return keyframe.start;
+                }
+                return keyframe.interpolate((frame - keyframe.time) / (next.time - keyframe.time));
+            }
+        }
+        Keyframe last = keyframes[keyframes.length - 1];
+        return last.start;
+    }
+
+    /**
+     * One keyframe with its easing towards the next one.
+     */
+    static final class Keyframe {
+        double time;
+        double[] start;
+        double[] end;
+        boolean hold;
+        /**
+         * One easing per dimension, or a single easing shared by all dimensions.
+         */
+        BezierEasing[] easings = {BezierEasing.LINEAR};
+        /**
+         * Spatial tangents of a motion path, relative to start and end; {@code null} for straight motion.
+         */
+        double[] outTangent;
+        double[] inTangent;
+
+        double[] interpolate(double progress) {
+            int dimensions = Math.min(start.length, end.length);
+            double[] result = new double[dimensions];
+            if (isCurved() && dimensions >= 2) {
+                // The eased progress is used as the curve parameter, which is close to arc length for
+                // the gentle motion paths of UI animations
+                double t = easings[0].ease(progress);
+                double u = 1 - t;
+                for (int d = 0; d < dimensions; d++) {
+                    double p0 = start[d];
+                    double p3 = end[d];
+                    double p1 = p0 + (d < outTangent.length ? outTangent[d] : 0);
+                    double p2 = p3 + (d < inTangent.length ? inTangent[d] : 0);
+                    result[d] = u * u * u * p0 + 3 * u * u * t * p1 + 3 * u * t * t * p2 + t * t * t * p3;
+                }
+                return result;
+            }
+            for (int d = 0; d < dimensions; d++) {
+                BezierEasing easing = easings[Math.min(d, easings.length - 1)];
+                double eased = easing.ease(progress);
+                result[d] = start[d] + (end[d] - start[d]) * eased;
+            }
+            return result;
+        }
+
+        private boolean isCurved() {
+            if (outTangent == null || inTangent == null) {
+                return false;
+            }
+            for (double value : outTangent) {
+                if (value != 0) {
+                    return true;
+                }
+            }
+            for (double value : inTangent) {
+                if (value != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
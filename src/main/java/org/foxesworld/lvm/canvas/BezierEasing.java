@@ -0,0 +1,83 @@
+package org.foxesworld.lvm.canvas;
+
+/**
+ * Cubic bezier timing function with fixed end points (0,0) and (1,1), as used by keyframe easing.
+ */
+final class BezierEasing {
+
+    static final BezierEasing LINEAR = new BezierEasing(0, 0, 1, 1);
+
+    private static final int NEWTON_ITERATIONS = 8;
+    private static final double EPSILON = 1e-6;
+
+    private final double x1;
+    private final double y1;
+    private final double x2;
+    private final double y2;
+
+    BezierEasing(double x1, double y1, double x2, double y2) {
+        // Control points outside [0, 1] on the time axis would make the curve non-monotonic
+        this.x1 = Math.min(1, Math.max(0, x1));
+        this.y1 = y1;
+        this.x2 = Math.min(1, Math.max(0, x2));
+        this.y2 = y2;
+    }
+
+    /**
+     * Maps linear progress to eased progress.
+     *
+     * @param x linear progress in {@code [0, 1]}
+     * @return eased progress; may leave {@code [0, 1]} for overshooting curves
+     */
+    double ease(double x) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        if (x1 == y1 && x2 == y2) {
+            return x;
+        }
+        return sample(y1, y2, solveT(x));
+    }
+
+    private double solveT(double x) {
+        double t = x;
+        for (int i = 0; i < NEWTON_ITERATIONS; i++) {
+            double error = sample(x1, x2, t) - x;
+            if (Math.abs(error) < EPSILON) {
+                return t;
+            }
+            double slope = slope(x1, x2, t);
+            if (Math.abs(slope) < EPSILON) {
+                break;
+            }
+            t -= error / slope;
+        }
+        // Newton did not converge, fall back to bisection
+        double low = 0;
+        double high = 1;
+        t = x;
+        while (high - low > EPSILON) {
+            double value = sample(x1, x2, t);
+            if (value < x) {
+                low = t;
+            } else {
+                high = t;
+            }
+            t = (low + high) / 2;
+        }
+        return t;
+    }
+
+    private static double sample(double p1, double p2, double t) {
+        double u = 1 - t;
+        return 3 * u * u * t * p1 + 3 * u * t * t * p2 + t * t * t;
+    }
+
+    private static double slope(double p1, double p2, double t) {
+        double u = 1 - t;
+        return 3 * u * u * p1 + 6 * u * t * (p2 - p1) + 3 * t * t * (1 - p2);
+    }
+}
@@ -0,0 +1,287 @@
+package org.foxesworld.lvm.canvas;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.transform.Affine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One contour of cubic bezier segments in Lottie form: vertices with in and out tangents relative to them.
+ * Instances are immutable.
+ */
+final class BezierPath {
+
+    private static final int LENGTH_SAMPLES = 12;
+
+    final double[] vertices;
+    final double[] inTangents;
+    final double[] outTangents;
+    final boolean closed;
+    private double[] segmentLengths;
+
+    /**
+     * @param vertices    vertex coordinates as {@code x0, y0, x1, y1, ...}
+     * @param inTangents  incoming tangents relative to each vertex
+     * @param outTangents outgoing tangents relative to each vertex
+     * @param closed      whether the last vertex connects back to the first
+     */
+    BezierPath(double[] vertices, double[] inTangents, double[] outTangents, boolean closed) {
+        this.vertices = vertices;
+        this.inTangents = inTangents;
+        this.outTangents = outTangents;
+        this.closed = closed;
+    }
+
+    int getVertexCount() {
+        return vertices.length / 2;
+    }
+
+    int getSegmentCount() {
+        int count = getVertexCount();
+        if (count < 2) {
+            return 0;
+        }
+        return closed ? count : count - 1;
+    }
+
+    /**
+     * Interpolates vertex-wise between two paths with the same number of vertices.
+     */
+    static BezierPath lerp(BezierPath a, BezierPath b, double t) {
+        if (a.vertices.length != b.vertices.length) {
+            return t < 1 ? a : b;
+        }
+        return new BezierPath(lerp(a.vertices, b.vertices, t), lerp(a.inTangents, b.inTangents, t),
+                lerp(a.outTangents, b.outTangents, t), a.closed);
+    }
+
+    private static double[] lerp(double[] a, double[] b, double t) {
+        double[] result = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] + (b[i] - a[i]) * t;
+        }
+        return result;
+    }
+
+    BezierPath reversed() {
+        int count = getVertexCount();
+        double[] v = new double[vertices.length];
+        double[] in = new double[vertices.length];
+        double[] out = new double[vertices.length];
+        for (int i = 0; i < count; i++) {
+            // Keep the first vertex in place so that a closed path still starts where it did
+            int source = closed ? (count - i) % count : count - 1 - i;
+            v[2 * i] = vertices[2 * source];
+            v[2 * i + 1] = vertices[2 * source + 1];
+            in[2 * i] = outTangents[2 * source];
+            in[2 * i + 1] = outTangents[2 * source + 1];
+            out[2 * i] = inTangents[2 * source];
+            out[2 * i + 1] = inTangents[2 * source + 1];
+        }
+        return new BezierPath(v, in, out, closed);
+    }
+
+    /**
+     * Maps the path through an affine transform.
+     */
+    BezierPath transform(Affine affine) {
+        int count = getVertexCount();
+        double[] v = new double[vertices.length];
+        double[] in = new double[vertices.length];
+        double[] out = new double[vertices.length];
+        double mxx = affine.getMxx();
+        double mxy = affine.getMxy();
+        double myx = affine.getMyx();
+        double myy = affine.getMyy();
+        double tx = affine.getTx();
+        double ty = affine.getTy();
+        for (int i = 0; i < count; i++) {
+            double x = vertices[2 * i];
+            double y = vertices[2 * i + 1];
+            v[2 * i] = mxx * x + mxy * y + tx;
+            v[2 * i + 1] = myx * x + myy * y + ty;
+            // Tangents are directions, so the translation does not apply
+            in[2 * i] = mxx * inTangents[2 * i] + mxy * inTangents[2 * i + 1];
+            in[2 * i + 1] = myx * inTangents[2 * i] + myy * inTangents[2 * i + 1];
+            out[2 * i] = mxx * outTangents[2 * i] + mxy * outTangents[2 * i + 1];
+            out[2 * i + 1] = myx * outTangents[2 * i] + myy * outTangents[2 * i + 1];
+        }
+        return new BezierPath(v, in, out, closed);
+    }
+
+    /**
+     * Appends the contour to the current path of the graphics context.
+     */
+    void appendTo(GraphicsContext gc) {
+        int count = getVertexCount();
+        if (count == 0) {
+            return;
+        }
+        gc.moveTo(vertices[0], vertices[1]);
+        for (int s = 0; s < getSegmentCount(); s++) {
+            double[] c = segment(s);
+            gc.bezierCurveTo(c[2], c[3], c[4], c[5], c[6], c[7]);
+        }
+        if (closed) {
+            gc.closePath();
+        }
+    }
+
+    double getLength() {
+        double total = 0;
+        for (double length : getSegmentLengths()) {
+            total += length;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the part of the contour between two distances along it.
+     *
+     * @param from start distance, at least {@code 0}
+     * @param to   end distance, at most {@link #getLength()}
+     * @return the open sub-path, or {@code null} if it is empty
+     */
+    BezierPath subPath(double from, double to) {
+        if (to <= from) {
+            return null;
+        }
+        double[] lengths = getSegmentLengths();
+        List<double[]> segments = new ArrayList<>();
+        double offset = 0;
+        for (int s = 0; s < lengths.length; s++) {
+            double segmentStart = offset;
+            double segmentEnd = offset + lengths[s];
+            offset = segmentEnd;
+            if (segmentEnd <= from || segmentStart >= to || lengths[s] == 0) {
+                continue;
+            }
+            double[] curve = segment(s);
+            double t0 = from > segmentStart ? parameterAt(curve, lengths[s], from - segmentStart) : 0;
+            double t1 = to < segmentEnd ? parameterAt(curve, lengths[s], to - segmentStart) : 1;
+            segments.add(split(curve, t0, t1));
+        }
+        if (segments.isEmpty()) {
+            return null;
+        }
+        int count = segments.size() + 1;
+        double[] v = new double[2 * count];
+        double[] in = new double[2 * count];
+        double[] out = new double[2 * count];
+        for (int i = 0; i < segments.size(); i++) {
+            double[] c = segments.get(i);
+            v[2 * i] = c[0];
+            v[2 * i + 1] = c[1];
+            out[2 * i] = c[2] - c[0];
+            out[2 * i + 1] = c[3] - c[1];
+            v[2 * i + 2] = c[6];
+            v[2 * i + 3] = c[7];
+            in[2 * i + 2] = c[4] - c[6];
+            in[2 * i + 3] = c[5] - c[7];
+        }
+        return new BezierPath(v, in, out, false);
+    }
+
+    /**
+     * Returns the absolute control points {@code x0, y0, x1, y1, x2, y2, x3, y3} of a segment.
+     */
+    private double[] segment(int s) {
+        int a = s;
+        int b = (s + 1) % getVertexCount();
+        return new double[]{
+                vertices[2 * a], vertices[2 * a + 1],
+                vertices[2 * a] + outTangents[2 * a], vertices[2 * a + 1] + outTangents[2 * a + 1],
+                vertices[2 * b] + inTangents[2 * b], vertices[2 * b + 1] + inTangents[2 * b + 1],
+                vertices[2 * b], vertices[2 * b + 1]
+        };
+    }
+
+    private double[] getSegmentLengths() {
+        if (segmentLengths == null) {
+            double[] lengths = new double[getSegmentCount()];
+            for (int s = 0; s < lengths.length; s++) {
+                lengths[s] = length(segment(s), 1);
+            }
+            segmentLengths = lengths;
+        }
+        return segmentLengths;
+    }
+
+    /**
+     * Approximates the length of a curve from its start to parameter {@code t} with a polyline.
+     */
+    private static double length(double[] c, double t) {
+        double length = 0;
+        double px = c[0];
+        double py = c[1];
+        for (int i = 1; i <= LENGTH_SAMPLES; i++) {
+            double u = t * i / LENGTH_SAMPLES;
+            double x = point(c[0], c[2], c[4], c[6], u);
+            double y = point(c[1], c[3], c[5], c[7], u);
+            length += Math.hypot(x - px, y - py);
+            px = x;
+            py = y;
+        }
+        return length;
+    }
+
+    /**
+     * Finds the curve parameter at which the given distance along the curve is reached.
+     */
+    private static double parameterAt(double[] c, double totalLength, double distance) {
+        double low = 0;
+        double high = 1;
+        double t = distance / totalLength;
+        for (int i = 0; i < 12; i++) {
+            double length = length(c, t);
+            if (Math.abs(length - distance) < 1e-3) {
+                break;
+            }
+            if (length < distance) {
+                low = t;
+            } else {
+                high = t;
+            }
+            t = (low + high) / 2;
+        }
+        return t;
+    }
+
+    private static double point(double p0, double p1, double p2, double p3, double t) {
+        double u = 1 - t;
+        return u * u * u * p0 + 3 * u * u * t * p1 + 3 * u * t * t * p2 + t * t * t * p3;
+    }
+
+    /**
+     * Cuts the part between {@code t0} and {@code t1} out of a cubic curve.
+     */
+    private static double[] split(double[] c, double t0, double t1) {
+        double[] right = t0 > 0 ? splitAt(c, t0, false) : c;
+        if (t1 >= 1) {
+            return right;
+        }
+        // Re-map t1 onto the remaining curve
+        double t = (t1 - t0) / (1 - t0);
+        return splitAt(right, t, true);
+    }
+
+    private static double[] splitAt(double[] c, double t, boolean keepLeft) {
+        double x01 = c[0] + (c[2] - c[0]) * t;
+        double y01 = c[1] + (c[3] - c[1]) * t;
+        double x12 = c[2] + (c[4] - c[2]) * t;
+        double y12 = c[3] + (c[5] - c[3]) * t;
+        double x23 = c[4] + (c[6] - c[4]) * t;
+        double y23 = c[5] + (c[7] - c[5]) * t;
+        double x012 = x01 + (x12 - x01) * t;
+        double y012 = y01 + (y12 - y01) * t;
+        double x123 = x12 + (x23 - x12) * t;
+        double y123 = y12 + (y23 - y12) * t;
+        double x = x012 + (x123 - x012) * t;
+        double y = y012 + (y123 - y012) * t;
+        if (keepLeft) {
+            return new double[]{c[0], c[1], x01, y01, x012, y012, x, y};
+        }
+        return new double[]{x, y, x123, y123, x23, y23, c[6], c[7]};
+    }
+}
@@ -0,0 +1,467 @@
+package org.foxesworld.lvm.canvas;
+
+import com.google.gson.Gson;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Region;
+import org.foxesworld.lvm.AnimationController;
+import org.foxesworld.lvm.config.LottieAnimationConfig;
+import org.foxesworld.lvm.event.AnimationCallback;
+import org.foxesworld.lvm.event.AnimationListener;
+import org.foxesworld.lvm.resourceLoader.ResourceLoader;
+import org.foxesworld.lvm.view.EnterFrameThrottle;
+import org.foxesworld.lvm.view.LoadExecutors;
+import org.foxesworld.lvm.view.PlaybackClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Plays a Lottie animation on a JavaFX {@link Canvas}, without a {@code WebView}.
+ * <p>
+ * Frames are drawn by the scene graph's own renderer on each pulse, so the view costs no WebKit page, no
+ * JavaScript and no bodymovin. Only shape and solid layers with fills, strokes and trim paths are drawn;
+ * see {@link LottieComposition#getUnsupportedFeatures()}. {@code LVMView} picks this view automatically for
+ * animations that stay within that subset.
+ * </p>
+ * Playback and events follow lottie-web: the loop, autoplay, subscribed events and {@code enterFrame}
+ * limits come from the {@link LottieAnimationConfig}.
+ */
+public final class CanvasAnimationView extends Region implements AnimationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CanvasAnimationView.class);
+    private static final Gson GSON = new Gson();
+
+    private final LottieAnimationConfig config;
+    private final Canvas canvas = new Canvas();
+    private final CanvasRenderer renderer = new CanvasRenderer();
+    private final ResourceLoader resourceLoader = new ResourceLoader();
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            tick(now);
+        }
+    };
+    /**
+     * Playhead relative to the composition's in point.
+     */
+    private final PlaybackClock clock;
+    private final EnterFrameThrottle enterFrameThrottle;
+    private LottieComposition composition;
+    private AnimationCallback animationCallback;
+    private AnimationListener animationListener;
+    private boolean playing;
+    private double renderedFrame = Double.NaN;
+    private double renderedWidth;
+    private double renderedHeight;
+    private long loadGeneration;
+    private boolean disposed;
+
+    /**
+     * Creates the view and loads the animation referenced by the configuration.
+     *
+     * @param config the animation configuration
+     * @throws RuntimeException if the animation cannot be loaded
+     */
+    public CanvasAnimationView(LottieAnimationConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * Creates the view for an already parsed composition, or loads the configured animation if it is
+     * {@code null}.
+     *
+     * @param config      the animation configuration
+     * @param composition the composition of the configured animation
+     */
+    public CanvasAnimationView(LottieAnimationConfig config, LottieComposition composition) {
+        if (config == null) throw new IllegalArgumentException("LottieAnimationConfig must not be null");
+        this.config = config;
+        this.clock = new PlaybackClock(config::isLoop);
+        this.enterFrameThrottle = new EnterFrameThrottle(config);
+        getChildren().add(canvas);
+        addEventHandler(MouseEvent.MOUSE_ENTERED, e -> onHover(true));
+        addEventHandler(MouseEvent.MOUSE_EXITED, e -> onHover(false));
+        addEventHandler(MouseEvent.MOUSE_CLICKED, this::onClick);
+        if (composition != null) {
+            setComposition(composition);
+        } else {
+            loadAnimation(config.getAnimationJsonResourcePath());
+        }
+    }
+
+    /**
+     * Loads and parses an animation, replacing the current one.
+     *
+     * @param animationUri the animation resource path or {@code file:} URI
+     * @throws RuntimeException if the animation cannot be loaded or parsed
+     */
+    public void loadAnimation(String animationUri) {
+        if (animationUri == null) throw new IllegalArgumentException("Animation URI must not be null");
+        ensureNotDisposed();
+        loadGeneration++;
+        LottieComposition loaded;
+        try {
+            loaded = LottieCompositionParser.parse(resourceLoader.loadResource(animationUri, String.class));
+        } catch (Exception e) {
+            logger.error("Failed to load animation", e);
+            fireDataFailed();
+            throw new RuntimeException("Failed to load animation", e);
+        }
+        config.setAnimationJsonResourcePath(animationUri);
+        setComposition(loaded);
+    }
+
+    /**
+     * Loads and parses an animation off the JavaFX Application Thread. Starting another load cancels this one.
+     *
+     * @param animationUri the animation resource path or {@code file:} URI
+     * @return a future that completes when the animation is shown
+     */
+    public CompletableFuture<Void> loadAnimationAsync(String animationUri) {
+        if (animationUri == null) throw new IllegalArgumentException("Animation URI must not be null");
+        ensureNotDisposed();
+        long generation = ++loadGeneration;
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        LoadExecutors.shared().execute(() -> {
+            try {
+                LottieComposition loaded = LottieCompositionParser.parse(resourceLoader.loadResource(animationUri, String.class));
+                Platform.runLater(() -> {
+                    if (generation != loadGeneration || disposed) {
+                        result.cancel(false);
+                        return;
+                    }
+                    config.setAnimationJsonResourcePath(animationUri);
+                    setComposition(loaded);
+                    result.complete(null);
+                });
+            } catch (Exception e) {
+                logger.error("Failed to load animation asynchronously", e);
+                Platform.runLater(this::fireDataFailed);
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private void setComposition(LottieComposition composition) {
+        if (!composition.isSupported()) {
+            logger.warn("Animation {} uses features the canvas renderer does not draw: {}",
+                    config.getAnimationJsonResourcePath(), composition.getUnsupportedFeatures());
+        }
+        this.composition = composition;
+        clock.reset();
+        clock.setTiming(composition.getTotalFrames(), composition.getFrameRate());
+        enterFrameThrottle.reset();
+        renderedFrame = Double.NaN;
+        requestLayout();
+        draw();
+        // As in lottie-web, the load events arrive asynchronously, so a callback or listener set right after
+        // the constructor, which already loads the composition, still receives them
+        Platform.runLater(() -> {
+            if (disposed || this.composition != composition) {
+                return;
+            }
+            fireEvent("data_ready", Map.of("type", "data_ready"));
+            fireEvent("DOMLoaded", Map.of("type", "DOMLoaded"));
+        });
+        if (config.isAutoplay()) {
+            play();
+        } else {
+            pause();
+        }
+    }
+
+    @Override
+    public void play() {
+        if (composition == null || disposed) {
+            return;
+        }
+        clock.rewindIfComplete();
+        playing = true;
+        clock.restart();
+        timer.start();
+    }
+
+    @Override
+    public void pause() {
+        playing = false;
+        timer.stop();
+    }
+
+    @Override
+    public void stop() {
+        pause();
+        if (composition == null) {
+            return;
+        }
+        clock.setCurrentFrame(clock.getStartFrame());
+        draw();
+    }
+
+    @Override
+    public void setSpeed(float speed) {
+        if (speed <= 0.0f) {
+            throw new IllegalArgumentException("Speed must be greater than 0");
+        }
+        clock.setSpeed(speed);
+    }
+
+    /**
+     * Sets the playing direction.
+     *
+     * @param direction {@code 1} to play forward, {@code -1} to play backward
+     */
+    public void setDirection(int direction) {
+        clock.setDirection(direction);
+    }
+
+    /**
+     * Sets the animation progress and stops there.
+     * @param progress a value from 0 to 1, where 0 is the first and 1 the last frame
+     */
+    public void setAnimationProgress(float progress) {
+        if (composition == null) {
+            return;
+        }
+        seekToFrame(Math.floor(composition.getTotalFrames() * Math.max(0f, Math.min(1f, progress))));
+    }
+
+    /**
+     * Moves the playhead to the given frame and stops there.
+     * @param frame the frame to show, relative to the first frame of the animation
+     */
+    public void seekToFrame(double frame) {
+        pause();
+        if (composition == null) {
+            return;
+        }
+        clock.setCurrentFrame(frame);
+        draw();
+        fireEnterFrame();
+    }
+
+    @Override
+    public void setAnimationCallback(AnimationCallback callback) {
+        if (callback == null) throw new IllegalArgumentException("AnimationCallback must not be null");
+        this.animationCallback = callback;
+    }
+
+    @Override
+    public void setAnimationListener(AnimationListener listener) {
+        if (listener == null) throw new IllegalArgumentException("AnimationListener must not be null");
+        this.animationListener = listener;
+    }
+
+    /**
+     * Stops playback and releases the composition. The view cannot load animations afterwards.
+     */
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        loadGeneration++;
+        pause();
+        composition = null;
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    }
+
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * Returns the current frame relative to the first frame of the animation.
+     */
+    public double getCurrentFrame() {
+        return clock.getCurrentFrame();
+    }
+
+    public LottieComposition getComposition() {
+        return composition;
+    }
+
+    public LottieAnimationConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return composition != null ? composition.getWidth() + snappedLeftInset() + snappedRightInset() : 0;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return composition != null ? composition.getHeight() + snappedTopInset() + snappedBottomInset() : 0;
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = getWidth() - snappedLeftInset() - snappedRightInset();
+        double height = getHeight() - snappedTopInset() - snappedBottomInset();
+        canvas.relocate(snappedLeftInset(), snappedTopInset());
+        canvas.setWidth(Math.max(0, width));
+        canvas.setHeight(Math.max(0, height));
+        draw();
+    }
+
+    private void tick(long now) {
+        if (composition.getTotalFrames() <= 0) {
+            pause();
+            return;
+        }
+        switch (clock.advance(now)) {
+            case LOOP_COMPLETE:
+                fireLoopComplete();
+                draw();
+                fireEnterFrame();
+                break;
+            case FRAME:
+                draw();
+                fireEnterFrame();
+                break;
+            case COMPLETE:
+                draw();
+                fireEnterFrame();
+                pause();
+                fireComplete();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Draws the current frame unless it is already on the canvas.
+     */
+    private void draw() {
+        if (composition == null) {
+            return;
+        }
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        double currentFrame = clock.getCurrentFrame();
+        if (currentFrame == renderedFrame && width == renderedWidth && height == renderedHeight) {
+            return;
+        }
+        renderer.render(canvas.getGraphicsContext2D(), composition, composition.getInPoint() + currentFrame, width, height);
+        renderedFrame = currentFrame;
+        renderedWidth = width;
+        renderedHeight = height;
+    }
+
+    private void fireEnterFrame() {
+        double currentFrame = clock.getCurrentFrame();
+        if (!config.getSubscribedEvents().contains("enterFrame") || !enterFrameThrottle.shouldDeliver(currentFrame)) {
+            return;
+        }
+        if (animationListener != null) {
+            animationListener.onEnterFrame(currentFrame, composition.getTotalFrames(), clock.getDirection());
+        }
+        if (animationCallback != null) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("type", "enterFrame");
+            event.put("currentTime", currentFrame);
+            event.put("totalTime", composition.getTotalFrames());
+            event.put("direction", clock.getDirection());
+            animationCallback.onEvent("enterFrame", GSON.toJson(event));
+        }
+    }
+
+    private void fireLoopComplete() {
+        if (!config.getSubscribedEvents().contains("loopComplete")) {
+            return;
+        }
+        if (animationListener != null) {
+            animationListener.onLoopComplete(clock.getCurrentLoop(), clock.getDirection());
+        }
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "loopComplete");
+        event.put("firstFrame", composition.getInPoint());
+        event.put("totalLoops", config.isLoop() ? 0 : 1);
+        event.put("currentLoop", clock.getCurrentLoop());
+        event.put("direction", clock.getDirection());
+        fireCallback("loopComplete", event);
+    }
+
+    private void fireComplete() {
+        if (!config.getSubscribedEvents().contains("complete")) {
+            return;
+        }
+        if (animationListener != null) {
+            animationListener.onComplete(clock.getDirection());
+        }
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "complete");
+        event.put("direction", clock.getDirection());
+        fireCallback("complete", event);
+    }
+
+    private void fireDataFailed() {
+        if (disposed || !config.getSubscribedEvents().contains("data_failed")) {
+            return;
+        }
+        if (animationListener != null) {
+            animationListener.onDataFailed();
+        }
+        fireCallback("data_failed", Map.of("type", "data_failed"));
+    }
+
+    /**
+     * Raises events without arguments: {@code data_ready} and {@code DOMLoaded}.
+     */
+    private void fireEvent(String eventName, Map<String, Object> event) {
+        if (!config.getSubscribedEvents().contains(eventName)) {
+            return;
+        }
+        if (animationListener != null) {
+            if ("data_ready".equals(eventName)) {
+                animationListener.onDataReady();
+            } else if ("DOMLoaded".equals(eventName)) {
+                animationListener.onDOMLoaded();
+            }
+        }
+        fireCallback(eventName, event);
+    }
+
+    private void fireCallback(String eventName, Map<String, Object> event) {
+        if (animationCallback != null) {
+            animationCallback.onEvent(eventName, GSON.toJson(event));
+        }
+    }
+
+    private void onHover(boolean entered) {
+        if (animationListener != null) {
+            animationListener.onHover(entered);
+        }
+        if (animationCallback != null) {
+            animationCallback.onHover("{\"type\":\"" + (entered ? "mouseenter" : "mouseleave") + "\"}");
+        }
+    }
+
+    private void onClick(MouseEvent event) {
+        if (animationListener != null) {
+            animationListener.onClick(event.getX(), event.getY());
+        }
+        if (animationCallback != null) {
+            animationCallback.onClick("{\"x\":" + event.getX() + ",\"y\":" + event.getY()
+                    + ",\"timestamp\":" + System.currentTimeMillis() + '}');
+        }
+    }
+
+    private void ensureNotDisposed() {
+        if (disposed) {
+            throw new IllegalStateException("Animation view has been disposed");
+        }
+    }
+}
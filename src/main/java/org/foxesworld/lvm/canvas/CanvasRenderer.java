@@ -0,0 +1,329 @@
+package org.foxesworld.lvm.canvas;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.transform.Affine;
+import javafx.scene.transform.NonInvertibleTransformException;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Draws one frame of a {@link LottieComposition} onto a {@link GraphicsContext}.
+ * <p>
+ * Shape items are walked bottom-up like lottie-web does: every fill or stroke collects the geometry above it
+ * in its group and in nested groups, and every trim modifies that geometry before it is painted. Paints are
+ * then drawn bottom to top, each in the coordinate space of its own group, so stroke widths scale with the
+ * group that owns the stroke.
+ * </p>
+ */
+final class CanvasRenderer {
+
+    private static final int MAX_PARENT_DEPTH = 64;
+
+    /**
+     * Clears the area and draws the composition scaled to fit it, centered, keeping its aspect ratio.
+     *
+     * @param frame composition frame, between the composition's in and out points
+     */
+    void render(GraphicsContext gc, LottieComposition composition, double frame, double width, double height) {
+        gc.setTransform(new Affine());
+        gc.clearRect(0, 0, width, height);
+        if (composition.getWidth() <= 0 || composition.getHeight() <= 0 || width <= 0 || height <= 0) {
+            return;
+        }
+        double scale = Math.min(width / composition.getWidth(), height / composition.getHeight());
+        double offsetX = (width - composition.getWidth() * scale) / 2;
+        double offsetY = (height - composition.getHeight() * scale) / 2;
+        Affine base = new Affine();
+        base.appendTranslation(offsetX, offsetY);
+        base.appendScale(scale, scale);
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(offsetX, offsetY, composition.getWidth() * scale, composition.getHeight() * scale);
+        gc.clip();
+        Map<Layer, Affine> worldMatrices = new IdentityHashMap<>();
+        List<Layer> layers = composition.getLayers();
+        // The first layer is the top one
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            Layer layer = layers.get(i);
+            if (layer.isVisibleAt(frame)) {
+                renderLayer(gc, layer, frame, base, worldMatrices);
+            }
+        }
+        gc.restore();
+    }
+
+    private void renderLayer(GraphicsContext gc, Layer layer, double frame, Affine base, Map<Layer, Affine> worldMatrices) {
+        // Keyframes are in layer time, shifted by the start time and scaled by the stretch as in lottie-web
+        double localFrame = layer.toLocalFrame(frame);
+        double alpha = layer.transform.getOpacity(localFrame);
+        if (alpha <= 0) {
+            return;
+        }
+        Affine layerToCanvas = base.clone();
+        layerToCanvas.append(getWorldMatrix(layer, frame, worldMatrices, 0));
+        if (layer.type == Layer.TYPE_SOLID) {
+            gc.setTransform(layerToCanvas);
+            gc.setGlobalAlpha(alpha);
+            gc.setFill(layer.solidColor);
+            gc.fillRect(0, 0, layer.solidWidth, layer.solidHeight);
+            return;
+        }
+        RenderPass pass = new RenderPass();
+        collect(layer.shapes, localFrame, new Affine(), alpha, new ArrayList<>(), new ArrayList<>(), pass);
+        // Trims found later in the bottom-up walk are closer to their geometry and apply first
+        for (int i = pass.trims.size() - 1; i >= 0; i--) {
+            applyTrim(pass.trims.get(i), localFrame);
+        }
+        for (StyleOp style : pass.styles) {
+            paint(gc, style, localFrame, layerToCanvas);
+        }
+    }
+
+    /**
+     * Returns the matrix from layer space to composition space, including all parents. Each layer's transform
+     * is evaluated in its own time.
+     *
+     * @param frame composition frame
+     */
+    private Affine getWorldMatrix(Layer layer, double frame, Map<Layer, Affine> worldMatrices, int depth) {
+        Affine cached = worldMatrices.get(layer);
+        if (cached != null) {
+            return cached;
+        }
+        Affine local = layer.transform.getMatrix(layer.toLocalFrame(frame));
+        Affine world;
+        if (layer.parent != null && depth < MAX_PARENT_DEPTH) {
+            world = getWorldMatrix(layer.parent, frame, worldMatrices, depth + 1).clone();
+            world.append(local);
+        } else {
+            world = local;
+        }
+        worldMatrices.put(layer, world);
+        return world;
+    }
+
+    /**
+     * Walks the items of a group from the bottom up, registering paints and trims and attaching geometry to
+     * the paints and trims that are in scope.
+     *
+     * @param toLayer matrix from this group's space to layer space
+     */
+    private void collect(List<ShapeItem> items, double frame, Affine toLayer, double alpha,
+                         List<StyleOp> inheritedStyles, List<TrimOp> inheritedTrims, RenderPass pass) {
+        List<StyleOp> styles = new ArrayList<>(inheritedStyles);
+        List<TrimOp> trims = new ArrayList<>(inheritedTrims);
+        for (int i = items.size() - 1; i >= 0; i--) {
+            ShapeItem item = items.get(i);
+            if (item instanceof ShapeItem.Paint) {
+                StyleOp style = new StyleOp((ShapeItem.Paint) item, toLayer, alpha);
+                styles.add(style);
+                pass.styles.add(style);
+            } else if (item instanceof ShapeItem.Trim) {
+                TrimOp trim = new TrimOp((ShapeItem.Trim) item);
+                trims.add(trim);
+                pass.trims.add(trim);
+            } else if (item instanceof ShapeItem.Geometry) {
+                BezierPath path = ((ShapeItem.Geometry) item).getPath(frame);
+                if (path == null || path.getVertexCount() == 0) {
+                    continue;
+                }
+                Occurrence occurrence = new Occurrence(path, toLayer);
+                for (StyleOp style : styles) {
+                    style.targets.add(occurrence);
+                }
+                for (TrimOp trim : trims) {
+                    trim.targets.add(occurrence);
+                }
+            } else if (item instanceof ShapeItem.Group) {
+                ShapeItem.Group group = (ShapeItem.Group) item;
+                double groupAlpha = alpha * group.transform.getOpacity(frame);
+                if (groupAlpha <= 0) {
+                    continue;
+                }
+                Affine childToLayer = toLayer.clone();
+                childToLayer.append(group.transform.getMatrix(frame));
+                collect(group.items, frame, childToLayer, groupAlpha, styles, trims, pass);
+            }
+        }
+    }
+
+    private void applyTrim(TrimOp op, double frame) {
+        double start = op.trim.start.get(frame) / 100;
+        double end = op.trim.end.get(frame) / 100;
+        if (start > end) {
+            double swap = start;
+            start = end;
+            end = swap;
+        }
+        start = Math.max(0, Math.min(1, start));
+        end = Math.max(0, Math.min(1, end));
+        if (end - start >= 1) {
+            return;
+        }
+        double shift = op.trim.offset.get(frame) / 360;
+        double from = start + shift;
+        from -= Math.floor(from);
+        double to = from + (end - start);
+
+        if (op.trim.simultaneous) {
+            for (Occurrence occurrence : op.targets) {
+                List<BezierPath> trimmed = new ArrayList<>();
+                for (BezierPath contour : occurrence.contours) {
+                    double length = contour.getLength();
+                    addRange(trimmed, contour, 0, from * length, to * length, length);
+                }
+                occurrence.contours = trimmed;
+            }
+            return;
+        }
+        // Individually: the contours are trimmed as if they were one path, one after another
+        double total = 0;
+        for (Occurrence occurrence : op.targets) {
+            for (BezierPath contour : occurrence.contours) {
+                total += contour.getLength();
+            }
+        }
+        double offset = 0;
+        for (Occurrence occurrence : op.targets) {
+            List<BezierPath> trimmed = new ArrayList<>();
+            for (BezierPath contour : occurrence.contours) {
+                double length = contour.getLength();
+                addRange(trimmed, contour, offset, from * total, to * total, total);
+                offset += length;
+            }
+            occurrence.contours = trimmed;
+        }
+    }
+
+    /**
+     * Adds the part of a contour that falls into {@code [from, to]} of a (possibly longer) combined path.
+     * A range past the end wraps around to the start.
+     *
+     * @param contourOffset where the contour starts within the combined path
+     * @param total         length of the combined path
+     */
+    private static void addRange(List<BezierPath> out, BezierPath contour, double contourOffset,
+                                 double from, double to, double total) {
+        addSegment(out, contour, contourOffset, from, Math.min(to, total));
+        if (to > total) {
+            addSegment(out, contour, contourOffset, 0, to - total);
+        }
+    }
+
+    private static void addSegment(List<BezierPath> out, BezierPath contour, double contourOffset, double from, double to) {
+        double length = contour.getLength();
+        double localFrom = Math.max(0, from - contourOffset);
+        double localTo = Math.min(length, to - contourOffset);
+        if (localTo <= localFrom) {
+            return;
+        }
+        if (localFrom <= 0 && localTo >= length) {
+            out.add(contour);
+            return;
+        }
+        BezierPath part = contour.subPath(localFrom, localTo);
+        if (part != null) {
+            out.add(part);
+        }
+    }
+
+    private void paint(GraphicsContext gc, StyleOp style, double frame, Affine layerToCanvas) {
+        if (style.targets.isEmpty()) {
+            return;
+        }
+        double alpha = style.alpha * style.paint.getOpacity(frame);
+        if (alpha <= 0) {
+            return;
+        }
+        Affine fromLayer;
+        try {
+            fromLayer = style.toLayer.createInverse();
+        } catch (NonInvertibleTransformException e) {
+            // A group scaled to zero draws nothing
+            return;
+        }
+        Affine toCanvas = layerToCanvas.clone();
+        toCanvas.append(style.toLayer);
+        gc.setTransform(toCanvas);
+        gc.beginPath();
+        boolean empty = true;
+        for (int i = style.targets.size() - 1; i >= 0; i--) {
+            Occurrence occurrence = style.targets.get(i);
+            Affine relative = null;
+            if (occurrence.toLayer != style.toLayer) {
+                relative = fromLayer.clone();
+                relative.append(occurrence.toLayer);
+            }
+            for (BezierPath contour : occurrence.contours) {
+                (relative != null ? contour.transform(relative) : contour).appendTo(gc);
+                empty = false;
+            }
+        }
+        if (empty) {
+            return;
+        }
+        gc.setGlobalAlpha(alpha);
+        if (style.paint instanceof ShapeItem.Fill) {
+            ShapeItem.Fill fill = (ShapeItem.Fill) style.paint;
+            gc.setFill(fill.getColor(frame));
+            gc.setFillRule(fill.fillRule);
+            gc.fill();
+        } else {
+            ShapeItem.Stroke stroke = (ShapeItem.Stroke) style.paint;
+            double width = stroke.width.get(frame);
+            if (width <= 0) {
+                return;
+            }
+            gc.setStroke(stroke.getColor(frame));
+            gc.setLineWidth(width);
+            gc.setLineCap(stroke.lineCap);
+            gc.setLineJoin(stroke.lineJoin);
+            gc.setMiterLimit(stroke.miterLimit);
+            gc.stroke();
+        }
+    }
+
+    private static final class RenderPass {
+        private final List<StyleOp> styles = new ArrayList<>();
+        private final List<TrimOp> trims = new ArrayList<>();
+    }
+
+    /**
+     * A piece of geometry in the space of the group that defines it; trims replace its contours.
+     */
+    private static final class Occurrence {
+        private List<BezierPath> contours;
+        private final Affine toLayer;
+
+        private Occurrence(BezierPath path, Affine toLayer) {
+            this.contours = List.of(path);
+            this.toLayer = toLayer;
+        }
+    }
+
+    private static final class StyleOp {
+        private final ShapeItem.Paint paint;
+        private final Affine toLayer;
+        private final double alpha;
+        private final List<Occurrence> targets = new ArrayList<>();
+
+        private StyleOp(ShapeItem.Paint paint, Affine toLayer, double alpha) {
+            this.paint = paint;
+            this.toLayer = toLayer;
+            this.alpha = alpha;
+        }
+    }
+
+    private static final class TrimOp {
+        private final ShapeItem.Trim trim;
+        private final List<Occurrence> targets = new ArrayList<>();
+
+        private TrimOp(ShapeItem.Trim trim) {
+            this.trim = trim;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.foxesworld.lvm.canvas;
+
+import javafx.scene.paint.Color;
+
+import java.util.List;
+
+/**
+ * A shape, solid or null layer of a composition.
+ */
+final class Layer {
+
+    static final int TYPE_SOLID = 1;
+    static final int TYPE_NULL = 3;
+    static final int TYPE_SHAPE = 4;
+
+    int type;
+    int index;
+    /**
+     * Index of the parent layer, or {@code -1} if the layer has none.
+     */
+    int parentIndex = -1;
+    Layer parent;
+    double inPoint;
+    double outPoint;
+    /**
+     * Composition frame at which the layer's own time starts ({@code st}).
+     */
+    double startTime;
+    /**
+     * Time stretch factor ({@code sr}); {@code 2} plays the layer at half speed.
+     */
+    double stretch = 1;
+    boolean hidden;
+    LayerTransform transform = new LayerTransform();
+    List<ShapeItem> shapes = List.of();
+    Color solidColor = Color.TRANSPARENT;
+    double solidWidth;
+    double solidHeight;
+
+    /**
+     * Converts a composition frame into the layer's own time, in which its keyframes are given. In and out
+     * points stay in composition time.
+     */
+    double toLocalFrame(double frame) {
+        return (frame - startTime) / stretch;
+    }
+
+    boolean isVisibleAt(double frame) {
+        return !hidden && type != TYPE_NULL && frame >= inPoint && frame < outPoint;
+    }
+}
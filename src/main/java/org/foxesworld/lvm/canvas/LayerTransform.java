@@ -0,0 +1,52 @@
+package org.foxesworld.lvm.canvas;
+
+import javafx.scene.transform.Affine;
+
+/**
+ * Anchor, position, scale, rotation and opacity of a layer or a shape group.
+ */
+final class LayerTransform {
+
+    AnimatableValue anchor = AnimatableValue.of(0, 0);
+    /**
+     * Combined position, or {@code null} when the position is split into {@link #positionX} and
+     * {@link #positionY}.
+     */
+    AnimatableValue position = AnimatableValue.of(0, 0);
+    AnimatableValue positionX;
+    AnimatableValue positionY;
+    AnimatableValue scale = AnimatableValue.of(100, 100);
+    AnimatableValue rotation = AnimatableValue.of(0);
+    AnimatableValue opacity = AnimatableValue.of(100);
+
+    /**
+     * Returns the matrix mapping local coordinates to the parent's coordinates at the given frame.
+     */
+    Affine getMatrix(double frame) {
+        Affine affine = new Affine();
+        double x;
+        double y;
+        if (position != null) {
+            double[] p = position.getValue(frame);
+            x = p[0];
+            y = p.length > 1 ? p[1] : 0;
+        } else {
+            x = positionX.get(frame);
+            y = positionY.get(frame);
+        }
+        affine.appendTranslation(x, y);
+        double r = rotation.get(frame);
+        if (r != 0) {
+            affine.appendRotation(r);
+        }
+        double[] s = scale.getValue(frame);
+        affine.appendScale(s[0] / 100, (s.length > 1 ? s[1] : s[0]) / 100);
+        double[] a = anchor.getValue(frame);
+        affine.appendTranslation(-a[0], a.length > 1 ? -a[1] : 0);
+        return affine;
+    }
+
+    double getOpacity(double frame) {
+        return Math.max(0, Math.min(1, opacity.get(frame) / 100));
+    }
+}
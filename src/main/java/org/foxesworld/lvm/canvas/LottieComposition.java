@@ -0,0 +1,80 @@
+package org.foxesworld.lvm.canvas;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Lottie animation parsed for the canvas renderer.
+ * <p>
+ * Only a subset of Lottie is modelled: shape, solid and null layers with parenting, transforms, paths,
+ * rectangles, ellipses, fills, strokes, trim paths and keyframe easing. Everything else is listed in
+ * {@link #getUnsupportedFeatures()}; a composition with unsupported features must be played with the WebView
+ * engine instead.
+ * </p>
+ */
+public final class LottieComposition {
+
+    private final double frameRate;
+    private final double inPoint;
+    private final double outPoint;
+    private final double width;
+    private final double height;
+    private final List<Layer> layers;
+    private final List<String> unsupportedFeatures;
+
+    LottieComposition(double frameRate, double inPoint, double outPoint, double width, double height,
+                      List<Layer> layers, List<String> unsupportedFeatures) {
+        this.frameRate = frameRate;
+        this.inPoint = inPoint;
+        this.outPoint = outPoint;
+        this.width = width;
+        this.height = height;
+        this.layers = layers;
+        this.unsupportedFeatures = Collections.unmodifiableList(unsupportedFeatures);
+    }
+
+    public double getFrameRate() {
+        return frameRate;
+    }
+
+    public double getInPoint() {
+        return inPoint;
+    }
+
+    public double getOutPoint() {
+        return outPoint;
+    }
+
+    /**
+     * Returns the number of frames, {@code outPoint - inPoint}.
+     */
+    public double getTotalFrames() {
+        return outPoint - inPoint;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns {@code true} if the canvas renderer can draw this composition faithfully.
+     */
+    public boolean isSupported() {
+        return unsupportedFeatures.isEmpty();
+    }
+
+    /**
+     * Returns the features that the canvas renderer cannot draw, e.g. {@code "layer type 0 (precomp)"}.
+     */
+    public List<String> getUnsupportedFeatures() {
+        return unsupportedFeatures;
+    }
+
+    List<Layer> getLayers() {
+        return layers;
+    }
+}
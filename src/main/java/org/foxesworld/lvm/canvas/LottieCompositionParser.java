@@ -0,0 +1,788 @@
+package org.foxesworld.lvm.canvas;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.FillRule;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads Lottie JSON into a {@link LottieComposition} with Gson's streaming {@link JsonReader}.
+ * <p>
+ * No JSON tree is built: layers and shape items are read key by key into the model, and everything outside
+ * the supported subset is skipped and recorded as an unsupported feature. Merge paths are ignored, as they
+ * are by the SVG renderer of lottie-web.
+ * </p>
+ */
+public final class LottieCompositionParser {
+
+    private final Set<String> unsupported = new LinkedHashSet<>();
+
+    private LottieCompositionParser() {
+    }
+
+    /**
+     * Parses an animation.
+     *
+     * @param json the Lottie JSON
+     * @return the composition; check {@link LottieComposition#isSupported()} before rendering it
+     * @throws RuntimeException if the JSON is malformed
+     */
+    public static LottieComposition parse(String json) {
+        try {
+            return parse(new StringReader(json));
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            throw new RuntimeException("Failed to parse Lottie JSON", e);
+        }
+    }
+
+    /**
+     * Parses an animation from a character stream.
+     *
+     * @param reader the Lottie JSON; not closed by this method
+     * @return the composition; check {@link LottieComposition#isSupported()} before rendering it
+     * @throws IOException if reading fails or the JSON is malformed
+     */
+    public static LottieComposition parse(Reader reader) throws IOException {
+        return new LottieCompositionParser().readComposition(new JsonReader(reader));
+    }
+
+    private LottieComposition readComposition(JsonReader reader) throws IOException {
+        double frameRate = 30;
+        double inPoint = 0;
+        double outPoint = 0;
+        double width = 0;
+        double height = 0;
+        List<Layer> layers = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "fr":
+                    frameRate = reader.nextDouble();
+                    break;
+                case "ip":
+                    inPoint = reader.nextDouble();
+                    break;
+                case "op":
+                    outPoint = reader.nextDouble();
+                    break;
+                case "w":
+                    width = reader.nextDouble();
+                    break;
+                case "h":
+                    height = reader.nextDouble();
+                    break;
+                case "ddd":
+                    if (reader.nextInt() != 0) {
+                        unsupported.add("3D layers");
+                    }
+                    break;
+                case "layers":
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        layers.add(readLayer(reader));
+                    }
+                    reader.endArray();
+                    break;
+                case "chars":
+                    if (skipNonEmptyArray(reader)) {
+                        unsupported.add("text glyphs");
+                    }
+                    break;
+                default:
+                    // Assets only matter through precomp and image layers, which are reported there
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        linkParents(layers);
+        return new LottieComposition(frameRate, inPoint, outPoint, width, height, layers, new ArrayList<>(unsupported));
+    }
+
+    private void linkParents(List<Layer> layers) {
+        Map<Integer, Layer> byIndex = new HashMap<>();
+        for (Layer layer : layers) {
+            byIndex.put(layer.index, layer);
+        }
+        for (Layer layer : layers) {
+            if (layer.parentIndex >= 0) {
+                layer.parent = byIndex.get(layer.parentIndex);
+                if (layer.parent == null) {
+                    unsupported.add("missing parent layer");
+                }
+            }
+        }
+    }
+
+    private Layer readLayer(JsonReader reader) throws IOException {
+        Layer layer = new Layer();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "ty":
+                    layer.type = reader.nextInt();
+                    break;
+                case "ind":
+                    layer.index = reader.nextInt();
+                    break;
+                case "parent":
+                    layer.parentIndex = reader.nextInt();
+                    break;
+                case "ip":
+                    layer.inPoint = reader.nextDouble();
+                    break;
+                case "op":
+                    layer.outPoint = reader.nextDouble();
+                    break;
+                case "hd":
+                    layer.hidden = reader.nextBoolean();
+                    break;
+                case "st":
+                    layer.startTime = reader.nextDouble();
+                    break;
+                case "sr":
+                    layer.stretch = reader.nextDouble();
+                    break;
+                case "ks":
+                    layer.transform = toTransform(readProperties(reader));
+                    break;
+                case "shapes":
+                    layer.shapes = readShapes(reader);
+                    break;
+                case "sc":
+                    layer.solidColor = Color.web(reader.nextString());
+                    break;
+                case "sw":
+                    layer.solidWidth = reader.nextDouble();
+                    break;
+                case "sh":
+                    layer.solidHeight = reader.nextDouble();
+                    break;
+                case "ddd":
+                    flagIf(reader.nextInt() != 0, "3D layers");
+                    break;
+                case "ao":
+                    flagIf(reader.nextInt() != 0, "auto-orient");
+                    break;
+                case "bm":
+                    flagIf(reader.nextInt() != 0, "blend modes");
+                    break;
+                case "tt":
+                    reader.skipValue();
+                    unsupported.add("track mattes");
+                    break;
+                case "td":
+                    flagIf(reader.nextInt() != 0, "track mattes");
+                    break;
+                case "hasMask":
+                    flagIf(reader.nextBoolean(), "masks");
+                    break;
+                case "masksProperties":
+                    flagIf(skipNonEmptyArray(reader), "masks");
+                    break;
+                case "ef":
+                    flagIf(skipNonEmptyArray(reader), "effects");
+                    break;
+                case "tm":
+                    reader.skipValue();
+                    unsupported.add("time remapping");
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (layer.stretch <= 0) {
+            unsupported.add("layer time stretch " + layer.stretch);
+            layer.stretch = 1;
+        }
+        if (layer.type != Layer.TYPE_SHAPE && layer.type != Layer.TYPE_NULL && layer.type != Layer.TYPE_SOLID) {
+            unsupported.add("layer type " + layer.type + " (" + layerTypeName(layer.type) + ")");
+        }
+        return layer;
+    }
+
+    private List<ShapeItem> readShapes(JsonReader reader) throws IOException {
+        List<ShapeItem> items = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            ShapeItem item = readShapeItem(reader);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        reader.endArray();
+        return items;
+    }
+
+    /**
+     * Reads one shape item. Keys may come in any order, so all of them are collected before the item is
+     * built from its type.
+     *
+     * @return the item, or {@code null} for items that are hidden, ignored or unsupported
+     */
+    private ShapeItem readShapeItem(JsonReader reader) throws IOException {
+        String type = null;
+        boolean hidden = false;
+        Map<String, Property> properties = new HashMap<>();
+        Map<String, Double> numbers = new HashMap<>();
+        AnimatableShape shape = null;
+        List<ShapeItem> children = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+            if ("ty".equals(name)) {
+                type = reader.nextString();
+            } else if ("hd".equals(name) && token == JsonToken.BOOLEAN) {
+                hidden = reader.nextBoolean();
+            } else if ("it".equals(name) && token == JsonToken.BEGIN_ARRAY) {
+                children = readShapes(reader);
+            } else if ("ks".equals(name) && token == JsonToken.BEGIN_OBJECT) {
+                shape = readShapeProperty(reader);
+            } else if (token == JsonToken.BEGIN_OBJECT) {
+                properties.put(name, readProperty(reader));
+            } else if (token == JsonToken.NUMBER) {
+                numbers.put(name, reader.nextDouble());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (type == null || hidden) {
+            return null;
+        }
+        switch (type) {
+            case "gr": {
+                List<ShapeItem> items = new ArrayList<>();
+                LayerTransform transform = new LayerTransform();
+                for (ShapeItem child : children != null ? children : List.<ShapeItem>of()) {
+                    if (child instanceof GroupTransformItem) {
+                        transform = ((GroupTransformItem) child).transform;
+                    } else {
+                        items.add(child);
+                    }
+                }
+                return new ShapeItem.Group(items, transform);
+            }
+            case "tr":
+                return new GroupTransformItem(toTransform(properties));
+            case "sh":
+                return shape != null ? new ShapeItem.Path(shape) : null;
+            case "rc": {
+                ShapeItem.Rectangle rectangle = new ShapeItem.Rectangle();
+                rectangle.position = value(properties, "p", rectangle.position);
+                rectangle.size = value(properties, "s", rectangle.size);
+                rectangle.roundness = value(properties, "r", rectangle.roundness);
+                rectangle.reversed = number(numbers, "d", 1) == 3;
+                return rectangle;
+            }
+            case "el": {
+                ShapeItem.Ellipse ellipse = new ShapeItem.Ellipse();
+                ellipse.position = value(properties, "p", ellipse.position);
+                ellipse.size = value(properties, "s", ellipse.size);
+                ellipse.reversed = number(numbers, "d", 1) == 3;
+                return ellipse;
+            }
+            case "fl": {
+                ShapeItem.Fill fill = new ShapeItem.Fill();
+                fill.color = value(properties, "c", fill.color);
+                fill.opacity = value(properties, "o", fill.opacity);
+                fill.fillRule = number(numbers, "r", 1) == 2 ? FillRule.EVEN_ODD : FillRule.NON_ZERO;
+                flagIf(number(numbers, "bm", 0) != 0, "blend modes");
+                return fill;
+            }
+            case "st": {
+                ShapeItem.Stroke stroke = new ShapeItem.Stroke();
+                stroke.color = value(properties, "c", stroke.color);
+                stroke.opacity = value(properties, "o", stroke.opacity);
+                stroke.width = value(properties, "w", stroke.width);
+                stroke.lineCap = lineCap((int) number(numbers, "lc", 1));
+                stroke.lineJoin = lineJoin((int) number(numbers, "lj", 1));
+                stroke.miterLimit = number(numbers, "ml", 4);
+                flagIf(number(numbers, "bm", 0) != 0, "blend modes");
+                return stroke;
+            }
+            case "tm": {
+                ShapeItem.Trim trim = new ShapeItem.Trim();
+                trim.start = value(properties, "s", trim.start);
+                trim.end = value(properties, "e", trim.end);
+                trim.offset = value(properties, "o", trim.offset);
+                trim.simultaneous = number(numbers, "m", 1) != 2;
+                return trim;
+            }
+            case "mm":
+                return null;
+            default:
+                unsupported.add("shape type " + type);
+                return null;
+        }
+    }
+
+    /**
+     * Reads the keys of a transform object (layer {@code ks} or group {@code tr}).
+     */
+    private Map<String, Property> readProperties(JsonReader reader) throws IOException {
+        Map<String, Property> properties = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                properties.put(name, readProperty(reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return properties;
+    }
+
+    private LayerTransform toTransform(Map<String, Property> properties) {
+        LayerTransform transform = new LayerTransform();
+        transform.anchor = value(properties, "a", transform.anchor);
+        Property position = properties.get("p");
+        if (position != null && position.x != null && position.y != null) {
+            transform.position = null;
+            transform.positionX = position.x;
+            transform.positionY = position.y;
+        } else {
+            transform.position = value(properties, "p", transform.position);
+        }
+        transform.scale = value(properties, "s", transform.scale);
+        transform.rotation = value(properties, properties.containsKey("r") ? "r" : "rz", transform.rotation);
+        transform.opacity = value(properties, "o", transform.opacity);
+        flagIf(isNonZero(properties.get("sk")), "skew");
+        flagIf(isNonZero(properties.get("rx")) || isNonZero(properties.get("ry")), "3D rotation");
+        return transform;
+    }
+
+    private static boolean isNonZero(Property property) {
+        if (property == null || property.value == null) {
+            return false;
+        }
+        return property.value.isAnimated() || property.value.get(0) != 0;
+    }
+
+    /**
+     * Reads an animatable property: {@code {"a": 0|1, "k": value or keyframes}}, or a split position
+     * {@code {"s": true, "x": {...}, "y": {...}}}.
+     */
+    private Property readProperty(JsonReader reader) throws IOException {
+        Property property = new Property();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+            switch (name) {
+                case "k":
+                    property.value = readValue(reader);
+                    break;
+                case "x":
+                case "y":
+                    if (token == JsonToken.BEGIN_OBJECT) {
+                        Property component = readProperty(reader);
+                        if ("x".equals(name)) {
+                            property.x = component.value;
+                        } else {
+                            property.y = component.value;
+                        }
+                    } else {
+                        // A string here is an After Effects expression
+                        reader.skipValue();
+                        unsupported.add("expressions");
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return property;
+    }
+
+    private AnimatableValue readValue(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NUMBER) {
+            return AnimatableValue.of(reader.nextDouble());
+        }
+        if (token != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return AnimatableValue.of(0);
+        }
+        reader.beginArray();
+        if (reader.hasNext() && reader.peek() == JsonToken.BEGIN_OBJECT) {
+            List<AnimatableValue.Keyframe> keyframes = new ArrayList<>();
+            while (reader.hasNext()) {
+                keyframes.add(readKeyframe(reader));
+            }
+            reader.endArray();
+            return AnimatableValue.keyframed(keyframes.toArray(new AnimatableValue.Keyframe[0]));
+        }
+        double[] value = readNumbersInArray(reader);
+        return AnimatableValue.of(value.length > 0 ? value : new double[]{0});
+    }
+
+    private AnimatableValue.Keyframe readKeyframe(JsonReader reader) throws IOException {
+        AnimatableValue.Keyframe keyframe = new AnimatableValue.Keyframe();
+        double[][] in = null;
+        double[][] out = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "t":
+                    keyframe.time = reader.nextDouble();
+                    break;
+                case "s":
+                    keyframe.start = readNumbers(reader);
+                    break;
+                case "e":
+                    keyframe.end = readNumbers(reader);
+                    break;
+                case "h":
+                    keyframe.hold = reader.nextInt() == 1;
+                    break;
+                case "i":
+                    in = readEasingPoint(reader);
+                    break;
+                case "o":
+                    out = readEasingPoint(reader);
+                    break;
+                case "to":
+                    keyframe.outTangent = readNumbers(reader);
+                    break;
+                case "ti":
+                    keyframe.inTangent = readNumbers(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (in != null && out != null) {
+            keyframe.easings = toEasings(out, in);
+        }
+        return keyframe;
+    }
+
+    /**
+     * Reads a shape path property, whose value is a path object or keyframes of one-element path arrays.
+     */
+    private AnimatableShape readShapeProperty(JsonReader reader) throws IOException {
+        AnimatableShape shape = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("k".equals(name)) {
+                shape = readShapeValue(reader);
+            } else if ("x".equals(name) && reader.peek() == JsonToken.STRING) {
+                reader.skipValue();
+                unsupported.add("expressions");
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return shape;
+    }
+
+    private AnimatableShape readShapeValue(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+            return new AnimatableShape(readBezierPath(reader));
+        }
+        List<Double> times = new ArrayList<>();
+        List<BezierPath> paths = new ArrayList<>();
+        List<BezierEasing> easings = new ArrayList<>();
+        List<Boolean> holds = new ArrayList<>();
+        BezierPath previousEnd = null;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            double time = 0;
+            BezierPath start = null;
+            BezierPath end = null;
+            boolean hold = false;
+            double[][] in = null;
+            double[][] out = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "t":
+                        time = reader.nextDouble();
+                        break;
+                    case "s":
+                        start = readFirstBezierPath(reader);
+                        break;
+                    case "e":
+                        end = readFirstBezierPath(reader);
+                        break;
+                    case "h":
+                        hold = reader.nextInt() == 1;
+                        break;
+                    case "i":
+                        in = readEasingPoint(reader);
+                        break;
+                    case "o":
+                        out = readEasingPoint(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (start == null) {
+                start = previousEnd;
+            }
+            if (start == null) {
+                continue;
+            }
+            times.add(time);
+            paths.add(start);
+            easings.add(in != null && out != null ? toEasings(out, in)[0] : BezierEasing.LINEAR);
+            holds.add(hold);
+            previousEnd = end;
+        }
+        reader.endArray();
+        if (paths.isEmpty()) {
+            return null;
+        }
+        double[] timeArray = new double[times.size()];
+        boolean[] holdArray = new boolean[holds.size()];
+        for (int i = 0; i < timeArray.length; i++) {
+            timeArray[i] = times.get(i);
+            holdArray[i] = holds.get(i);
+        }
+        return new AnimatableShape(timeArray, paths.toArray(new BezierPath[0]),
+                easings.toArray(new BezierEasing[0]), holdArray);
+    }
+
+    private BezierPath readFirstBezierPath(JsonReader reader) throws IOException {
+        BezierPath path = null;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (path == null) {
+                path = readBezierPath(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+        return path;
+    }
+
+    private BezierPath readBezierPath(JsonReader reader) throws IOException {
+        double[] vertices = new double[0];
+        double[] in = null;
+        double[] out = null;
+        boolean closed = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "v":
+                    vertices = readPoints(reader);
+                    break;
+                case "i":
+                    in = readPoints(reader);
+                    break;
+                case "o":
+                    out = readPoints(reader);
+                    break;
+                case "c":
+                    closed = reader.nextBoolean();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (in == null || in.length != vertices.length) {
+            in = new double[vertices.length];
+        }
+        if (out == null || out.length != vertices.length) {
+            out = new double[vertices.length];
+        }
+        return new BezierPath(vertices, in, out, closed);
+    }
+
+    /**
+     * Reads {@code [[x, y], ...]} into a flat {@code x0, y0, x1, y1, ...} array.
+     */
+    private static double[] readPoints(JsonReader reader) throws IOException {
+        List<double[]> points = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            points.add(readNumbers(reader));
+        }
+        reader.endArray();
+        double[] flat = new double[points.size() * 2];
+        for (int i = 0; i < points.size(); i++) {
+            double[] point = points.get(i);
+            flat[2 * i] = point.length > 0 ? point[0] : 0;
+            flat[2 * i + 1] = point.length > 1 ? point[1] : 0;
+        }
+        return flat;
+    }
+
+    /**
+     * Reads an easing control point {@code {"x": n or [n...], "y": n or [n...]}} as {@code {xs, ys}}.
+     */
+    private static double[][] readEasingPoint(JsonReader reader) throws IOException {
+        double[] x = {0};
+        double[] y = {0};
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("x".equals(name)) {
+                x = readNumbers(reader);
+            } else if ("y".equals(name)) {
+                y = readNumbers(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new double[][]{x, y};
+    }
+
+    private static BezierEasing[] toEasings(double[][] out, double[][] in) {
+        int dimensions = Math.max(1, Math.min(Math.min(out[0].length, out[1].length), Math.min(in[0].length, in[1].length)));
+        BezierEasing[] easings = new BezierEasing[dimensions];
+        for (int d = 0; d < dimensions; d++) {
+            easings[d] = new BezierEasing(at(out[0], d), at(out[1], d), at(in[0], d), at(in[1], d));
+        }
+        return easings;
+    }
+
+    private static double at(double[] values, int index) {
+        return values.length == 0 ? 0 : values[Math.min(index, values.length - 1)];
+    }
+
+    /**
+     * Reads a number or an array of numbers.
+     */
+    private static double[] readNumbers(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NUMBER) {
+            return new double[]{reader.nextDouble()};
+        }
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return new double[]{0};
+        }
+        reader.beginArray();
+        return readNumbersInArray(reader);
+    }
+
+    private static double[] readNumbersInArray(JsonReader reader) throws IOException {
+        double[] values = new double[4];
+        int count = 0;
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.NUMBER) {
+                reader.skipValue();
+                continue;
+            }
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = reader.nextDouble();
+        }
+        reader.endArray();
+        return Arrays.copyOf(values, count);
+    }
+
+    private static boolean skipNonEmptyArray(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return false;
+        }
+        reader.beginArray();
+        boolean nonEmpty = reader.hasNext();
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+        reader.endArray();
+        return nonEmpty;
+    }
+
+    private void flagIf(boolean condition, String feature) {
+        if (condition) {
+            unsupported.add(feature);
+        }
+    }
+
+    private static AnimatableValue value(Map<String, Property> properties, String name, AnimatableValue fallback) {
+        Property property = properties.get(name);
+        return property != null && property.value != null ? property.value : fallback;
+    }
+
+    private static double number(Map<String, Double> numbers, String name, double fallback) {
+        Double value = numbers.get(name);
+        return value != null ? value : fallback;
+    }
+
+    private static StrokeLineCap lineCap(int value) {
+        switch (value) {
+            case 2:
+                return StrokeLineCap.ROUND;
+            case 3:
+                return StrokeLineCap.SQUARE;
+            default:
+                return StrokeLineCap.BUTT;
+        }
+    }
+
+    private static StrokeLineJoin lineJoin(int value) {
+        switch (value) {
+            case 2:
+                return StrokeLineJoin.ROUND;
+            case 3:
+                return StrokeLineJoin.BEVEL;
+            default:
+                return StrokeLineJoin.MITER;
+        }
+    }
+
+    private static String layerTypeName(int type) {
+        switch (type) {
+            case 0:
+                return "precomp";
+            case 2:
+                return "image";
+            case 5:
+                return "text";
+            case 6:
+                return "audio";
+            default:
+                return "unknown";
+        }
+    }
+
+    /**
+     * Raw property as read from JSON: a value, or the components of a split position.
+     */
+    private static final class Property {
+        private AnimatableValue value;
+        private AnimatableValue x;
+        private AnimatableValue y;
+    }
+
+    /**
+     * Group transform item; only lives until its group is built.
+     */
+    private static final class GroupTransformItem extends ShapeItem {
+        private final LayerTransform transform;
+
+        private GroupTransformItem(LayerTransform transform) {
+            this.transform = transform;
+        }
+    }
+}
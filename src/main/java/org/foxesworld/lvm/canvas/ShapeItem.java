@@ -0,0 +1,164 @@
+package org.foxesworld.lvm.canvas;
+
+import javafx.scene.paint.Color;
+import javafx.scene.shape.FillRule;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+
+import java.util.List;
+
+/**
+ * Items of a shape layer's content: groups, geometry, paints and modifiers.
+ */
+abstract class ShapeItem {
+
+    /**
+     * Group of items with its own transform.
+     */
+    static final class Group extends ShapeItem {
+        final List<ShapeItem> items;
+        final LayerTransform transform;
+
+        Group(List<ShapeItem> items, LayerTransform transform) {
+            this.items = items;
+            this.transform = transform;
+        }
+    }
+
+    /**
+     * Item that produces a contour.
+     */
+    abstract static class Geometry extends ShapeItem {
+        abstract BezierPath getPath(double frame);
+    }
+
+    static final class Path extends Geometry {
+        final AnimatableShape shape;
+
+        Path(AnimatableShape shape) {
+            this.shape = shape;
+        }
+
+        @Override
+        BezierPath getPath(double frame) {
+            return shape.getPath(frame);
+        }
+    }
+
+    static final class Rectangle extends Geometry {
+        private static final double KAPPA = 0.5519;
+
+        AnimatableValue position = AnimatableValue.of(0, 0);
+        AnimatableValue size = AnimatableValue.of(0, 0);
+        AnimatableValue roundness = AnimatableValue.of(0);
+        boolean reversed;
+
+        @Override
+        BezierPath getPath(double frame) {
+            double[] p = position.getValue(frame);
+            double[] s = size.getValue(frame);
+            double hw = s[0] / 2;
+            double hh = s[1] / 2;
+            double r = Math.min(roundness.get(frame), Math.min(hw, hh));
+            double left = p[0] - hw;
+            double right = p[0] + hw;
+            double top = p[1] - hh;
+            double bottom = p[1] + hh;
+            BezierPath path;
+            if (r <= 0) {
+                // Starts at the top right corner and runs clockwise, like After Effects
+                path = new BezierPath(new double[]{right, top, right, bottom, left, bottom, left, top},
+                        new double[8], new double[8], true);
+            } else {
+                double c = r * KAPPA;
+                double[] v = {
+                        right, top + r, right, bottom - r,
+                        right - r, bottom, left + r, bottom,
+                        left, bottom - r, left, top + r,
+                        left + r, top, right - r, top};
+                double[] in = {
+                        0, -c, 0, 0,
+                        c, 0, 0, 0,
+                        0, c, 0, 0,
+                        -c, 0, 0, 0};
+                double[] out = {
+                        0, 0, 0, c,
+                        0, 0, -c, 0,
+                        0, 0, 0, -c,
+                        0, 0, c, 0};
+                path = new BezierPath(v, in, out, true);
+            }
+            return reversed ? path.reversed() : path;
+        }
+    }
+
+    static final class Ellipse extends Geometry {
+        private static final double KAPPA = 0.5519;
+
+        AnimatableValue position = AnimatableValue.of(0, 0);
+        AnimatableValue size = AnimatableValue.of(0, 0);
+        boolean reversed;
+
+        @Override
+        BezierPath getPath(double frame) {
+            double[] p = position.getValue(frame);
+            double[] s = size.getValue(frame);
+            double rx = s[0] / 2;
+            double ry = s[1] / 2;
+            double cx = rx * KAPPA;
+            double cy = ry * KAPPA;
+            // Starts at the top and runs clockwise
+            double[] v = {p[0], p[1] - ry, p[0] + rx, p[1], p[0], p[1] + ry, p[0] - rx, p[1]};
+            double[] in = {-cx, 0, 0, -cy, cx, 0, 0, cy};
+            double[] out = {cx, 0, 0, cy, -cx, 0, 0, -cy};
+            BezierPath path = new BezierPath(v, in, out, true);
+            return reversed ? path.reversed() : path;
+        }
+    }
+
+    /**
+     * Fill or stroke applied to the geometry above it.
+     */
+    abstract static class Paint extends ShapeItem {
+        AnimatableValue color = AnimatableValue.of(0, 0, 0, 1);
+        AnimatableValue opacity = AnimatableValue.of(100);
+
+        Color getColor(double frame) {
+            double[] c = color.getValue(frame);
+            double scale = c[0] > 1 || c[1] > 1 || c[2] > 1 ? 255 : 1;
+            return Color.color(clamp(c[0] / scale), clamp(c[1] / scale), clamp(c[2] / scale));
+        }
+
+        double getOpacity(double frame) {
+            return clamp(opacity.get(frame) / 100);
+        }
+
+        private static double clamp(double value) {
+            return Math.max(0, Math.min(1, value));
+        }
+    }
+
+    static final class Fill extends Paint {
+        FillRule fillRule = FillRule.NON_ZERO;
+    }
+
+    static final class Stroke extends Paint {
+        AnimatableValue width = AnimatableValue.of(1);
+        StrokeLineCap lineCap = StrokeLineCap.BUTT;
+        StrokeLineJoin lineJoin = StrokeLineJoin.MITER;
+        double miterLimit = 4;
+    }
+
+    /**
+     * Trim paths modifier applied to the geometry above it.
+     */
+    static final class Trim extends ShapeItem {
+        AnimatableValue start = AnimatableValue.of(0);
+        AnimatableValue end = AnimatableValue.of(100);
+        AnimatableValue offset = AnimatableValue.of(0);
+        /**
+         * Trim every contour on its own instead of the contours one after another.
+         */
+        boolean simultaneous = true;
+    }
+}
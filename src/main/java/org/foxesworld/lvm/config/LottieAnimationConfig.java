@@ -1,11 +1,50 @@
 package org.foxesworld.lvm.config;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 public class LottieAnimationConfig {
+    /**
+     * All Lottie events the page can forward to Java.
+     */
+    public static final List<String> LOTTIE_EVENTS = List.of(
+            "complete", "loopComplete", "enterFrame", "segmentStart",
+            "data_ready", "data_failed", "loaded_images", "DOMLoaded");
+    /**
+     * Default memory budget for baked frames: 32 MiB per view.
+     */
+    public static final long DEFAULT_BAKE_MEMORY_BUDGET = 32L * 1024 * 1024;
+    /**
+     * Default size above which loading an animation logs a warning: 4 MiB of JSON or embedded images.
+     */
+    public static final long DEFAULT_ANIMATION_SIZE_WARNING_BYTES = 4L * 1024 * 1024;
+
     private final String bodymovinJsResourcePath;
     private String animationJsonResourcePath;
     private String containerId;
     private String renderer;
     private boolean loop;
     private boolean autoplay;
+    private boolean persistentHost;
+    private boolean useWebViewPool;
+    private boolean autoPauseWhenHidden;
+    private boolean pauseWhenUnfocused;
+    private boolean resumeAtWallClock;
+    private Set<String> subscribedEvents;
+    private double enterFrameMaxRate;
+    private boolean enterFrameChangeOnly;
+    private RenderEngine renderEngine;
+    private boolean bakedPlayback;
+    private long bakeMemoryBudget;
+    private int bakeFrameStep;
+    private boolean optimizeAnimationJson;
+    private int animationJsonPrecision;
+    private long animationSizeWarningBytes;
+    private boolean telemetryEnabled;
+    private boolean watchAnimationFile;
 
     public LottieAnimationConfig() {
         this.bodymovinJsResourcePath = "/js/lottie.js";
@@ -14,6 +53,54 @@ public class LottieAnimationConfig {
         this.renderer = "svg";
         this.loop = false;
         this.autoplay = true;
+        this.persistentHost = false;
+        this.useWebViewPool = false;
+        this.autoPauseWhenHidden = false;
+        this.pauseWhenUnfocused = false;
+        this.resumeAtWallClock = false;
+        this.subscribedEvents = new LinkedHashSet<>(LOTTIE_EVENTS);
+        this.enterFrameMaxRate = 0;
+        this.enterFrameChangeOnly = false;
+        this.renderEngine = RenderEngine.WEBVIEW;
+        this.bakedPlayback = false;
+        this.bakeMemoryBudget = DEFAULT_BAKE_MEMORY_BUDGET;
+        this.bakeFrameStep = 1;
+        this.optimizeAnimationJson = false;
+        this.animationJsonPrecision = 3;
+        this.animationSizeWarningBytes = DEFAULT_ANIMATION_SIZE_WARNING_BYTES;
+        this.telemetryEnabled = false;
+        this.watchAnimationFile = false;
+    }
+
+    /**
+     * Creates a copy of another configuration.
+     *
+     * @param other the configuration to copy
+     */
+    public LottieAnimationConfig(LottieAnimationConfig other) {
+        this.bodymovinJsResourcePath = other.bodymovinJsResourcePath;
+        this.animationJsonResourcePath = other.animationJsonResourcePath;
+        this.containerId = other.containerId;
+        this.renderer = other.renderer;
+        this.loop = other.loop;
+        this.autoplay = other.autoplay;
+        this.persistentHost = other.persistentHost;
+        this.useWebViewPool = other.useWebViewPool;
+        this.autoPauseWhenHidden = other.autoPauseWhenHidden;
+        this.pauseWhenUnfocused = other.pauseWhenUnfocused;
+        this.resumeAtWallClock = other.resumeAtWallClock;
+        this.subscribedEvents = new LinkedHashSet<>(other.subscribedEvents);
+        this.enterFrameMaxRate = other.enterFrameMaxRate;
+        this.enterFrameChangeOnly = other.enterFrameChangeOnly;
+        this.renderEngine = other.renderEngine;
+        this.bakedPlayback = other.bakedPlayback;
+        this.bakeMemoryBudget = other.bakeMemoryBudget;
+        this.bakeFrameStep = other.bakeFrameStep;
+        this.optimizeAnimationJson = other.optimizeAnimationJson;
+        this.animationJsonPrecision = other.animationJsonPrecision;
+        this.animationSizeWarningBytes = other.animationSizeWarningBytes;
+        this.telemetryEnabled = other.telemetryEnabled;
+        this.watchAnimationFile = other.watchAnimationFile;
     }
     public String getBodymovinJsResourcePath() {
         return bodymovinJsResourcePath;
@@ -58,4 +145,217 @@ public class LottieAnimationConfig {
     public void setAutoplay(boolean autoplay) {
         this.autoplay = autoplay;
     }
+
+    public boolean isPersistentHost() {
+        return persistentHost;
+    }
+
+    /**
+     * When enabled, the host page with bodymovin is loaded once per view and later animations are
+     * swapped into it through JavaScript instead of rebuilding the whole page.
+     */
+    public void setPersistentHost(boolean persistentHost) {
+        this.persistentHost = persistentHost;
+    }
+
+    public boolean isUseWebViewPool() {
+        return useWebViewPool;
+    }
+
+    /**
+     * When enabled, the view borrows a pre-warmed {@code WebView} from the shared {@code WebViewPool} and
+     * gives it back on {@code dispose()}. Pooled views host the persistent page, so enabling the pool also
+     * enables {@link #setPersistentHost(boolean) persistent host} mode.
+     */
+    public void setUseWebViewPool(boolean useWebViewPool) {
+        this.useWebViewPool = useWebViewPool;
+        if (useWebViewPool) {
+            this.persistentHost = true;
+        }
+    }
+
+    public boolean isAutoPauseWhenHidden() {
+        return autoPauseWhenHidden;
+    }
+
+    /**
+     * When enabled, a playing animation is paused while its view cannot be seen: detached from the scene,
+     * invisible, scrolled out of a {@code ScrollPane} viewport, or in a hidden or minimized window. It
+     * resumes when the view becomes visible again.
+     */
+    public void setAutoPauseWhenHidden(boolean autoPauseWhenHidden) {
+        this.autoPauseWhenHidden = autoPauseWhenHidden;
+    }
+
+    public boolean isPauseWhenUnfocused() {
+        return pauseWhenUnfocused;
+    }
+
+    /**
+     * With {@link #setAutoPauseWhenHidden(boolean) auto-pause} enabled, also treats an unfocused window
+     * as hidden.
+     */
+    public void setPauseWhenUnfocused(boolean pauseWhenUnfocused) {
+        this.pauseWhenUnfocused = pauseWhenUnfocused;
+    }
+
+    public boolean isResumeAtWallClock() {
+        return resumeAtWallClock;
+    }
+
+    /**
+     * When enabled, an auto-paused animation resumes at the frame it would have reached had it kept playing,
+     * instead of where it was paused.
+     */
+    public void setResumeAtWallClock(boolean resumeAtWallClock) {
+        this.resumeAtWallClock = resumeAtWallClock;
+    }
+
+    public Set<String> getSubscribedEvents() {
+        return Collections.unmodifiableSet(subscribedEvents);
+    }
+
+    /**
+     * Selects the Lottie events delivered to both the {@code AnimationCallback} and the typed
+     * {@code AnimationListener}; the page does not register listeners for other events at all, and the Canvas
+     * and baked players skip them too. All {@link #LOTTIE_EVENTS} are delivered by default.
+     */
+    public void setSubscribedEvents(Collection<String> subscribedEvents) {
+        if (subscribedEvents == null) throw new IllegalArgumentException("Subscribed events must not be null");
+        this.subscribedEvents = new LinkedHashSet<>(subscribedEvents);
+    }
+
+    public double getEnterFrameMaxRate() {
+        return enterFrameMaxRate;
+    }
+
+    /**
+     * Limits how often {@code enterFrame} is forwarded, in events per second; {@code 0} forwards every frame.
+     */
+    public void setEnterFrameMaxRate(double enterFrameMaxRate) {
+        if (enterFrameMaxRate < 0) throw new IllegalArgumentException("enterFrame rate must not be negative");
+        this.enterFrameMaxRate = enterFrameMaxRate;
+    }
+
+    public boolean isEnterFrameChangeOnly() {
+        return enterFrameChangeOnly;
+    }
+
+    /**
+     * When enabled, {@code enterFrame} is forwarded only when the whole frame number changes.
+     */
+    public void setEnterFrameChangeOnly(boolean enterFrameChangeOnly) {
+        this.enterFrameChangeOnly = enterFrameChangeOnly;
+    }
+
+    public RenderEngine getRenderEngine() {
+        return renderEngine;
+    }
+
+    /**
+     * Selects the engine used by {@code LVMView}; {@link RenderEngine#WEBVIEW} by default.
+     */
+    public void setRenderEngine(RenderEngine renderEngine) {
+        if (renderEngine == null) throw new IllegalArgumentException("Render engine must not be null");
+        this.renderEngine = renderEngine;
+    }
+
+    public boolean isBakedPlayback() {
+        return bakedPlayback;
+    }
+
+    /**
+     * When enabled, every animation is rendered once frame by frame into images at the view's size and
+     * render scale, and then played back from an {@code ImageView} while the page is unloaded. Suited to
+     * small looping icons; the frames are baked again when the view is resized.
+     */
+    public void setBakedPlayback(boolean bakedPlayback) {
+        this.bakedPlayback = bakedPlayback;
+    }
+
+    public long getBakeMemoryBudget() {
+        return bakeMemoryBudget;
+    }
+
+    /**
+     * Limits the memory of all baked frames of one view, in bytes at four bytes per pixel. Frames are
+     * skipped evenly when the animation would not fit otherwise.
+     */
+    public void setBakeMemoryBudget(long bakeMemoryBudget) {
+        if (bakeMemoryBudget <= 0) throw new IllegalArgumentException("Bake memory budget must be positive");
+        this.bakeMemoryBudget = bakeMemoryBudget;
+    }
+
+    public int getBakeFrameStep() {
+        return bakeFrameStep;
+    }
+
+    /**
+     * Bakes only every n-th frame; {@code 1} bakes all frames.
+     */
+    public void setBakeFrameStep(int bakeFrameStep) {
+        if (bakeFrameStep < 1) throw new IllegalArgumentException("Bake frame step must be at least 1");
+        this.bakeFrameStep = bakeFrameStep;
+    }
+
+    public boolean isOptimizeAnimationJson() {
+        return optimizeAnimationJson;
+    }
+
+    /**
+     * When enabled, the animation JSON is minified, rounded and stripped of editor data before it is passed
+     * to the page. The result is cached per resource until the file changes.
+     */
+    public void setOptimizeAnimationJson(boolean optimizeAnimationJson) {
+        this.optimizeAnimationJson = optimizeAnimationJson;
+    }
+
+    public int getAnimationJsonPrecision() {
+        return animationJsonPrecision;
+    }
+
+    /**
+     * Sets the number of decimals kept when the animation JSON is optimized; {@code 3} by default.
+     */
+    public void setAnimationJsonPrecision(int animationJsonPrecision) {
+        if (animationJsonPrecision < 0) throw new IllegalArgumentException("Animation JSON precision must not be negative");
+        this.animationJsonPrecision = animationJsonPrecision;
+    }
+
+    public long getAnimationSizeWarningBytes() {
+        return animationSizeWarningBytes;
+    }
+
+    /**
+     * Logs a warning before loading an animation whose JSON or embedded images are larger than this;
+     * {@code 0} disables the check.
+     */
+    public void setAnimationSizeWarningBytes(long animationSizeWarningBytes) {
+        if (animationSizeWarningBytes < 0) throw new IllegalArgumentException("Animation size warning must not be negative");
+        this.animationSizeWarningBytes = animationSizeWarningBytes;
+    }
+
+    public boolean isTelemetryEnabled() {
+        return telemetryEnabled;
+    }
+
+    /**
+     * When enabled, the page measures frame times while the animation plays and reports them once per second,
+     * and the view's telemetry is registered with JMX. Load phases are timed either way.
+     */
+    public void setTelemetryEnabled(boolean telemetryEnabled) {
+        this.telemetryEnabled = telemetryEnabled;
+    }
+
+    public boolean isWatchAnimationFile() {
+        return watchAnimationFile;
+    }
+
+    /**
+     * When enabled, an animation loaded from a {@code file:} URI is watched and reloaded in place whenever its
+     * content changes, keeping the current frame, speed and callbacks. Meant for iterating on exports.
+     */
+    public void setWatchAnimationFile(boolean watchAnimationFile) {
+        this.watchAnimationFile = watchAnimationFile;
+    }
 }
@@ -0,0 +1,20 @@
+package org.foxesworld.lvm.config;
+
+/**
+ * Selects how an {@code LVMView} draws its animation.
+ */
+public enum RenderEngine {
+    /**
+     * Always render with bodymovin in a {@code WebView}.
+     */
+    WEBVIEW,
+    /**
+     * Always render on a JavaFX {@code Canvas}; features outside the supported subset are not drawn.
+     */
+    CANVAS,
+    /**
+     * Render on a {@code Canvas} when the animation only uses supported features, in a {@code WebView}
+     * otherwise.
+     */
+    AUTO
+}
@@ -0,0 +1,78 @@
+package org.foxesworld.lvm.event;
+
+/**
+ * Typed listener for Lottie animation events.
+ * <p>
+ * Unlike {@link AnimationCallback}, the page calls these methods directly with primitive arguments,
+ * so no JSON is built in JavaScript or parsed in Java. All methods have empty default implementations;
+ * override only the ones you need.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public interface AnimationListener {
+
+    /**
+     * Called on every rendered frame, subject to the enterFrame limits of the configuration.
+     *
+     * @param currentTime the current frame
+     * @param totalTime   the total number of frames
+     * @param direction   {@code 1} when playing forward, {@code -1} when playing backward
+     */
+    default void onEnterFrame(double currentTime, double totalTime, int direction) {
+    }
+
+    /**
+     * Called when a loop of a looping animation completes.
+     *
+     * @param currentLoop the number of completed loops
+     * @param direction   the playback direction
+     */
+    default void onLoopComplete(int currentLoop, int direction) {
+    }
+
+    /**
+     * Called when a non-looping animation reaches its end.
+     *
+     * @param direction the playback direction
+     */
+    default void onComplete(int direction) {
+    }
+
+    /**
+     * Called when a segment starts playing.
+     *
+     * @param firstFrame  the first frame of the segment
+     * @param totalFrames the number of frames in the segment
+     */
+    default void onSegmentStart(double firstFrame, double totalFrames) {
+    }
+
+    default void onDataReady() {
+    }
+
+    default void onDataFailed() {
+    }
+
+    default void onImagesLoaded() {
+    }
+
+    default void onDOMLoaded() {
+    }
+
+    /**
+     * Called when the pointer enters or leaves the animation.
+     *
+     * @param entered {@code true} on mouseenter, {@code false} on mouseleave
+     */
+    default void onHover(boolean entered) {
+    }
+
+    /**
+     * Called when the animation is clicked.
+     *
+     * @param x the x coordinate relative to the page
+     * @param y the y coordinate relative to the page
+     */
+    default void onClick(double x, double y) {
+    }
+}
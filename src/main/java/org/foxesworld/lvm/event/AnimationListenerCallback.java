@@ -0,0 +1,92 @@
+package org.foxesworld.lvm.event;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Delivers the JSON events of an {@link AnimationCallback} to a typed {@link AnimationListener}.
+ * <p>
+ * Lets controllers that only support callbacks take a listener as well. The events are parsed here, so
+ * controllers that can call the listener directly should do that instead.
+ * </p>
+ */
+public final class AnimationListenerCallback implements AnimationCallback {
+
+    private final AnimationListener listener;
+
+    public AnimationListenerCallback(AnimationListener listener) {
+        if (listener == null) throw new IllegalArgumentException("AnimationListener must not be null");
+        this.listener = listener;
+    }
+
+    public AnimationListener getListener() {
+        return listener;
+    }
+
+    @Override
+    public void onEvent(String eventName, Object eventData) {
+        JsonObject event = parse(eventData);
+        switch (eventName) {
+            case "enterFrame":
+                listener.onEnterFrame(getDouble(event, "currentTime"), getDouble(event, "totalTime"),
+                        getDirection(event));
+                break;
+            case "loopComplete":
+                listener.onLoopComplete((int) getDouble(event, "currentLoop"), getDirection(event));
+                break;
+            case "complete":
+                listener.onComplete(getDirection(event));
+                break;
+            case "segmentStart":
+                listener.onSegmentStart(getDouble(event, "firstFrame"), getDouble(event, "totalFrames"));
+                break;
+            case "data_ready":
+                listener.onDataReady();
+                break;
+            case "data_failed":
+                listener.onDataFailed();
+                break;
+            case "loaded_images":
+                listener.onImagesLoaded();
+                break;
+            case "DOMLoaded":
+                listener.onDOMLoaded();
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void onHover(Object hoverEventData) {
+        JsonElement type = parse(hoverEventData).get("type");
+        if (type != null && type.isJsonPrimitive()) {
+            listener.onHover("mouseenter".equals(type.getAsString()));
+        }
+    }
+
+    @Override
+    public void onClick(Object clickEventData) {
+        JsonObject event = parse(clickEventData);
+        listener.onClick(getDouble(event, "x"), getDouble(event, "y"));
+    }
+
+    private static JsonObject parse(Object eventData) {
+        if (eventData == null) {
+            return new JsonObject();
+        }
+        JsonElement element = JsonParser.parseString(eventData.toString());
+        return element.isJsonObject() ? element.getAsJsonObject() : new JsonObject();
+    }
+
+    private static double getDouble(JsonObject event, String name) {
+        JsonElement value = event.get(name);
+        return value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber()
+                ? value.getAsDouble() : 0;
+    }
+
+    private static int getDirection(JsonObject event) {
+        return getDouble(event, "direction") < 0 ? -1 : 1;
+    }
+}
@@ -1,6 +1,8 @@
 package org.foxesworld.lvm.html;
 
+import com.google.gson.Gson;
 import org.foxesworld.lvm.config.LottieAnimationConfig;
+import org.foxesworld.lvm.optimizer.LottieJsonOptimizer;
 import org.foxesworld.lvm.resourceLoader.IResourceLoader;
 import org.foxesworld.lvm.resourceLoader.ResourceLoader;
 
@@ -18,8 +20,12 @@ import java.util.Objects;
  */
 public class HtmlContentBuilder implements IResourceLoader {
 
+    private static final Gson GSON = new Gson();
+
     private final String contentFile;
     private final TemplateProcessor templateProcessor;
+    private final ResourceLoader resourceLoader = new ResourceLoader();
+    private volatile String templateContent;
 
     /**
      * Constructs a new HtmlContentBuilder with the specified resource loader and HTML template file path.
@@ -42,23 +48,110 @@ public class HtmlContentBuilder implements IResourceLoader {
      */
     public String buildHtmlContent(LottieAnimationConfig config) {
         Objects.requireNonNull(config, "LottieAnimationConfig must not be null");
-        try {
-            String template = loadResource(contentFile, String.class);
-            Map<String, Object> values = new HashMap<>();
-            values.put("containerId", config.getContainerId());
-            values.put("bodymovinJs", loadResource(config.getBodymovinJsResourcePath(), String.class));
-            values.put("animationJson", loadResource(config.getAnimationJsonResourcePath(), String.class));
-            values.put("renderer", config.getRenderer());
-            values.put("loop", String.valueOf(config.isLoop()));
-            values.put("autoplay", String.valueOf(config.isAutoplay()));
+        return render(config, loadAnimationJson(config));
+    }
+
+    /**
+     * Builds the HTML content around animation JSON that was loaded already, e.g. with
+     * {@link #loadAnimationJson(LottieAnimationConfig)}.
+     *
+     * @param config        the Lottie animation configuration; must not be {@code null}
+     * @param animationJson the animation JSON; must not be {@code null}
+     * @return the processed HTML content as a {@link String}
+     * @throws RuntimeException if an error occurs during resource loading or template processing
+     */
+    public String buildHtmlContent(LottieAnimationConfig config, String animationJson) {
+        Objects.requireNonNull(config, "LottieAnimationConfig must not be null");
+        Objects.requireNonNull(animationJson, "Animation JSON must not be null");
+        return render(config, animationJson);
+    }
+
+    /**
+     * Builds the persistent host page: bodymovin and the page scripts without any animation data.
+     * Animations are later passed to the page's {@code lvmHost.loadJson} function.
+     *
+     * @param config the Lottie animation configuration; must not be {@code null}
+     * @return the processed HTML content as a {@link String}
+     * @throws RuntimeException if an error occurs during resource loading or template processing
+     */
+    public String buildHostContent(LottieAnimationConfig config) {
+        Objects.requireNonNull(config, "LottieAnimationConfig must not be null");
+        return render(config, "null");
+    }
+
+    /**
+     * Loads the animation JSON referenced by the configuration, optimized if the configuration asks for it.
+     *
+     * @param config the Lottie animation configuration; must not be {@code null}
+     * @return the animation JSON as a {@link String}
+     * @throws RuntimeException if the resource cannot be loaded
+     */
+    public String loadAnimationJson(LottieAnimationConfig config) {
+        Objects.requireNonNull(config, "LottieAnimationConfig must not be null");
+        String json = loadResource(config.getAnimationJsonResourcePath(), String.class);
+        if (config.isOptimizeAnimationJson()) {
+            return LottieJsonOptimizer.optimizeCached(config.getAnimationJsonResourcePath(), json,
+                    config.getAnimationJsonPrecision());
+        }
+        return json;
+    }
 
-            return templateProcessor.process(template, values);
+    private String render(LottieAnimationConfig config, String animationJson) {
+        try {
+            String template = getTemplateContent();
+            String bodymovinJs = loadResource(config.getBodymovinJsResourcePath(), String.class);
+            Map<String, Object> values = buildTemplateModel(config, bodymovinJs, animationJson);
+            return templateProcessor.process(contentFile, template, values,
+                    expectedLength(config, template, bodymovinJs, animationJson));
         } catch (Exception e) {
             throw new RuntimeException("Failed to build HTML content", e);
         }
     }
+
+    /**
+     * Returns the values of the template placeholders. Package-private so that the template benchmark renders
+     * the same model as the pages.
+     */
+    Map<String, Object> buildTemplateModel(LottieAnimationConfig config, String bodymovinJs, String animationJson) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("containerId", config.getContainerId());
+        values.put("bodymovinJs", bodymovinJs);
+        values.put("animationJson", animationJson);
+        values.put("renderer", config.getRenderer());
+        values.put("loop", String.valueOf(config.isLoop()));
+        values.put("autoplay", String.valueOf(config.isAutoplay()));
+        values.put("subscribedEvents", GSON.toJson(config.getSubscribedEvents()));
+        values.put("enterFrameMaxRate", String.valueOf(config.getEnterFrameMaxRate()));
+        values.put("enterFrameChangeOnly", String.valueOf(config.isEnterFrameChangeOnly()));
+        values.put("telemetry", String.valueOf(config.isTelemetryEnabled()));
+        return values;
+    }
+
+    /**
+     * Estimates the length of the rendered page. The inlined scripts dominate the output size, so the render
+     * buffer is sized from them up front.
+     */
+    static int expectedLength(LottieAnimationConfig config, String template, String bodymovinJs, String animationJson) {
+        return template.length() + bodymovinJs.length() + animationJson.length()
+                + 2 * config.getContainerId().length() + config.getRenderer().length() + 16;
+    }
+
+    /**
+     * Returns the HTML template, loading it on first use.
+     *
+     * @return the template content
+     */
+    String getTemplateContent() {
+        String template = templateContent;
+        if (template == null) {
+            template = loadResource(contentFile, String.class);
+            templateContent = template;
+        }
+        return template;
+    }
+
     @Override
     public <T> T loadResource(String resourcePath, Class<T> type) {
-        return new ResourceLoader().loadResource(resourcePath, type);
+        return resourceLoader.loadResource(resourcePath, type);
     }
 }
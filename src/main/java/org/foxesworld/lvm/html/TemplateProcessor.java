@@ -10,28 +10,44 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A utility class for processing FreeMarker templates.
  * <p>
  * This class compiles the provided template and renders it by replacing
  * placeholders (using FreeMarker syntax) with the actual values from the provided map.
+ * Compiled templates are cached by template name and content hash in a cache shared by all instances, so
+ * rendering the same template repeatedly, from any view, does not re-parse it.
  * </p>
  *
  * Note: The FreeMarker version used is 2.3.32.
  */
 public class TemplateProcessor {
 
-    private final Configuration configuration;
+    private static final String DEFAULT_TEMPLATE_NAME = "template";
+
+    /**
+     * FreeMarker configuration shared by all instances; it is not changed after setup, so it is thread-safe.
+     */
+    private static final Configuration configuration = createConfiguration();
+    /**
+     * Compiled templates by template name and content hash, shared by all instances.
+     */
+    private static final Map<String, CompiledTemplate> compiledTemplates = new ConcurrentHashMap<>();
 
     /**
      * Constructs a new TemplateProcessor with default FreeMarker configuration.
      */
     public TemplateProcessor() {
+    }
+
+    private static Configuration createConfiguration() {
         // Создаем конфигурацию FreeMarker для версии 2.3.32
-        configuration = new Configuration(new Version("2.3.32"));
+        Configuration configuration = new Configuration(new Version("2.3.32"));
         configuration.setDefaultEncoding("UTF-8");
         // Дополнительные настройки конфигурации можно добавить здесь при необходимости
+        return configuration;
     }
 
     /**
@@ -48,16 +64,73 @@ public class TemplateProcessor {
      * @throws RuntimeException     if an error occurs during template processing
      */
     public String process(String templateContent, Map<String, Object> values) {
+        Objects.requireNonNull(templateContent, "Template must not be null");
+        return process(DEFAULT_TEMPLATE_NAME, templateContent, values, templateContent.length());
+    }
+
+    /**
+     * Processes a named template, reusing its compiled form while the content stays the same, and renders
+     * the result into a buffer pre-sized to {@code expectedLength} characters.
+     *
+     * @param templateName    the template name (usually its resource path), used as the cache key; must not be {@code null}
+     * @param templateContent the template string containing FreeMarker placeholders; must not be {@code null}
+     * @param values          a map of values for replacement; must not be {@code null}
+     * @param expectedLength  the expected length of the rendered output, e.g. the template length plus the
+     *                        lengths of the inlined values
+     * @return a string with all placeholders replaced with their corresponding values
+     * @throws NullPointerException if {@code templateName}, {@code templateContent} or {@code values} is {@code null}
+     * @throws RuntimeException     if an error occurs during template processing
+     */
+    public String process(String templateName, String templateContent, Map<String, Object> values, int expectedLength) {
+        Objects.requireNonNull(templateName, "Template name must not be null");
         Objects.requireNonNull(templateContent, "Template must not be null");
         Objects.requireNonNull(values, "Values map must not be null");
 
         try {
-            Template template = new Template("template", new StringReader(templateContent), configuration);
-            StringWriter writer = new StringWriter();
+            Template template = getCompiledTemplate(templateName, templateContent);
+            StringWriter writer = new StringWriter(Math.max(expectedLength, templateContent.length()));
             template.process(values, writer);
             return writer.toString();
         } catch (IOException | TemplateException e) {
             throw new RuntimeException("Error processing template", e);
         }
     }
+
+    /**
+     * Removes all compiled templates from the shared cache.
+     */
+    public static void clearCache() {
+        compiledTemplates.clear();
+    }
+
+    private static Template getCompiledTemplate(String templateName, String templateContent) throws IOException {
+        // The hash is part of the key, so different contents under the same name do not evict each other
+        String key = templateName + '#' + templateContent.hashCode();
+        CompiledTemplate cached = compiledTemplates.get(key);
+        if (cached != null && cached.matches(templateContent)) {
+            return cached.template;
+        }
+        Template template = new Template(templateName, new StringReader(templateContent), configuration);
+        compiledTemplates.put(key, new CompiledTemplate(templateContent, template));
+        return template;
+    }
+
+    /**
+     * A compiled template together with the source it was compiled from.
+     */
+    private static final class CompiledTemplate {
+        private final String source;
+        private final int sourceHash;
+        private final Template template;
+
+        private CompiledTemplate(String source, Template template) {
+            this.source = source;
+            this.sourceHash = source.hashCode();
+            this.template = template;
+        }
+
+        private boolean matches(String content) {
+            return content == source || (content.hashCode() == sourceHash && content.equals(source));
+        }
+    }
 }
@@ -0,0 +1,564 @@
+package org.foxesworld.lvm.metadata;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Header data of a Lottie animation: frame rate, frame range, size and name, plus layer and asset counts,
+ * markers and the size of embedded images.
+ * <p>
+ * {@link #read(Reader, long, Source)} only reads the scalar header at the start of the document and stops
+ * there, so it is available before the page has parsed the animation. The layers, assets and markers come
+ * after it and make up nearly all of the file; they are read from the source on first use of a getter that
+ * needs them. Use {@link AnimationMetadataIndex} to get the metadata cached per resource.
+ * </p>
+ */
+public final class AnimationMetadata {
+
+    /**
+     * Opens the animation JSON again to read the members after the header.
+     */
+    @FunctionalInterface
+    public interface Source {
+        Reader open() throws IOException;
+    }
+
+    private final String version;
+    private final String name;
+    private final double frameRate;
+    private final double inPoint;
+    private final double outPoint;
+    private final double width;
+    private final double height;
+    private final long sourceBytes;
+    private final Source source;
+    private volatile Contents contents;
+
+    private AnimationMetadata(String version, String name, double frameRate, double inPoint, double outPoint,
+                              double width, double height, long sourceBytes, Source source, Contents contents) {
+        this.version = version;
+        this.name = name;
+        this.frameRate = frameRate;
+        this.inPoint = inPoint;
+        this.outPoint = outPoint;
+        this.width = width;
+        this.height = height;
+        this.sourceBytes = sourceBytes;
+        this.source = source;
+        this.contents = contents;
+    }
+
+    /**
+     * Reads the metadata of a Lottie animation in one pass over the whole document.
+     * <p>
+     * Only the top-level {@code v}, {@code nm}, {@code fr}, {@code ip}, {@code op}, {@code w}, {@code h},
+     * {@code assets}, {@code layers} and {@code markers} members are looked at; layers are counted but not
+     * parsed. The reader is not closed.
+     * </p>
+     *
+     * @param input       the animation JSON
+     * @param sourceBytes the size of the JSON in bytes, or {@code -1} if it is unknown
+     * @return the metadata
+     * @throws IOException if the JSON cannot be read or is not a Lottie animation
+     */
+    public static AnimationMetadata read(Reader input, long sourceBytes) throws IOException {
+        return parse(input, sourceBytes, null);
+    }
+
+    /**
+     * Reads the header of a Lottie animation and stops once {@code v}, {@code nm}, {@code fr}, {@code ip},
+     * {@code op}, {@code w} and {@code h} have been seen, or at the first layer, asset or marker data after the
+     * required ones. The counts and markers are read from {@code source} when they are first asked for. The
+     * reader is not closed.
+     *
+     * @param input       the animation JSON
+     * @param sourceBytes the size of the JSON in bytes, or {@code -1} if it is unknown
+     * @param source      opens the JSON again for the members after the header
+     * @return the metadata
+     * @throws IOException if the JSON cannot be read or is not a Lottie animation
+     */
+    public static AnimationMetadata read(Reader input, long sourceBytes, Source source) throws IOException {
+        if (source == null) throw new IllegalArgumentException("Source must not be null");
+        return parse(input, sourceBytes, source);
+    }
+
+    /**
+     * Reads the header, and also the contents unless they are left to {@code source}.
+     */
+    private static AnimationMetadata parse(Reader input, long sourceBytes, Source source) throws IOException {
+        boolean headerOnly = source != null;
+        JsonReader reader = new JsonReader(input);
+        String version = null;
+        String name = null;
+        boolean versionSeen = false;
+        boolean nameSeen = false;
+        double frameRate = Double.NaN;
+        double inPoint = Double.NaN;
+        double outPoint = Double.NaN;
+        double width = Double.NaN;
+        double height = Double.NaN;
+        ContentsReader contents = new ContentsReader();
+
+        try {
+            reader.beginObject();
+            members:
+            while (reader.hasNext()) {
+                boolean required = !Double.isNaN(frameRate) && !Double.isNaN(inPoint) && !Double.isNaN(outPoint)
+                        && !Double.isNaN(width) && !Double.isNaN(height);
+                if (headerOnly && required && versionSeen && nameSeen) {
+                    break;
+                }
+                String member = reader.nextName();
+                switch (member) {
+                    case "v":
+                        versionSeen = true;
+                        version = readString(reader);
+                        break;
+                    case "nm":
+                        nameSeen = true;
+                        name = readString(reader);
+                        break;
+                    case "fr":
+                        frameRate = readNumber(reader);
+                        break;
+                    case "ip":
+                        inPoint = readNumber(reader);
+                        break;
+                    case "op":
+                        outPoint = readNumber(reader);
+                        break;
+                    case "w":
+                        width = readNumber(reader);
+                        break;
+                    case "h":
+                        height = readNumber(reader);
+                        break;
+                    default:
+                        if (!headerOnly) {
+                            contents.readMember(member, reader);
+                        } else if (required && ContentsReader.isContent(member)) {
+                            // The bulk of the document; anything still missing is optional
+                            break members;
+                        } else {
+                            reader.skipValue();
+                        }
+                        break;
+                }
+            }
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed Lottie JSON", e);
+        }
+        if (Double.isNaN(frameRate) || Double.isNaN(inPoint) || Double.isNaN(outPoint)
+                || Double.isNaN(width) || Double.isNaN(height)) {
+            throw new IOException("Not a Lottie animation: fr, ip, op, w or h is missing");
+        }
+        return new AnimationMetadata(version, name, frameRate, inPoint, outPoint, width, height, sourceBytes, source,
+                headerOnly ? null : contents.toContents());
+    }
+
+    /**
+     * Returns the members after the header, reading them from the source on first use. If the source cannot
+     * be read any more, the counts are zero and there are no markers.
+     */
+    private Contents contents() {
+        Contents read = contents;
+        if (read == null) {
+            synchronized (this) {
+                read = contents;
+                if (read == null) {
+                    read = readContents(source);
+                    contents = read;
+                }
+            }
+        }
+        return read;
+    }
+
+    private static Contents readContents(Source source) {
+        try (Reader input = source.open()) {
+            JsonReader reader = new JsonReader(input);
+            ContentsReader contents = new ContentsReader();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                contents.readMember(reader.nextName(), reader);
+            }
+            return contents.toContents();
+        } catch (IOException | RuntimeException e) {
+            return Contents.EMPTY;
+        }
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.STRING) {
+            reader.skipValue();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static double readNumber(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.NUMBER) {
+            reader.skipValue();
+            return Double.NaN;
+        }
+        return reader.nextDouble();
+    }
+
+    private static int countElements(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return 0;
+        }
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.skipValue();
+            count++;
+        }
+        reader.endArray();
+        return count;
+    }
+
+    /**
+     * Reads one asset.
+     *
+     * @return the decoded size of an embedded image, {@code 0} for an external image, or {@code -1} for a
+     * precomp
+     */
+    private static long readAsset(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return -1;
+        }
+        long imageBytes = -1;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("p".equals(name) && reader.peek() == JsonToken.STRING) {
+                imageBytes = dataUriBytes(reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return imageBytes;
+    }
+
+    /**
+     * Returns the decoded size of a base64 {@code data:} URI, or {@code 0} for a file name.
+     */
+    private static long dataUriBytes(String path) {
+        if (!path.startsWith("data:")) {
+            return 0;
+        }
+        int comma = path.indexOf(',');
+        if (comma < 0) {
+            return 0;
+        }
+        int length = path.length() - comma - 1;
+        if (!path.substring(0, comma).endsWith(";base64")) {
+            return length;
+        }
+        int padding = path.endsWith("==") ? 2 : path.endsWith("=") ? 1 : 0;
+        return Math.max(0, length / 4L * 3 - padding);
+    }
+
+    private static List<Marker> readMarkers(JsonReader reader) throws IOException {
+        List<Marker> markers = new ArrayList<>();
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return markers;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            String name = "";
+            double time = 0;
+            double duration = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if ("cm".equals(key) && reader.peek() == JsonToken.STRING) {
+                    name = reader.nextString();
+                } else if ("tm".equals(key) && reader.peek() == JsonToken.NUMBER) {
+                    time = reader.nextDouble();
+                } else if ("dr".equals(key) && reader.peek() == JsonToken.NUMBER) {
+                    duration = reader.nextDouble();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            markers.add(new Marker(name, time, duration));
+        }
+        reader.endArray();
+        return Collections.unmodifiableList(markers);
+    }
+
+    /**
+     * Returns the Bodymovin version the animation was exported with, or {@code null}.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the composition name ({@code nm}), or {@code null}.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public double getFrameRate() {
+        return frameRate;
+    }
+
+    /**
+     * Returns the first frame ({@code ip}).
+     */
+    public double getInPoint() {
+        return inPoint;
+    }
+
+    /**
+     * Returns the frame after the last one ({@code op}).
+     */
+    public double getOutPoint() {
+        return outPoint;
+    }
+
+    /**
+     * Returns the number of frames, as lottie-web's {@code totalFrames}.
+     */
+    public double getTotalFrames() {
+        return outPoint - inPoint;
+    }
+
+    public double getDurationSeconds() {
+        return frameRate > 0 ? getTotalFrames() / frameRate : 0;
+    }
+
+    /**
+     * Returns the composition width in pixels.
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the composition height in pixels.
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of top-level layers.
+     */
+    public int getLayerCount() {
+        return contents().layerCount;
+    }
+
+    /**
+     * Returns the number of assets: precomps and images.
+     */
+    public int getAssetCount() {
+        return contents().assetCount;
+    }
+
+    public int getImageAssetCount() {
+        return contents().imageAssetCount;
+    }
+
+    /**
+     * Returns the decoded size of the images embedded as {@code data:} URIs.
+     */
+    public long getEmbeddedImageBytes() {
+        return contents().embeddedImageBytes;
+    }
+
+    /**
+     * Returns the size of the animation JSON in bytes, or {@code -1} if it is unknown.
+     */
+    public long getSourceBytes() {
+        return sourceBytes;
+    }
+
+    public List<Marker> getMarkers() {
+        return contents().markers;
+    }
+
+    /**
+     * Returns the marker with the given name, or {@code null}.
+     */
+    public Marker getMarker(String name) {
+        for (Marker marker : contents().markers) {
+            if (marker.getName().equals(name)) {
+                return marker;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Converts a progress value to the frame the page shows for it, relative to the first frame.
+     *
+     * @param progress a value from 0 to 1
+     */
+    public double frameAtProgress(double progress) {
+        return Math.floor(getTotalFrames() * Math.max(0, Math.min(1, progress)));
+    }
+
+    /**
+     * Returns the size of the composition scaled to fit the given box, keeping its aspect ratio.
+     *
+     * @return the width and the height
+     */
+    public double[] fitInto(double maxWidth, double maxHeight) {
+        double scale = Math.min(maxWidth / width, maxHeight / height);
+        return new double[]{width * scale, height * scale};
+    }
+
+    /**
+     * Checks the animation against a size limit before it is loaded.
+     *
+     * @param maxBytes the largest acceptable size of the JSON in bytes
+     * @return {@code true} if the JSON or its embedded images are larger than the limit
+     */
+    public boolean isOversized(long maxBytes) {
+        if (sourceBytes >= 0) {
+            // Embedded images are part of the JSON, so its size alone decides without reading the contents
+            return sourceBytes > maxBytes;
+        }
+        return getEmbeddedImageBytes() > maxBytes;
+    }
+
+    /**
+     * Describes the header, and the contents if they have been read already.
+     */
+    @Override
+    public String toString() {
+        String header = String.format("%.0fx%.0f, %.0f frames at %.0f fps", width, height, getTotalFrames(), frameRate);
+        Contents read = contents;
+        if (read == null) {
+            return header;
+        }
+        return header + String.format(", %d layers, %d assets, %d markers, %d bytes of embedded images",
+                read.layerCount, read.assetCount, read.markers.size(), read.embeddedImageBytes);
+    }
+
+    /**
+     * The members after the header.
+     */
+    private static final class Contents {
+        static final Contents EMPTY = new Contents(0, 0, 0, 0, Collections.emptyList());
+
+        final int layerCount;
+        final int assetCount;
+        final int imageAssetCount;
+        final long embeddedImageBytes;
+        final List<Marker> markers;
+
+        Contents(int layerCount, int assetCount, int imageAssetCount, long embeddedImageBytes, List<Marker> markers) {
+            this.layerCount = layerCount;
+            this.assetCount = assetCount;
+            this.imageAssetCount = imageAssetCount;
+            this.embeddedImageBytes = embeddedImageBytes;
+            this.markers = markers;
+        }
+    }
+
+    /**
+     * Collects the contents from the top-level members of the document.
+     */
+    private static final class ContentsReader {
+        private int layerCount;
+        private int assetCount;
+        private int imageAssetCount;
+        private long embeddedImageBytes;
+        private List<Marker> markers = Collections.emptyList();
+
+        static boolean isContent(String member) {
+            return "layers".equals(member) || "assets".equals(member) || "markers".equals(member)
+                    || "fonts".equals(member) || "chars".equals(member);
+        }
+
+        void readMember(String member, JsonReader reader) throws IOException {
+            switch (member) {
+                case "layers":
+                    layerCount = countElements(reader);
+                    break;
+                case "markers":
+                    markers = readMarkers(reader);
+                    break;
+                case "assets":
+                    if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                        reader.skipValue();
+                        break;
+                    }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        long imageBytes = readAsset(reader);
+                        assetCount++;
+                        if (imageBytes >= 0) {
+                            imageAssetCount++;
+                            embeddedImageBytes += imageBytes;
+                        }
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        Contents toContents() {
+            return new Contents(layerCount, assetCount, imageAssetCount, embeddedImageBytes, markers);
+        }
+    }
+
+    /**
+     * A named time range of the animation.
+     */
+    public static final class Marker {
+        private final String name;
+        private final double time;
+        private final double duration;
+
+        Marker(String name, double time, double duration) {
+            this.name = name;
+            this.time = time;
+            this.duration = duration;
+        }
+
+        /**
+         * Returns the marker comment ({@code cm}), which lottie-web uses as its name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the start frame.
+         */
+        public double getTime() {
+            return time;
+        }
+
+        /**
+         * Returns the length in frames.
+         */
+        public double getDuration() {
+            return duration;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.foxesworld.lvm.metadata;
+
+import org.foxesworld.lvm.resourceLoader.ResourceLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches {@link AnimationMetadata} per resource path.
+ * <p>
+ * Only the header is read up front; the layer and asset counts and markers are read from the resource again
+ * when they are first asked for. Metadata of files on disk is read again once the file's last-modified time or
+ * length changes; classpath resources never change at runtime and are read once. Safe to use from any thread.
+ * </p>
+ */
+public final class AnimationMetadataIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnimationMetadataIndex.class);
+    private static final AnimationMetadataIndex shared = new AnimationMetadataIndex();
+
+    private final ResourceLoader resourceLoader = new ResourceLoader();
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the index shared by all animation views.
+     */
+    public static AnimationMetadataIndex getShared() {
+        return shared;
+    }
+
+    /**
+     * Returns the metadata of an animation, reading its header if it is not cached or has changed.
+     *
+     * @param resourcePath the animation resource path or {@code file:} URI
+     * @return the metadata
+     * @throws RuntimeException if the resource cannot be read or is not a Lottie animation
+     */
+    public AnimationMetadata get(String resourcePath) {
+        if (resourcePath == null) throw new IllegalArgumentException("Resource path must not be null");
+        Entry entry = entries.get(resourcePath);
+        if (entry != null && !entry.isStale()) {
+            return entry.metadata;
+        }
+        File source = resourceLoader.getSourceFile(resourcePath);
+        long lastModified = source != null ? source.lastModified() : 0L;
+        long length = source != null ? source.length() : 0L;
+        long start = System.nanoTime();
+        AnimationMetadata metadata;
+        AnimationMetadata.Source contents = () -> open(resourcePath);
+        try (Reader reader = open(resourcePath)) {
+            metadata = AnimationMetadata.read(reader,
+                    source != null ? length : resourceLoader.getResourceLength(resourcePath), contents);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read animation metadata: " + resourcePath, e);
+        }
+        entries.put(resourcePath, new Entry(metadata, source, lastModified, length));
+        logger.debug("Read metadata of {} in {} µs: {}", resourcePath, (System.nanoTime() - start) / 1000, metadata);
+        return metadata;
+    }
+
+    /**
+     * Like {@link #get(String)}, but returns {@code null} instead of throwing if the metadata cannot be read.
+     */
+    public AnimationMetadata find(String resourcePath) {
+        try {
+            return get(resourcePath);
+        } catch (RuntimeException e) {
+            logger.debug("No metadata for {}", resourcePath, e);
+            return null;
+        }
+    }
+
+    private Reader open(String resourcePath) throws IOException {
+        InputStream in = resourceLoader.loadResource(resourcePath, InputStream.class);
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Forgets the metadata of one animation.
+     */
+    public void invalidate(String resourcePath) {
+        entries.remove(resourcePath);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private static final class Entry {
+        private final AnimationMetadata metadata;
+        private final File source;
+        private final long lastModified;
+        private final long length;
+
+        private Entry(AnimationMetadata metadata, File source, long lastModified, long length) {
+            this.metadata = metadata;
+            this.source = source;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        private boolean isStale() {
+            return source != null && (source.lastModified() != lastModified || source.length() != length);
+        }
+    }
+}
@@ -0,0 +1,681 @@
+package org.foxesworld.lvm.optimizer;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Shrinks Lottie JSON without changing how it renders.
+ * <p>
+ * The input is streamed twice with Gson's {@link JsonReader} and never built into a tree. The first pass
+ * finds expressions, hidden layers, parent links and asset references; the second pass copies the JSON to
+ * a {@link JsonWriter} and
+ * <ul>
+ *     <li>writes it without whitespace,</li>
+ *     <li>rounds numbers to a fixed number of decimals,</li>
+ *     <li>drops the editor-only members {@code nm}, {@code mn} and {@code ix}, unless expressions may look
+ *     properties up by them,</li>
+ *     <li>drops hidden layers that are neither parents nor mattes,</li>
+ *     <li>drops assets that no remaining layer references, directly or through precomps.</li>
+ * </ul>
+ * Use {@link #optimizeCached(String, String)} at load time and {@link #main(String[])} at build time.
+ */
+public final class LottieJsonOptimizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LottieJsonOptimizer.class);
+
+    /**
+     * Default number of decimals kept: 3, which is below a pixel for coordinates and below one step of an
+     * 8-bit color channel.
+     */
+    public static final int DEFAULT_PRECISION = 3;
+    private static final Set<String> EDITOR_KEYS = Set.of("nm", "mn", "ix");
+    private static final String ROOT_LAYERS = "root";
+    /**
+     * Total size of the outputs kept by {@link #optimizeCached(String, String)}: 16 MiB, overridable with the
+     * {@code lvm.optimizerCache.maxBytes} system property. Sizes are counted like in the resource cache.
+     */
+    public static final long CACHE_MAX_BYTES = Long.getLong("lvm.optimizerCache.maxBytes", 16L * 1024 * 1024);
+
+    /**
+     * Optimized animations by resource path and precision, for {@link #optimizeCached(String, String)}. Only
+     * the length and hash of the source are kept, not the source itself.
+     */
+    private static final LinkedHashMap<String, CachedOutput> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cacheBytes;
+
+    private final int precision;
+    private boolean dropEditorData = true;
+    private boolean dropHiddenLayers = true;
+    private boolean dropUnusedAssets = true;
+
+    public LottieJsonOptimizer() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision decimals kept in numbers; negative to keep numbers as they are
+     */
+    public LottieJsonOptimizer(int precision) {
+        this.precision = precision;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void setDropEditorData(boolean dropEditorData) {
+        this.dropEditorData = dropEditorData;
+    }
+
+    public void setDropHiddenLayers(boolean dropHiddenLayers) {
+        this.dropHiddenLayers = dropHiddenLayers;
+    }
+
+    public void setDropUnusedAssets(boolean dropUnusedAssets) {
+        this.dropUnusedAssets = dropUnusedAssets;
+    }
+
+    /**
+     * Optimizes an animation held in memory.
+     *
+     * @param name used in the report
+     * @param json the Lottie JSON
+     * @return the optimized JSON and its report
+     * @throws RuntimeException if the JSON is malformed
+     */
+    public Result optimize(String name, String json) {
+        if (json == null) throw new IllegalArgumentException("JSON must not be null");
+        long start = System.nanoTime();
+        try {
+            Scan scan = scan(new StringReader(json));
+            StringWriter out = new StringWriter(json.length() / 2);
+            Pass pass = write(new StringReader(json), out, scan);
+            String optimized = out.toString();
+            OptimizationReport report = pass.report(name, utf8Length(json), utf8Length(optimized), System.nanoTime() - start);
+            return new Result(optimized, report);
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            throw new RuntimeException("Failed to optimize Lottie JSON: " + name, e);
+        }
+    }
+
+    /**
+     * Optimizes an animation file into another file.
+     *
+     * @return the report
+     * @throws IOException if a file cannot be read or written, or the JSON is malformed
+     */
+    public OptimizationReport optimize(Path input, Path output) throws IOException {
+        long start = System.nanoTime();
+        Scan scan;
+        try (Reader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            scan = scan(reader);
+        }
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        Pass pass;
+        try (Reader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             Writer writer = new BufferedWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            pass = write(reader, writer, scan);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed Lottie JSON: " + input, e);
+        }
+        return pass.report(input.getFileName().toString(), Files.size(input), Files.size(output), System.nanoTime() - start);
+    }
+
+    /**
+     * Optimizes an animation with the default settings, reusing the previous output as long as the source has
+     * the same length and hash as the one it was made from. The hash of a string is computed once per string
+     * instance, so a source served from the resource cache is matched without reading it again.
+     *
+     * @param resourcePath the path the JSON was loaded from, used as the cache key
+     * @param json         the Lottie JSON
+     * @return the optimized JSON
+     */
+    public static String optimizeCached(String resourcePath, String json) {
+        return optimizeCached(resourcePath, json, DEFAULT_PRECISION);
+    }
+
+    /**
+     * Like {@link #optimizeCached(String, String)} with the given number of decimals.
+     */
+    public static String optimizeCached(String resourcePath, String json, int precision) {
+        String key = precision + ":" + resourcePath;
+        synchronized (cache) {
+            CachedOutput cached = cache.get(key);
+            if (cached != null && cached.matches(json)) {
+                return cached.output;
+            }
+        }
+        Result result = new LottieJsonOptimizer(precision).optimize(resourcePath, json);
+        logger.debug("{}", result.getReport());
+        CachedOutput output = new CachedOutput(json, result.getJson());
+        synchronized (cache) {
+            CachedOutput previous = cache.remove(key);
+            if (previous != null) {
+                cacheBytes -= previous.size();
+            }
+            if (output.size() <= CACHE_MAX_BYTES) {
+                cache.put(key, output);
+                cacheBytes += output.size();
+                trimCache();
+            }
+        }
+        return result.getJson();
+    }
+
+    /**
+     * Drops all outputs kept by {@link #optimizeCached(String, String)}.
+     */
+    public static void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+            cacheBytes = 0;
+        }
+    }
+
+    /**
+     * Evicts the least recently used outputs until the cache fits its budget. Must hold the cache lock.
+     */
+    private static void trimCache() {
+        Iterator<CachedOutput> it = cache.values().iterator();
+        while (cacheBytes > CACHE_MAX_BYTES && it.hasNext()) {
+            cacheBytes -= it.next().size();
+            it.remove();
+        }
+    }
+
+    // ---- first pass ----
+
+    private Scan scan(Reader input) throws IOException {
+        Scan scan = new Scan();
+        JsonReader reader = new JsonReader(input);
+        Set<String> rootRefs = new HashSet<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("layers".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                scanLayers(reader, ROOT_LAYERS, scan, rootRefs);
+            } else if ("assets".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                scanAssets(reader, scan);
+            } else {
+                scanValue(reader, scan);
+            }
+        }
+        reader.endObject();
+        scan.resolveUsedAssets(rootRefs);
+        return scan;
+    }
+
+    private void scanAssets(JsonReader reader, Scan scan) throws IOException {
+        reader.beginArray();
+        int index = 0;
+        while (reader.hasNext()) {
+            String id = null;
+            Set<String> refs = new HashSet<>();
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                scanValue(reader, scan);
+            } else {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if ("id".equals(name) && reader.peek() == JsonToken.STRING) {
+                        id = reader.nextString();
+                    } else if ("layers".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        scanLayers(reader, "asset:" + index, scan, refs);
+                    } else {
+                        scanValue(reader, scan);
+                    }
+                }
+                reader.endObject();
+            }
+            scan.assetIds.add(id);
+            scan.assetRefs.add(refs);
+            index++;
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Reads one layer list, marks the hidden layers that can go and collects the asset references of the rest.
+     */
+    private void scanLayers(JsonReader reader, String listKey, Scan scan, Set<String> refs) throws IOException {
+        List<LayerInfo> layers = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            LayerInfo layer = new LayerInfo();
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                scanValue(reader, scan);
+                layers.add(layer);
+                continue;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                JsonToken token = reader.peek();
+                if ("ind".equals(name) && token == JsonToken.NUMBER) {
+                    layer.index = reader.nextDouble();
+                } else if ("parent".equals(name) && token == JsonToken.NUMBER) {
+                    layer.parent = reader.nextDouble();
+                } else if ("hd".equals(name) && token == JsonToken.BOOLEAN) {
+                    layer.hidden = reader.nextBoolean();
+                } else if ("refId".equals(name) && token == JsonToken.STRING) {
+                    layer.refId = reader.nextString();
+                } else if ("td".equals(name)) {
+                    layer.matte = true;
+                    scanValue(reader, scan);
+                } else {
+                    scanValue(reader, scan);
+                }
+            }
+            reader.endObject();
+            layers.add(layer);
+        }
+        reader.endArray();
+
+        Set<Double> parents = new HashSet<>();
+        for (LayerInfo layer : layers) {
+            if (layer.parent != null) {
+                parents.add(layer.parent);
+            }
+        }
+        Set<Integer> dropped = new HashSet<>();
+        for (int i = 0; i < layers.size(); i++) {
+            LayerInfo layer = layers.get(i);
+            if (dropHiddenLayers && layer.hidden && !layer.matte && !parents.contains(layer.index)) {
+                dropped.add(i);
+            } else if (layer.refId != null) {
+                refs.add(layer.refId);
+            }
+        }
+        if (!dropped.isEmpty()) {
+            scan.droppedLayers.put(listKey, dropped);
+        }
+    }
+
+    /**
+     * Skips a value, noting whether it contains an expression (a property with a string {@code x}).
+     */
+    private void scanValue(JsonReader reader, Scan scan) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if ("x".equals(name) && reader.peek() == JsonToken.STRING) {
+                        scan.expressions = true;
+                        reader.skipValue();
+                    } else {
+                        scanValue(reader, scan);
+                    }
+                }
+                reader.endObject();
+                break;
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    scanValue(reader, scan);
+                }
+                reader.endArray();
+                break;
+            default:
+                reader.skipValue();
+        }
+    }
+
+    // ---- second pass ----
+
+    private Pass write(Reader input, Writer output, Scan scan) throws IOException {
+        Pass pass = new Pass(scan, dropEditorData && !scan.expressions);
+        JsonReader reader = new JsonReader(input);
+        JsonWriter writer = new JsonWriter(output);
+        writer.setSerializeNulls(true);
+        reader.beginObject();
+        writer.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (pass.isDropped(name)) {
+                reader.skipValue();
+                pass.removedKeys++;
+                continue;
+            }
+            writer.name(name);
+            if ("layers".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                writeLayers(reader, writer, ROOT_LAYERS, pass);
+            } else if ("assets".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                writeAssets(reader, writer, pass);
+            } else {
+                writeValue(reader, writer, pass);
+            }
+        }
+        reader.endObject();
+        writer.endObject();
+        writer.flush();
+        return pass;
+    }
+
+    private void writeAssets(JsonReader reader, JsonWriter writer, Pass pass) throws IOException {
+        reader.beginArray();
+        writer.beginArray();
+        int index = 0;
+        while (reader.hasNext()) {
+            if (pass.scan.droppedAssets.contains(index)) {
+                reader.skipValue();
+                pass.removedAssets++;
+            } else if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                writeValue(reader, writer, pass);
+            } else {
+                reader.beginObject();
+                writer.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (pass.isDropped(name)) {
+                        reader.skipValue();
+                        pass.removedKeys++;
+                        continue;
+                    }
+                    writer.name(name);
+                    if ("layers".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        writeLayers(reader, writer, "asset:" + index, pass);
+                    } else {
+                        writeValue(reader, writer, pass);
+                    }
+                }
+                reader.endObject();
+                writer.endObject();
+            }
+            index++;
+        }
+        reader.endArray();
+        writer.endArray();
+    }
+
+    private void writeLayers(JsonReader reader, JsonWriter writer, String listKey, Pass pass) throws IOException {
+        Set<Integer> dropped = pass.scan.droppedLayers.getOrDefault(listKey, Set.of());
+        reader.beginArray();
+        writer.beginArray();
+        int index = 0;
+        while (reader.hasNext()) {
+            if (dropped.contains(index)) {
+                reader.skipValue();
+                pass.removedLayers++;
+            } else {
+                writeValue(reader, writer, pass);
+            }
+            index++;
+        }
+        reader.endArray();
+        writer.endArray();
+    }
+
+    /**
+     * Copies a value, dropping editor members and rounding numbers. Nesting is followed with an explicit
+     * stack, so deeply nested shape groups cannot overflow the call stack.
+     */
+    private void writeValue(JsonReader reader, JsonWriter writer, Pass pass) throws IOException {
+        Deque<JsonToken> open = new ArrayDeque<>();
+        do {
+            JsonToken token = reader.peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    reader.beginObject();
+                    writer.beginObject();
+                    open.push(JsonToken.BEGIN_OBJECT);
+                    break;
+                case BEGIN_ARRAY:
+                    reader.beginArray();
+                    writer.beginArray();
+                    open.push(JsonToken.BEGIN_ARRAY);
+                    break;
+                case END_OBJECT:
+                    reader.endObject();
+                    writer.endObject();
+                    open.pop();
+                    break;
+                case END_ARRAY:
+                    reader.endArray();
+                    writer.endArray();
+                    open.pop();
+                    break;
+                case NAME: {
+                    String name = reader.nextName();
+                    if (pass.isDropped(name)) {
+                        reader.skipValue();
+                        pass.removedKeys++;
+                    } else {
+                        writer.name(name);
+                    }
+                    break;
+                }
+                case STRING:
+                    writer.value(reader.nextString());
+                    break;
+                case NUMBER:
+                    writer.jsonValue(pass.quantize(reader.nextString()));
+                    break;
+                case BOOLEAN:
+                    writer.value(reader.nextBoolean());
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    writer.nullValue();
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected token " + token);
+            }
+        } while (!open.isEmpty());
+    }
+
+    private static long utf8Length(CharSequence text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Optimizes every {@code .json} file below a directory into another directory.
+     * <p>
+     * Usage: {@code LottieJsonOptimizer <input dir> <output dir> [precision]}. Used by the Gradle task
+     * {@code optimizeAnimations}.
+     * </p>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: LottieJsonOptimizer <input dir> <output dir> [precision]");
+            System.exit(2);
+        }
+        Path inputDir = Paths.get(args[0]);
+        Path outputDir = Paths.get(args[1]);
+        LottieJsonOptimizer optimizer = new LottieJsonOptimizer(args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PRECISION);
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(inputDir)) {
+            files = walk.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".json")).sorted().collect(Collectors.toList());
+        }
+        long input = 0;
+        long output = 0;
+        for (Path file : files) {
+            OptimizationReport report = optimizer.optimize(file, outputDir.resolve(inputDir.relativize(file)));
+            input += report.getInputBytes();
+            output += report.getOutputBytes();
+            System.out.println(inputDir.relativize(file) + report.toString().substring(report.getName().length()));
+        }
+        System.out.printf("%d animations: %d -> %d bytes, saved %d bytes (%.1f%%)%n", files.size(), input, output,
+                input - output, input > 0 ? 100.0 * (input - output) / input : 0);
+    }
+
+    /**
+     * Optimized JSON together with its report.
+     */
+    public static final class Result {
+        private final String json;
+        private final OptimizationReport report;
+
+        private Result(String json, OptimizationReport report) {
+            this.json = json;
+            this.report = report;
+        }
+
+        public String getJson() {
+            return json;
+        }
+
+        public OptimizationReport getReport() {
+            return report;
+        }
+    }
+
+    private static final class CachedOutput {
+        private final int sourceLength;
+        private final int sourceHash;
+        private final String output;
+
+        private CachedOutput(String source, String output) {
+            this.sourceLength = source.length();
+            this.sourceHash = source.hashCode();
+            this.output = output;
+        }
+
+        private boolean matches(String source) {
+            return source.length() == sourceLength && source.hashCode() == sourceHash;
+        }
+
+        /**
+         * Upper bound: strings are stored as UTF-16 unless every character fits into Latin-1.
+         */
+        private long size() {
+            return 2L * output.length();
+        }
+    }
+
+    private static final class LayerInfo {
+        private Double index;
+        private Double parent;
+        private boolean hidden;
+        private boolean matte;
+        private String refId;
+    }
+
+    /**
+     * What the first pass found.
+     */
+    private final class Scan {
+        private boolean expressions;
+        private final Map<String, Set<Integer>> droppedLayers = new HashMap<>();
+        private final List<String> assetIds = new ArrayList<>();
+        private final List<Set<String>> assetRefs = new ArrayList<>();
+        private final Set<Integer> droppedAssets = new HashSet<>();
+
+        /**
+         * Follows references from the root layers through precomps; assets that are never reached are dropped.
+         */
+        private void resolveUsedAssets(Set<String> rootRefs) {
+            if (!dropUnusedAssets) {
+                return;
+            }
+            Map<String, Integer> indexById = new HashMap<>();
+            for (int i = 0; i < assetIds.size(); i++) {
+                if (assetIds.get(i) != null) {
+                    indexById.put(assetIds.get(i), i);
+                }
+            }
+            Set<String> used = new HashSet<>();
+            Deque<String> pending = new ArrayDeque<>(rootRefs);
+            while (!pending.isEmpty()) {
+                String id = pending.pop();
+                if (used.add(id)) {
+                    Integer index = indexById.get(id);
+                    if (index != null) {
+                        pending.addAll(assetRefs.get(index));
+                    }
+                }
+            }
+            for (int i = 0; i < assetIds.size(); i++) {
+                String id = assetIds.get(i);
+                if (id != null && !used.contains(id)) {
+                    droppedAssets.add(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * State of the second pass.
+     */
+    private final class Pass {
+        private final Scan scan;
+        private final boolean dropEditorKeys;
+        private int removedKeys;
+        private int removedLayers;
+        private int removedAssets;
+        private int quantizedNumbers;
+
+        private Pass(Scan scan, boolean dropEditorKeys) {
+            this.scan = scan;
+            this.dropEditorKeys = dropEditorKeys;
+        }
+
+        private boolean isDropped(String name) {
+            return dropEditorKeys && EDITOR_KEYS.contains(name);
+        }
+
+        /**
+         * Rounds a number literal to the configured decimals and writes it in its shortest form.
+         */
+        private String quantize(String literal) {
+            if (precision < 0 || (literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0)) {
+                return literal;
+            }
+            BigDecimal rounded = new BigDecimal(literal).setScale(precision, RoundingMode.HALF_UP).stripTrailingZeros();
+            String text = rounded.signum() == 0 ? "0" : rounded.toPlainString();
+            if (!text.equals(literal)) {
+                quantizedNumbers++;
+            }
+            return text;
+        }
+
+        private OptimizationReport report(String name, long inputBytes, long outputBytes, long elapsedNanos) {
+            return new OptimizationReport(name, inputBytes, outputBytes, removedKeys, removedLayers, removedAssets,
+                    quantizedNumbers, scan.expressions, elapsedNanos);
+        }
+    }
+}
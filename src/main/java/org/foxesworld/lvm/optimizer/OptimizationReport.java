@@ -0,0 +1,101 @@
+package org.foxesworld.lvm.optimizer;
+
+/**
+ * What {@link LottieJsonOptimizer} removed from one animation and how many bytes that saved.
+ */
+public final class OptimizationReport {
+
+    private final String name;
+    private final long inputBytes;
+    private final long outputBytes;
+    private final int removedKeys;
+    private final int removedLayers;
+    private final int removedAssets;
+    private final int quantizedNumbers;
+    private final boolean expressionsFound;
+    private final long elapsedNanos;
+
+    OptimizationReport(String name, long inputBytes, long outputBytes, int removedKeys, int removedLayers,
+                       int removedAssets, int quantizedNumbers, boolean expressionsFound, long elapsedNanos) {
+        this.name = name;
+        this.inputBytes = inputBytes;
+        this.outputBytes = outputBytes;
+        this.removedKeys = removedKeys;
+        this.removedLayers = removedLayers;
+        this.removedAssets = removedAssets;
+        this.quantizedNumbers = quantizedNumbers;
+        this.expressionsFound = expressionsFound;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the size of the original JSON in UTF-8 bytes.
+     */
+    public long getInputBytes() {
+        return inputBytes;
+    }
+
+    /**
+     * Returns the size of the optimized JSON in UTF-8 bytes.
+     */
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    public long getSavedBytes() {
+        return inputBytes - outputBytes;
+    }
+
+    /**
+     * Returns the saved bytes as a percentage of the input size.
+     */
+    public double getSavedPercent() {
+        return inputBytes > 0 ? 100.0 * getSavedBytes() / inputBytes : 0;
+    }
+
+    /**
+     * Returns the number of editor-only members ({@code nm}, {@code mn}, {@code ix}) removed.
+     */
+    public int getRemovedKeys() {
+        return removedKeys;
+    }
+
+    public int getRemovedLayers() {
+        return removedLayers;
+    }
+
+    public int getRemovedAssets() {
+        return removedAssets;
+    }
+
+    /**
+     * Returns the number of numbers that were written with fewer digits.
+     */
+    public int getQuantizedNumbers() {
+        return quantizedNumbers;
+    }
+
+    /**
+     * Returns {@code true} if the animation uses expressions; names and indices are kept for them.
+     */
+    public boolean isExpressionsFound() {
+        return expressionsFound;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d -> %d bytes (-%.1f%%), removed %d keys, %d layers, %d assets, "
+                        + "quantized %d numbers%s in %d ms",
+                name, inputBytes, outputBytes, getSavedPercent(), removedKeys, removedLayers, removedAssets,
+                quantizedNumbers, expressionsFound ? " (expressions found, names kept)" : "",
+                elapsedNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,262 @@
+package org.foxesworld.lvm.resourceLoader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only bundle of assets in a single memory-mapped file.
+ * <p>
+ * Layout (little-endian), as written by {@link AssetBundleWriter}:
+ * <pre>
+ * header   magic "LVMB", u16 version, u16 reserved, u32 entry count, u32 index length
+ * index    per entry: u16 path length, UTF-8 path, u64 offset, u32 stored length, u32 original length,
+ *          u8 compression (0 stored, 1 deflate), u32 CRC-32 of the original bytes
+ * payload  entry data at the offsets from the index
+ * </pre>
+ * Paths are relative to the {@code assets/} directory, with {@code /} as separator and no leading slash.
+ * Stored entries are served straight from the mapping; deflated ones are inflated on every read, so callers
+ * are expected to cache the result as {@link ResourceLoader} does. The CRC of a stored entry is checked on its
+ * first read, that of a deflated entry on every inflate.
+ * </p>
+ */
+public final class AssetBundle {
+
+    static final int MAGIC = 0x424D564C; // "LVMB" read as little-endian
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final byte STORED = 0;
+    static final byte DEFLATED = 1;
+
+    private static final Logger logger = LogManager.getLogger(AssetBundle.class);
+
+    private final Path file;
+    private final ByteBuffer data;
+    private final Map<String, Entry> entries;
+
+    private AssetBundle(Path file, ByteBuffer data, Map<String, Entry> entries) {
+        this.file = file;
+        this.data = data;
+        this.entries = entries;
+    }
+
+    /**
+     * Maps a bundle file and reads its index.
+     *
+     * @param file the bundle file
+     * @return the opened bundle
+     * @throws IOException if the file cannot be read or is not a valid bundle
+     */
+    public static AssetBundle open(Path file) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Asset bundle is too large to map: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        Map<String, Entry> entries;
+        try {
+            if (data.getInt(0) != MAGIC) {
+                throw new IOException("Not an asset bundle: " + file);
+            }
+            int version = data.getShort(4) & 0xFFFF;
+            if (version != VERSION) {
+                throw new IOException("Unsupported asset bundle version " + version + ": " + file);
+            }
+            int count = data.getInt(8);
+            int indexLength = data.getInt(12);
+            ByteBuffer index = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            index.position(HEADER_SIZE).limit(HEADER_SIZE + indexLength);
+            entries = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                byte[] pathBytes = new byte[index.getShort() & 0xFFFF];
+                index.get(pathBytes);
+                Entry entry = new Entry(index.getLong(), index.getInt(), index.getInt(), index.get(), index.getInt());
+                if (entry.offset < HEADER_SIZE || entry.storedLength < 0 || entry.originalLength < 0
+                        || entry.offset + entry.storedLength > data.capacity()) {
+                    throw new IOException("Asset bundle entry out of bounds: " + file);
+                }
+                if (entry.compression != STORED && entry.compression != DEFLATED
+                        || entry.compression == STORED && entry.storedLength != entry.originalLength) {
+                    throw new IOException("Corrupt asset bundle entry: " + file);
+                }
+                entries.put(new String(pathBytes, StandardCharsets.UTF_8), entry);
+            }
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupt asset bundle: " + file, e);
+        }
+        logger.info("Opened asset bundle {} with {} entries in {} µs", file, entries.size(),
+                (System.nanoTime() - start) / 1000);
+        return new AssetBundle(file, data, Collections.unmodifiableMap(entries));
+    }
+
+    /**
+     * Converts a resource path as passed to {@link ResourceLoader} into a bundle path.
+     */
+    static String normalize(String resourcePath) {
+        int start = 0;
+        while (start < resourcePath.length() && resourcePath.charAt(start) == '/') {
+            start++;
+        }
+        return resourcePath.substring(start).replace('\\', '/');
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Set<String> getPaths() {
+        return entries.keySet();
+    }
+
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    public boolean contains(String resourcePath) {
+        return entries.containsKey(normalize(resourcePath));
+    }
+
+    /**
+     * Returns the original size of an entry, or {@code -1} if the bundle does not contain it.
+     */
+    public long getLength(String resourcePath) {
+        Entry entry = entries.get(normalize(resourcePath));
+        return entry != null ? entry.originalLength : -1;
+    }
+
+    /**
+     * Returns the contents of an entry as a read-only buffer. Stored entries share the mapped file.
+     *
+     * @throws IOException if the bundle does not contain the entry or the entry is corrupt
+     */
+    public ByteBuffer readBuffer(String resourcePath) throws IOException {
+        Entry entry = require(resourcePath);
+        if (entry.compression == STORED) {
+            return verified(resourcePath, entry).asReadOnlyBuffer();
+        }
+        return ByteBuffer.wrap(inflate(resourcePath, entry)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a copy of the contents of an entry.
+     *
+     * @throws IOException if the bundle does not contain the entry or the entry is corrupt
+     */
+    public byte[] read(String resourcePath) throws IOException {
+        Entry entry = require(resourcePath);
+        if (entry.compression == STORED) {
+            byte[] bytes = new byte[entry.originalLength];
+            verified(resourcePath, entry).get(bytes);
+            return bytes;
+        }
+        return inflate(resourcePath, entry);
+    }
+
+    /**
+     * Returns the contents of an entry as a stream.
+     *
+     * @throws IOException if the bundle does not contain the entry or the entry is corrupt
+     */
+    public InputStream openStream(String resourcePath) throws IOException {
+        return new ByteArrayInputStream(read(resourcePath));
+    }
+
+    private Entry require(String resourcePath) throws IOException {
+        Entry entry = entries.get(normalize(resourcePath));
+        if (entry == null) {
+            throw new IOException("Not in asset bundle " + file + ": " + resourcePath);
+        }
+        return entry;
+    }
+
+    private ByteBuffer slice(Entry entry) {
+        ByteBuffer slice = data.duplicate();
+        slice.position((int) entry.offset).limit((int) entry.offset + entry.storedLength);
+        return slice.slice();
+    }
+
+    /**
+     * Returns the data of a stored entry, checking its CRC the first time it is read.
+     */
+    private ByteBuffer verified(String resourcePath, Entry entry) throws IOException {
+        ByteBuffer slice = slice(entry);
+        if (!entry.verified) {
+            CRC32 crc = new CRC32();
+            crc.update(slice.duplicate());
+            checkCrc(resourcePath, entry, crc);
+            entry.verified = true;
+        }
+        return slice;
+    }
+
+    private byte[] inflate(String resourcePath, Entry entry) throws IOException {
+        byte[] bytes = new byte[entry.originalLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(slice(entry));
+            int length = 0;
+            while (length < bytes.length && !inflater.finished()) {
+                int read = inflater.inflate(bytes, length, bytes.length - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += read;
+            }
+            if (length != bytes.length) {
+                throw new IOException("Truncated asset bundle entry: " + resourcePath);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt asset bundle entry: " + resourcePath, e);
+        } finally {
+            inflater.end();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        checkCrc(resourcePath, entry, crc);
+        return bytes;
+    }
+
+    private static void checkCrc(String resourcePath, Entry entry, CRC32 crc) throws IOException {
+        if ((int) crc.getValue() != entry.crc) {
+            throw new IOException("Checksum mismatch in asset bundle entry: " + resourcePath);
+        }
+    }
+
+    private static final class Entry {
+        private final long offset;
+        private final int storedLength;
+        private final int originalLength;
+        private final byte compression;
+        private final int crc;
+        private volatile boolean verified;
+
+        private Entry(long offset, int storedLength, int originalLength, byte compression, int crc) {
+            this.offset = offset;
+            this.storedLength = storedLength;
+            this.originalLength = originalLength;
+            this.compression = compression;
+            this.crc = crc;
+        }
+    }
+}
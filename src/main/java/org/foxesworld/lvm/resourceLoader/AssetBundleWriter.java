@@ -0,0 +1,131 @@
+package org.foxesworld.lvm.resourceLoader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Packs a directory of assets into an {@link AssetBundle} file.
+ * <p>
+ * Every file is deflated, and kept deflated only if that saves at least an eighth of its size; images and
+ * sounds that are already compressed are stored as they are. Used by the Gradle task {@code bundleAssets}.
+ * </p>
+ */
+public final class AssetBundleWriter {
+
+    private static final Logger logger = LogManager.getLogger(AssetBundleWriter.class);
+
+    private AssetBundleWriter() {
+    }
+
+    /**
+     * Writes all files below a directory into a bundle.
+     *
+     * @param assetsDir the directory whose files become the entries; paths are stored relative to it
+     * @param bundle    the bundle file to write
+     * @return the number of entries written
+     * @throws IOException if a file cannot be read or the bundle cannot be written
+     */
+    public static int write(Path assetsDir, Path bundle) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(assetsDir)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        List<byte[]> paths = new ArrayList<>(files.size());
+        List<byte[]> payloads = new ArrayList<>(files.size());
+        List<int[]> sizes = new ArrayList<>(files.size());
+        int indexLength = 0;
+        long originalTotal = 0;
+        for (Path file : files) {
+            byte[] path = assetsDir.relativize(file).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8);
+            if (path.length > 0xFFFF) {
+                throw new IOException("Asset path too long: " + file);
+            }
+            byte[] original = Files.readAllBytes(file);
+            CRC32 crc = new CRC32();
+            crc.update(original);
+            byte[] deflated = deflate(original);
+            boolean compress = deflated.length < original.length - original.length / 8;
+            paths.add(path);
+            payloads.add(compress ? deflated : original);
+            sizes.add(new int[]{original.length, compress ? AssetBundle.DEFLATED : AssetBundle.STORED, (int) crc.getValue()});
+            indexLength += 2 + path.length + 8 + 4 + 4 + 1 + 4;
+            originalTotal += original.length;
+        }
+
+        ByteBuffer index = ByteBuffer.allocate(AssetBundle.HEADER_SIZE + indexLength).order(ByteOrder.LITTLE_ENDIAN);
+        index.putInt(AssetBundle.MAGIC).putShort((short) AssetBundle.VERSION).putShort((short) 0)
+                .putInt(files.size()).putInt(indexLength);
+        long offset = AssetBundle.HEADER_SIZE + indexLength;
+        for (int i = 0; i < files.size(); i++) {
+            int[] size = sizes.get(i);
+            index.putShort((short) paths.get(i).length).put(paths.get(i)).putLong(offset)
+                    .putInt(payloads.get(i).length).putInt(size[0]).put((byte) size[1]).putInt(size[2]);
+            offset += payloads.get(i).length;
+        }
+        index.flip();
+
+        if (bundle.getParent() != null) {
+            Files.createDirectories(bundle.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(bundle, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (index.hasRemaining()) {
+                channel.write(index);
+            }
+            for (byte[] payload : payloads) {
+                ByteBuffer buffer = ByteBuffer.wrap(payload);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+        logger.info("Wrote {} assets to {}: {} -> {} bytes", files.size(), bundle, originalTotal, offset);
+        return files.size();
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+            byte[] buffer = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Usage: {@code AssetBundleWriter <assets dir> <bundle file>}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: AssetBundleWriter <assets dir> <bundle file>");
+            System.exit(2);
+        }
+        Path bundle = Paths.get(args[1]);
+        int count = write(Paths.get(args[0]), bundle);
+        System.out.println("Bundled " + count + " assets into " + bundle + " (" + Files.size(bundle) + " bytes)");
+    }
+}
@@ -0,0 +1,13 @@
+package org.foxesworld.lvm.resourceLoader;
+
+import java.nio.file.Path;
+
+/**
+ * Interface for a converter that reads a file on disk directly into the required object type,
+ * bypassing the {@link java.io.InputStream} path.
+ *
+ * @param <T> the type of the converted result
+ */
+interface IFileResourceConverter<T> {
+    T convert(Path path) throws Exception;
+}
@@ -0,0 +1,241 @@
+package org.foxesworld.lvm.resourceLoader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Byte-budgeted LRU cache for converted resources.
+ * <p>
+ * Only immutable or copyable results are cached:
+ * - Text files → {@link String}
+ * - Binary files → {@code byte[]} (a copy is returned on every hit)
+ * </p>
+ * Entries loaded from the file system remember the last-modified time and length of their source file
+ * and are dropped as soon as the file changes. Classpath entries never change at runtime and stay
+ * cached until they are evicted.
+ */
+public final class ResourceCache {
+
+    /**
+     * Default total size of cached entries: 64 MiB, overridable with the {@code lvm.resourceCache.maxBytes}
+     * system property.
+     */
+    public static final long DEFAULT_MAX_BYTES = Long.getLong("lvm.resourceCache.maxBytes", 64L * 1024 * 1024);
+
+    private static final Logger logger = LogManager.getLogger(ResourceCache.class);
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxBytes;
+    private long currentBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long invalidationCount;
+
+    /**
+     * Creates a cache with the given byte budget.
+     *
+     * @param maxBytes the maximum total size of cached entries; {@code 0} disables caching
+     * @throws IllegalArgumentException if {@code maxBytes} is negative
+     */
+    public ResourceCache(long maxBytes) {
+        setMaxBytes(maxBytes);
+    }
+
+    /**
+     * Checks whether resources of the given type can be stored in the cache.
+     *
+     * @param type the resource type
+     * @return {@code true} for {@link String} and {@code byte[]}
+     */
+    public static boolean isCacheable(Class<?> type) {
+        return String.class.equals(type) || byte[].class.equals(type);
+    }
+
+    /**
+     * Returns the cached resource, or {@code null} if it is not cached or its source file has changed.
+     *
+     * @param resourcePath the resource path as passed to the loader
+     * @param type         the requested type
+     * @param <T>          the type of the resource
+     * @return the cached resource or {@code null}
+     */
+    public synchronized <T> T get(String resourcePath, Class<T> type) {
+        String key = key(resourcePath, type);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        if (entry.isStale()) {
+            logger.debug("Cached resource changed on disk, invalidating: {}", resourcePath);
+            remove(key, entry);
+            invalidationCount++;
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        Object value = entry.value;
+        if (value instanceof byte[]) {
+            value = ((byte[]) value).clone();
+        }
+        return type.cast(value);
+    }
+
+    /**
+     * Stores a converted resource.
+     *
+     * @param resourcePath the resource path as passed to the loader
+     * @param type         the resource type; must be {@linkplain #isCacheable(Class) cacheable}
+     * @param value        the converted resource
+     * @param source       the file the resource was read from, or {@code null} for classpath resources
+     * @param lastModified the last-modified time of {@code source} sampled before it was read
+     * @param length       the length of {@code source} sampled before it was read
+     */
+    public synchronized <T> void put(String resourcePath, Class<T> type, T value, File source, long lastModified, long length) {
+        if (!isCacheable(type)) {
+            throw new IllegalArgumentException("Resource type is not cacheable: " + type.getName());
+        }
+        long size = sizeOf(value);
+        if (size > maxBytes) {
+            logger.debug("Resource {} ({} bytes) exceeds the cache budget, not caching", resourcePath, size);
+            return;
+        }
+        Object stored = value instanceof byte[] ? ((byte[]) value).clone() : value;
+        String key = key(resourcePath, type);
+        Entry previous = entries.put(key, new Entry(stored, size, source, lastModified, length));
+        if (previous != null) {
+            currentBytes -= previous.size;
+        }
+        currentBytes += size;
+        trimToBudget();
+    }
+
+    /**
+     * Removes all cached representations of the given resource.
+     *
+     * @param resourcePath the resource path as passed to the loader
+     */
+    public synchronized void invalidate(String resourcePath) {
+        String prefix = resourcePath + '|';
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            if (e.getKey().startsWith(prefix)) {
+                currentBytes -= e.getValue().size;
+                it.remove();
+                invalidationCount++;
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from the cache. Statistics are kept.
+     */
+    public synchronized void invalidateAll() {
+        invalidationCount += entries.size();
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    /**
+     * Changes the byte budget, evicting least recently used entries if necessary.
+     *
+     * @param maxBytes the maximum total size of cached entries; {@code 0} disables caching
+     * @throws IllegalArgumentException if {@code maxBytes} is negative
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Cache budget must not be negative");
+        }
+        this.maxBytes = maxBytes;
+        trimToBudget();
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ResourceCache{entries=" + entries.size() + ", bytes=" + currentBytes + "/" + maxBytes
+                + ", hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount
+                + ", invalidations=" + invalidationCount + '}';
+    }
+
+    private void trimToBudget() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Entry eldest = it.next();
+            currentBytes -= eldest.size;
+            it.remove();
+            evictionCount++;
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        entries.remove(key);
+        currentBytes -= entry.size;
+    }
+
+    private static String key(String resourcePath, Class<?> type) {
+        return resourcePath + '|' + type.getName();
+    }
+
+    private static long sizeOf(Object value) {
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        // Upper bound: strings are stored as UTF-16 unless every character fits into Latin-1.
+        return 2L * ((String) value).length();
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long size;
+        private final File source;
+        private final long lastModified;
+        private final long length;
+
+        private Entry(Object value, long size, File source, long lastModified, long length) {
+            this.value = value;
+            this.size = size;
+            this.source = source;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        private boolean isStale() {
+            return source != null && (source.lastModified() != lastModified || source.length() != length);
+        }
+    }
+}
@@ -6,11 +6,25 @@ import org.apache.logging.log4j.Logger;
 
 import javax.sound.sampled.AudioInputStream;
 import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 import java.util.stream.Collectors;
 
 /**
@@ -19,36 +33,87 @@ import java.util.stream.Collectors;
  * Supports loading various types of resources:
  * - Text files → {@link String}
  * - Binary files → {@code byte[]}
+ * - Binary files, read-only → {@link ByteBuffer} (memory-mapped for files on disk)
  * - Audio files (OGG) → {@link AudioInputStream}
+ * - Any file, unread → {@link InputStream} (for streaming parsers; the caller closes it)
+ * </p>
+ * Files on disk ({@code file:} URIs and the {@code assets/} fallback) are read directly instead of being
+ * streamed; only {@link ByteBuffer} resources are memory-mapped.
+ * <p>
+ * If an {@link AssetBundle} is available it is consulted before the classpath and the {@code assets/}
+ * directory; see {@link #BUNDLE_PROPERTY}.
  * </p>
  */
 public class ResourceLoader implements IResourceLoader {
 
     private static final String ASSET_BASE_PATH = "assets/";
+    /**
+     * System property naming the asset bundle file. Without it, {@code assets.lvmb} next to the application
+     * jar or in the working directory is used if it exists.
+     */
+    public static final String BUNDLE_PROPERTY = "lvm.assetBundle";
+    private static final String DEFAULT_BUNDLE_NAME = "assets.lvmb";
     private static final Logger logger = LogManager.getLogger(ResourceLoader.class);
 
+    /**
+     * Cache of converted text and binary resources shared by all loader instances.
+     */
+    private static final ResourceCache cache = new ResourceCache(ResourceCache.DEFAULT_MAX_BYTES);
+
     /**
      * Registers converters for different resource types.
      */
     private static final Map<Class<?>, IResourceConverter<?>> converters = new HashMap<>();
 
+    /**
+     * Registers converters that read files on disk directly. Types without a file converter fall back to
+     * the stream converters above.
+     */
+    private static final Map<Class<?>, IFileResourceConverter<?>> fileConverters = new HashMap<>();
+
+    private static AssetBundle bundle;
+    private static boolean bundleResolved;
+
     static {
-        // Converter for text resources (UTF-8)
-        converters.put(String.class, (IResourceConverter<String>) is -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-                return reader.lines().collect(Collectors.joining("\n"));
-            }
-        });
+        // Converter for text resources (UTF-8). Line endings are kept as they are.
+        converters.put(String.class, (IResourceConverter<String>) is -> new String(is.readAllBytes(), StandardCharsets.UTF_8));
         // Converter for binary resources
         converters.put(byte[].class, (IResourceConverter<byte[]>) InputStream::readAllBytes);
+        // Converter for read-only binary resources
+        converters.put(ByteBuffer.class, (IResourceConverter<ByteBuffer>) is -> ByteBuffer.wrap(is.readAllBytes()).asReadOnlyBuffer());
         // Converter for audio resources (OGG). The stream is not closed as it is needed for further processing.
         converters.put(AudioInputStream.class, (IResourceConverter<AudioInputStream>) is -> {
             VorbisAudioFileReader reader = new VorbisAudioFileReader();
             return reader.getAudioInputStream(is);
         });
+        // Stream resources are handed over unread, the caller closes them
+        converters.put(InputStream.class, (IResourceConverter<InputStream>) is -> is);
+        // Text files on disk are read in one call. They are not mapped: a live mapping keeps the file locked on
+        // Windows until it is collected, which would stop editors from saving animations that are hot-reloaded.
+        fileConverters.put(String.class, (IFileResourceConverter<String>) path -> new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+        fileConverters.put(byte[].class, (IFileResourceConverter<byte[]>) Files::readAllBytes);
+        // The mapping stays valid after the channel is closed; it is released when the buffer is collected
+        fileConverters.put(ByteBuffer.class, (IFileResourceConverter<ByteBuffer>) ResourceLoader::mapFile);
         logLoadedTypes();
     }
 
+    /**
+     * Maps a file read-only into memory.
+     *
+     * @param path the file to map
+     * @return the read-only mapped contents of the file
+     * @throws IOException if the file cannot be read or is larger than 2 GiB
+     */
+    private static ByteBuffer mapFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to map: " + path + " (" + size + " bytes)");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
     /**
      * Logs the registered converters as a sorted list of type names.
      */
@@ -57,11 +122,92 @@ public class ResourceLoader implements IResourceLoader {
         logger.debug("Registered converters for resource types: {}", typeNames);
     }
 
+    /**
+     * Returns the cache shared by all loader instances, e.g. to change its budget or read its statistics.
+     *
+     * @return the shared resource cache
+     */
+    public static ResourceCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Returns the asset bundle resources are read from first, opening it on first use.
+     *
+     * @return the bundle, or {@code null} if there is none
+     */
+    public static synchronized AssetBundle getBundle() {
+        if (!bundleResolved) {
+            bundleResolved = true;
+            Path file = locateBundle();
+            if (file != null) {
+                try {
+                    bundle = AssetBundle.open(file);
+                } catch (IOException e) {
+                    logger.error("Failed to open asset bundle {}, falling back to individual assets", file, e);
+                }
+            }
+        }
+        return bundle;
+    }
+
+    /**
+     * Replaces the asset bundle, e.g. with one opened by the application; {@code null} disables bundle lookups.
+     * Cached resources are dropped, since they may have come from the previous bundle.
+     *
+     * @param assetBundle the bundle to read resources from first, or {@code null}
+     */
+    public static synchronized void setBundle(AssetBundle assetBundle) {
+        bundle = assetBundle;
+        bundleResolved = true;
+        cache.invalidateAll();
+    }
+
+    private static Path locateBundle() {
+        String configured = System.getProperty(BUNDLE_PROPERTY);
+        if (configured != null && !configured.isEmpty()) {
+            Path file = Path.of(configured);
+            if (Files.isRegularFile(file)) {
+                return file;
+            }
+            logger.warn("Asset bundle {} does not exist", file);
+            return null;
+        }
+        try {
+            Path codeSource = Path.of(ResourceLoader.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            Path besideJar = codeSource.resolveSibling(DEFAULT_BUNDLE_NAME);
+            if (Files.isRegularFile(codeSource) && Files.isRegularFile(besideJar)) {
+                return besideJar;
+            }
+        } catch (URISyntaxException | RuntimeException e) {
+            logger.debug("Could not determine the application location", e);
+        }
+        Path inWorkingDir = Path.of(DEFAULT_BUNDLE_NAME);
+        return Files.isRegularFile(inWorkingDir) ? inWorkingDir : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T readFromBundle(AssetBundle assets, String resourcePath, Class<T> type,
+                                        IResourceConverter<T> converter) throws Exception {
+        if (String.class.equals(type)) {
+            return (T) StandardCharsets.UTF_8.decode(assets.readBuffer(resourcePath)).toString();
+        } else if (byte[].class.equals(type)) {
+            return (T) assets.read(resourcePath);
+        } else if (ByteBuffer.class.equals(type)) {
+            return (T) assets.readBuffer(resourcePath);
+        }
+        // Streams are not closed here, like those opened from the classpath
+        return converter.convert(assets.openStream(resourcePath));
+    }
+
     /**
      * Loads a resource and returns it in the requested type.
+     * <p>
+     * Text and binary resources are served from the shared {@link ResourceCache} when possible.
+     * </p>
      *
      * @param resourcePath the path to the resource relative to the base directory
-     * @param type         the expected class type (e.g., String.class, byte[].class, AudioInputStream.class)
+     * @param type         the expected class type (e.g., String.class, byte[].class, ByteBuffer.class, AudioInputStream.class)
      * @param <T>          the type of the loaded resource
      * @return the resource as an object of the requested type
      * @throws RuntimeException if the resource is not found or unsupported
@@ -76,16 +222,45 @@ public class ResourceLoader implements IResourceLoader {
             throw new IllegalArgumentException("Resource type not supported: " + type.getName());
         }
 
+        boolean cacheable = ResourceCache.isCacheable(type);
+        if (cacheable) {
+            T cached = cache.get(resourcePath, type);
+            if (cached != null) {
+                logger.debug("Resource served from cache: {} (Type: {})", resourcePath, type.getSimpleName());
+                return cached;
+            }
+        }
+
         try {
             T resource;
-            if (AudioInputStream.class.equals(type)) {
-                // For audio resources, do not use try-with-resources to avoid closing the stream
+            AssetBundle assets = getBundle();
+            if (assets != null && !resourcePath.startsWith("file:") && assets.contains(resourcePath)) {
+                // The bundle is immutable while it is open, so its entries are cached like classpath resources
+                resource = readFromBundle(assets, resourcePath, type, converter);
+                if (cacheable) {
+                    cache.put(resourcePath, type, resource, null, 0L, 0L);
+                }
+            } else if (AudioInputStream.class.equals(type) || InputStream.class.equals(type)) {
+                // For audio and stream resources, do not use try-with-resources to avoid closing the stream
                 InputStream is = loadResourceAsStream(resourcePath);
                 resource = converter.convert(is);
             } else {
-                // For text and binary resources, use try-with-resources for safe stream closure
-                try (InputStream is = loadResourceAsStream(resourcePath)) {
-                    resource = converter.convert(is);
+                // Sample the source file before reading it, so a concurrent change invalidates the entry later
+                File source = resolveFile(resourcePath);
+                long lastModified = source != null ? source.lastModified() : 0L;
+                long length = source != null ? source.length() : 0L;
+                @SuppressWarnings("unchecked")
+                IFileResourceConverter<T> fileConverter = (IFileResourceConverter<T>) fileConverters.get(type);
+                if (source != null && fileConverter != null) {
+                    resource = fileConverter.convert(source.toPath());
+                } else {
+                    // For text and binary resources, use try-with-resources for safe stream closure
+                    try (InputStream is = loadResourceAsStream(resourcePath)) {
+                        resource = converter.convert(is);
+                    }
+                }
+                if (cacheable) {
+                    cache.put(resourcePath, type, resource, source, lastModified, length);
                 }
             }
 
@@ -97,6 +272,139 @@ public class ResourceLoader implements IResourceLoader {
         }
     }
 
+    /**
+     * Returns the file a resource is read from, e.g. to watch it for changes.
+     *
+     * @param resourcePath the path to the resource
+     * @return the file for {@code file:} URIs and on-disk assets, or {@code null} for classpath resources
+     */
+    public File getSourceFile(String resourcePath) {
+        try {
+            return resolveFile(resourcePath);
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            logger.warn("Invalid resource URI: {}", resourcePath, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the size of a resource in bytes without reading it.
+     *
+     * @param resourcePath the path to the resource
+     * @return the size in bytes, or {@code -1} if it is unknown or the resource does not exist
+     */
+    public long getResourceLength(String resourcePath) {
+        File file = getSourceFile(resourcePath);
+        if (file != null) {
+            return file.isFile() ? file.length() : -1;
+        }
+        AssetBundle assets = getBundle();
+        if (assets != null && assets.contains(resourcePath)) {
+            return assets.getLength(resourcePath);
+        }
+        URL url = ResourceLoader.class.getClassLoader().getResource(ASSET_BASE_PATH + resourcePath);
+        if (url == null) {
+            return -1;
+        }
+        try {
+            return url.openConnection().getContentLengthLong();
+        } catch (IOException e) {
+            logger.debug("Could not determine the size of {}", resourcePath, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Lists the files directly inside a resource directory, e.g. to preload all of them.
+     * <p>
+     * The asset bundle, every classpath entry (directories and jars) and the {@code assets/} directory on disk
+     * are searched; a file present in several of them is listed once.
+     * </p>
+     *
+     * @param directory the directory relative to the base directory, e.g. {@code sounds}
+     * @return the sorted resource paths of the files, e.g. {@code sounds/sound1.ogg}
+     */
+    public List<String> listResources(String directory) {
+        if (directory == null || directory.isEmpty()) {
+            throw new IllegalArgumentException("Directory must not be empty");
+        }
+        String prefix = directory.endsWith("/") ? directory : directory + "/";
+        Set<String> paths = new TreeSet<>();
+        AssetBundle assets = getBundle();
+        if (assets != null) {
+            for (String path : assets.getPaths()) {
+                if (path.startsWith(prefix) && path.indexOf('/', prefix.length()) < 0) {
+                    paths.add(path);
+                }
+            }
+        }
+        try {
+            Enumeration<URL> urls = ResourceLoader.class.getClassLoader().getResources(ASSET_BASE_PATH + prefix);
+            while (urls.hasMoreElements()) {
+                listUrl(urls.nextElement(), prefix, paths);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to list classpath resources in {}", prefix, e);
+        }
+        listDirectory(new File(ASSET_BASE_PATH + prefix), prefix, paths);
+        logger.debug("Found {} resources in {}", paths.size(), prefix);
+        return new ArrayList<>(paths);
+    }
+
+    private static void listUrl(URL url, String prefix, Set<String> paths) {
+        try {
+            if ("file".equals(url.getProtocol())) {
+                listDirectory(new File(url.toURI()), prefix, paths);
+            } else if ("jar".equals(url.getProtocol())) {
+                // The jar file is shared through the URL cache and must not be closed here
+                JarURLConnection connection = (JarURLConnection) url.openConnection();
+                JarFile jar = connection.getJarFile();
+                String entryPrefix = connection.getEntryName();
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (name.startsWith(entryPrefix) && name.length() > entryPrefix.length()
+                            && name.indexOf('/', entryPrefix.length()) < 0) {
+                        paths.add(prefix + name.substring(entryPrefix.length()));
+                    }
+                }
+            } else {
+                logger.debug("Cannot list resources at {}", url);
+            }
+        } catch (IOException | URISyntaxException e) {
+            logger.warn("Failed to list resources at {}", url, e);
+        }
+    }
+
+    private static void listDirectory(File directory, String prefix, Set<String> paths) {
+        File[] files = directory.listFiles(File::isFile);
+        if (files != null) {
+            for (File file : files) {
+                paths.add(prefix + file.getName());
+            }
+        }
+    }
+
+    /**
+     * Resolves the file a resource is read from.
+     *
+     * @param resourcePath the path to the resource
+     * @return the file for {@code file:} URIs and on-disk assets, or {@code null} for classpath resources
+     */
+    private File resolveFile(String resourcePath) throws URISyntaxException {
+        if (resourcePath.startsWith("file:")) {
+            return new File(new URI(resourcePath));
+        }
+        String fullPath = ASSET_BASE_PATH + resourcePath;
+        AssetBundle assets = getBundle();
+        if ((assets != null && assets.contains(resourcePath))
+                || ResourceLoader.class.getClassLoader().getResource(fullPath) != null) {
+            return null;
+        }
+        File file = new File(fullPath);
+        return file.isFile() ? file : null;
+    }
+
     /**
      * Loads a resource as an {@link InputStream}.
      *
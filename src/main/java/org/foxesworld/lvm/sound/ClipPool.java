@@ -0,0 +1,93 @@
+package org.foxesworld.lvm.sound;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+import javax.sound.sampled.LineUnavailableException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opened {@link Clip}s for a single sound, reused across plays.
+ * <p>
+ * Clips stay open between plays. When every clip is busy and the pool is full, the clip that was
+ * started longest ago is restarted.
+ * </p>
+ */
+class ClipPool {
+
+    private static final Logger logger = LogManager.getLogger(ClipPool.class);
+
+    private final DecodedSound sound;
+    // Ordered from least to most recently started
+    private final List<Clip> clips = new ArrayList<>();
+    private boolean closed;
+
+    ClipPool(DecodedSound sound) {
+        this.sound = sound;
+    }
+
+    /**
+     * Returns a clip that is ready to be started from the beginning.
+     *
+     * @param maxClips the maximum number of clips in this pool
+     * @return the clip to start, or {@code null} if the pool has been closed
+     * @throws LineUnavailableException if a new clip cannot be opened
+     */
+    synchronized Clip acquire(int maxClips) throws LineUnavailableException {
+        if (closed) {
+            return null;
+        }
+        Clip clip = null;
+        for (Clip candidate : clips) {
+            if (!candidate.isRunning()) {
+                clip = candidate;
+                break;
+            }
+        }
+        if (clip == null && clips.size() < Math.max(1, maxClips)) {
+            clip = AudioSystem.getClip();
+            clip.open(sound.getFormat(), sound.getData(), 0, sound.getData().length);
+            logger.debug("Opened pooled clip #{}", clips.size() + 1);
+        } else if (clip == null) {
+            clip = clips.get(0);
+            clip.stop();
+            clip.flush();
+        }
+        clips.remove(clip);
+        clips.add(clip);
+        clip.setFramePosition(0);
+        return clip;
+    }
+
+    /**
+     * Opens the first clip of the pool ahead of the first play. The first clip opened in the process also
+     * initializes the audio system.
+     *
+     * @return {@code false} if the pool has been closed
+     * @throws LineUnavailableException if the clip cannot be opened
+     */
+    synchronized boolean prepare() throws LineUnavailableException {
+        if (closed) {
+            return false;
+        }
+        if (clips.isEmpty()) {
+            Clip clip = AudioSystem.getClip();
+            clip.open(sound.getFormat(), sound.getData(), 0, sound.getData().length);
+            clips.add(clip);
+            logger.debug("Opened pooled clip #1 ahead of playback");
+        }
+        return true;
+    }
+
+    synchronized void close() {
+        closed = true;
+        for (Clip clip : clips) {
+            clip.stop();
+            clip.close();
+        }
+        clips.clear();
+    }
+}
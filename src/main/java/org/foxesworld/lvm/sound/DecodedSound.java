@@ -0,0 +1,36 @@
+package org.foxesworld.lvm.sound;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * A fully decoded sound: PCM data together with its format.
+ * <p>
+ * The data array is shared with the cache and with every player of the sound and must not be modified.
+ * </p>
+ */
+public final class DecodedSound {
+
+    private final AudioFormat format;
+    private final byte[] data;
+
+    public DecodedSound(AudioFormat format, byte[] data) {
+        this.format = format;
+        this.data = data;
+    }
+
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getFrameCount() {
+        return data.length / format.getFrameSize();
+    }
+
+    public long getSizeInBytes() {
+        return data.length;
+    }
+}
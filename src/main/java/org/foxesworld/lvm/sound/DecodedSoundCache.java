@@ -0,0 +1,165 @@
+package org.foxesworld.lvm.sound;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * LRU cache of decoded sounds, limited by the total size of their PCM data.
+ */
+public final class DecodedSoundCache {
+
+    /**
+     * Default PCM budget: 32 MiB (about three minutes of 44.1 kHz 16-bit stereo audio).
+     */
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    private static final Logger logger = LogManager.getLogger(DecodedSoundCache.class);
+
+    private final LinkedHashMap<String, DecodedSound> sounds = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<DecodedSound>> decoding = new ConcurrentHashMap<>();
+    private final Consumer<String> evictionListener;
+    private long maxBytes;
+    private long currentBytes;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxBytes         the maximum total size of cached PCM data
+     * @param evictionListener called with the resource path of every evicted sound
+     */
+    public DecodedSoundCache(long maxBytes, Consumer<String> evictionListener) {
+        this.evictionListener = evictionListener;
+        setMaxBytes(maxBytes);
+    }
+
+    public synchronized DecodedSound get(String resourcePath) {
+        return sounds.get(resourcePath);
+    }
+
+    /**
+     * Returns the cached sound, decoding and caching it if it is not cached. Concurrent calls for the same
+     * sound decode it once; the others wait for that decode and get its result.
+     *
+     * @param resourcePath the resource path of the sound
+     * @param decoder      decodes the sound from its resource path
+     * @return the decoded sound
+     */
+    public DecodedSound get(String resourcePath, Function<String, DecodedSound> decoder) {
+        DecodedSound sound = get(resourcePath);
+        if (sound != null) {
+            return sound;
+        }
+        CompletableFuture<DecodedSound> decode = new CompletableFuture<>();
+        CompletableFuture<DecodedSound> running = decoding.putIfAbsent(resourcePath, decode);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            // A decode that finished since the first look has cached the sound already
+            sound = get(resourcePath);
+            if (sound == null) {
+                sound = decoder.apply(resourcePath);
+                put(resourcePath, sound);
+            }
+            decode.complete(sound);
+            return sound;
+        } catch (RuntimeException e) {
+            decode.completeExceptionally(e);
+            throw e;
+        } finally {
+            decoding.remove(resourcePath, decode);
+        }
+    }
+
+    /**
+     * Stores a decoded sound. Sounds larger than the whole budget are not cached.
+     *
+     * @param resourcePath the resource path of the sound
+     * @param sound        the decoded sound
+     */
+    public void put(String resourcePath, DecodedSound sound) {
+        Map<String, DecodedSound> evicted;
+        synchronized (this) {
+            if (sound.getSizeInBytes() > maxBytes) {
+                logger.debug("Decoded sound {} ({} bytes) exceeds the PCM cache budget, not caching",
+                        resourcePath, sound.getSizeInBytes());
+                return;
+            }
+            DecodedSound previous = sounds.put(resourcePath, sound);
+            if (previous != null) {
+                currentBytes -= previous.getSizeInBytes();
+            }
+            currentBytes += sound.getSizeInBytes();
+            evicted = trimToBudget();
+        }
+        notifyEvicted(evicted);
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("PCM cache budget must not be negative");
+        }
+        Map<String, DecodedSound> evicted;
+        synchronized (this) {
+            this.maxBytes = maxBytes;
+            evicted = trimToBudget();
+        }
+        notifyEvicted(evicted);
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public void clear() {
+        Map<String, DecodedSound> evicted;
+        synchronized (this) {
+            evicted = new LinkedHashMap<>(sounds);
+            sounds.clear();
+            currentBytes = 0;
+        }
+        notifyEvicted(evicted);
+    }
+
+    private Map<String, DecodedSound> trimToBudget() {
+        Map<String, DecodedSound> evicted = null;
+        Iterator<Map.Entry<String, DecodedSound>> it = sounds.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, DecodedSound> eldest = it.next();
+            currentBytes -= eldest.getValue().getSizeInBytes();
+            it.remove();
+            if (evicted == null) {
+                evicted = new LinkedHashMap<>();
+            }
+            evicted.put(eldest.getKey(), eldest.getValue());
+        }
+        return evicted;
+    }
+
+    private void notifyEvicted(Map<String, DecodedSound> evicted) {
+        if (evicted == null) {
+            return;
+        }
+        for (String resourcePath : evicted.keySet()) {
+            logger.debug("Evicted decoded sound: {}", resourcePath);
+            evictionListener.accept(resourcePath);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package org.foxesworld.lvm.sound;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Software mixer that plays any number of sounds through a single {@link SourceDataLine}.
+ * <p>
+ * A dedicated audio thread mixes up to {@code maxVoices} voices into a float buffer with per-voice gain
+ * and writes the result to the line. When all voices are busy, a new sound steals the oldest or the
+ * quietest voice. Voices and buffers are allocated once, so playing a sound does not allocate; each
+ * sound is converted to the mixer format on its first play and kept for as long as its
+ * {@link DecodedSound} is alive.
+ * </p>
+ */
+public class SoundMixer {
+
+    /**
+     * Which voice is replaced when a sound is played while all voices are busy.
+     */
+    public enum StealPolicy {
+        OLDEST,
+        QUIETEST
+    }
+
+    public static final int DEFAULT_MAX_VOICES = 16;
+    public static final float SAMPLE_RATE = 44100f;
+    private static final int CHANNELS = 2;
+    private static final int BUFFER_FRAMES = 512;
+    private static final AudioFormat OUTPUT_FORMAT = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+    private static final Logger logger = LogManager.getLogger(SoundMixer.class);
+
+    private final StealPolicy stealPolicy;
+    private final Voice[] voices;
+    private final float[] mixBuffer = new float[BUFFER_FRAMES * CHANNELS];
+    private final byte[] outputBuffer = new byte[BUFFER_FRAMES * OUTPUT_FORMAT.getFrameSize()];
+    private final Map<DecodedSound, float[]> samples = new WeakHashMap<>();
+    private final Object lock = new Object();
+    private SourceDataLine line;
+    private Thread audioThread;
+    private volatile boolean running;
+    private long playCounter;
+
+    public SoundMixer() {
+        this(DEFAULT_MAX_VOICES, StealPolicy.OLDEST);
+    }
+
+    /**
+     * Creates a mixer. The output line is opened on {@link #start()}.
+     *
+     * @param maxVoices   the maximum number of sounds playing at once
+     * @param stealPolicy which voice to replace when all voices are busy
+     */
+    public SoundMixer(int maxVoices, StealPolicy stealPolicy) {
+        if (maxVoices < 1) {
+            throw new IllegalArgumentException("At least one voice is required");
+        }
+        if (stealPolicy == null) {
+            throw new IllegalArgumentException("Steal policy must not be null");
+        }
+        this.stealPolicy = stealPolicy;
+        this.voices = new Voice[maxVoices];
+        for (int i = 0; i < maxVoices; i++) {
+            voices[i] = new Voice();
+        }
+    }
+
+    /**
+     * Opens the output line and starts the audio thread. Does nothing if the mixer is already running.
+     *
+     * @throws LineUnavailableException if no line with the mixer format is available
+     */
+    public synchronized void start() throws LineUnavailableException {
+        if (running) {
+            return;
+        }
+        // The line of an audio thread that failed is closed before a new one is opened
+        releaseLine();
+        SourceDataLine output = AudioSystem.getSourceDataLine(OUTPUT_FORMAT);
+        output.open(OUTPUT_FORMAT, outputBuffer.length * 4);
+        output.start();
+        line = output;
+        running = true;
+        audioThread = new Thread(() -> mixLoop(output), "lvm-sound-mixer");
+        audioThread.setDaemon(true);
+        audioThread.setPriority(Thread.MAX_PRIORITY);
+        audioThread.start();
+        logger.info("Sound mixer started with {} voices", voices.length);
+    }
+
+    /**
+     * Stops the audio thread and closes the output line. Playing voices are discarded.
+     */
+    public synchronized void stop() {
+        if (line == null) {
+            return;
+        }
+        running = false;
+        synchronized (lock) {
+            for (Voice voice : voices) {
+                voice.samples = null;
+            }
+            lock.notifyAll();
+        }
+        try {
+            audioThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        releaseLine();
+        logger.info("Sound mixer stopped");
+    }
+
+    private void releaseLine() {
+        if (line != null) {
+            line.stop();
+            line.close();
+            line = null;
+        }
+        audioThread = null;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts playing a sound on a free voice, stealing one if necessary.
+     *
+     * @param sound the decoded sound
+     * @param gain  linear gain, {@code 1.0} for the original volume
+     */
+    public void play(DecodedSound sound, float gain) {
+        synchronized (lock) {
+            float[] data = samples.computeIfAbsent(sound, SoundMixer::toMixerFormat);
+            Voice voice = findVoice();
+            voice.samples = data;
+            voice.position = 0;
+            voice.gain = Math.max(0f, gain);
+            voice.startOrder = ++playCounter;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Converts a sound to the mixer format ahead of its first play, so {@link #play} only has to pick a voice.
+     *
+     * @param sound the decoded sound
+     */
+    public void prepare(DecodedSound sound) {
+        synchronized (lock) {
+            samples.computeIfAbsent(sound, SoundMixer::toMixerFormat);
+        }
+    }
+
+    /**
+     * Returns the number of voices currently playing.
+     */
+    public int getActiveVoiceCount() {
+        synchronized (lock) {
+            int count = 0;
+            for (Voice voice : voices) {
+                if (voice.samples != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    public int getMaxVoices() {
+        return voices.length;
+    }
+
+    private Voice findVoice() {
+        Voice victim = voices[0];
+        for (Voice voice : voices) {
+            if (voice.samples == null) {
+                return voice;
+            }
+            boolean better = stealPolicy == StealPolicy.OLDEST
+                    ? voice.startOrder < victim.startOrder
+                    : voice.gain < victim.gain || (voice.gain == victim.gain && voice.startOrder < victim.startOrder);
+            if (better) {
+                victim = voice;
+            }
+        }
+        logger.debug("All {} voices busy, stealing the {} one", voices.length, stealPolicy.name().toLowerCase());
+        return victim;
+    }
+
+    private void mixLoop(SourceDataLine output) {
+        try {
+            while (running) {
+                synchronized (lock) {
+                    while (running && !hasActiveVoice()) {
+                        lock.wait();
+                    }
+                    if (!running) {
+                        break;
+                    }
+                    mixVoices();
+                }
+                writeOutput(output);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Sound mixer failed", e);
+            running = false;
+            // Free the device right away; stop() or the next start() drops the closed line
+            output.close();
+        }
+    }
+
+    private boolean hasActiveVoice() {
+        for (Voice voice : voices) {
+            if (voice.samples != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void mixVoices() {
+        Arrays.fill(mixBuffer, 0f);
+        for (Voice voice : voices) {
+            float[] data = voice.samples;
+            if (data == null) {
+                continue;
+            }
+            int count = Math.min(mixBuffer.length, data.length - voice.position);
+            float gain = voice.gain;
+            for (int i = 0; i < count; i++) {
+                mixBuffer[i] += data[voice.position + i] * gain;
+            }
+            voice.position += count;
+            if (voice.position >= data.length) {
+                voice.samples = null;
+            }
+        }
+    }
+
+    private void writeOutput(SourceDataLine output) {
+        for (int i = 0, j = 0; i < mixBuffer.length; i++, j += 2) {
+            float value = Math.max(-1f, Math.min(1f, mixBuffer[i]));
+            int sample = (int) (value * 32767f);
+            outputBuffer[j] = (byte) sample;
+            outputBuffer[j + 1] = (byte) (sample >> 8);
+        }
+        output.write(outputBuffer, 0, outputBuffer.length);
+    }
+
+    /**
+     * Converts a PCM sound to interleaved stereo floats at the mixer sample rate.
+     */
+    private static float[] toMixerFormat(DecodedSound sound) {
+        AudioFormat format = sound.getFormat();
+        byte[] data = sound.getData();
+        int channels = format.getChannels();
+        int bytesPerSample = format.getSampleSizeInBits() / 8;
+        int frameSize = format.getFrameSize();
+        int sourceFrames = data.length / frameSize;
+        boolean signed = AudioFormat.Encoding.PCM_SIGNED.equals(format.getEncoding());
+        boolean bigEndian = format.isBigEndian();
+
+        float[] source = new float[sourceFrames * CHANNELS];
+        for (int frame = 0; frame < sourceFrames; frame++) {
+            int offset = frame * frameSize;
+            float left = readSample(data, offset, bytesPerSample, signed, bigEndian);
+            float right = channels > 1 ? readSample(data, offset + bytesPerSample, bytesPerSample, signed, bigEndian) : left;
+            source[frame * CHANNELS] = left;
+            source[frame * CHANNELS + 1] = right;
+        }
+
+        float sourceRate = format.getSampleRate();
+        if (sourceRate == AudioSystem.NOT_SPECIFIED || sourceRate == SAMPLE_RATE || sourceFrames < 2) {
+            return source;
+        }
+        // Linear interpolation is enough for short UI effects
+        double step = sourceRate / SAMPLE_RATE;
+        int targetFrames = (int) ((sourceFrames - 1) / step) + 1;
+        float[] target = new float[targetFrames * CHANNELS];
+        for (int frame = 0; frame < targetFrames; frame++) {
+            double position = frame * step;
+            int index = (int) position;
+            float fraction = (float) (position - index);
+            int next = Math.min(index + 1, sourceFrames - 1);
+            for (int c = 0; c < CHANNELS; c++) {
+                float a = source[index * CHANNELS + c];
+                float b = source[next * CHANNELS + c];
+                target[frame * CHANNELS + c] = a + (b - a) * fraction;
+            }
+        }
+        return target;
+    }
+
+    private static float readSample(byte[] data, int offset, int bytesPerSample, boolean signed, boolean bigEndian) {
+        if (bytesPerSample == 1) {
+            return signed ? data[offset] / 128f : ((data[offset] & 0xFF) - 128) / 128f;
+        }
+        // Only the two most significant bytes matter for 16-bit output
+        int hi = bigEndian ? data[offset] : data[offset + bytesPerSample - 1];
+        int lo = bigEndian ? data[offset + 1] : data[offset + bytesPerSample - 2];
+        int sample = (hi << 8) | (lo & 0xFF);
+        if (!signed) {
+            sample = (sample & 0xFFFF) - 32768;
+        }
+        return sample / 32768f;
+    }
+
+    private static final class Voice {
+        private float[] samples;
+        private int position;
+        private float gain;
+        private long startOrder;
+    }
+}
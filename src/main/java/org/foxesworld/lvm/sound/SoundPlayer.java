@@ -4,13 +4,42 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.sound.sampled.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
+/**
+ * Plays short sound effects.
+ * <p>
+ * Sounds are decoded once and kept as PCM in a shared, size-limited cache. Each sound has a pool of
+ * opened clips that are restarted instead of being opened and closed for every play. With the default
+ * of one clip per sound, playing a sound again restarts it, as before.
+ * </p>
+ * <p>
+ * Alternatively, {@link #useMixer(SoundMixer)} routes all sounds through a single software-mixed line.
+ * </p>
+ * <p>
+ * Decoding and opening the output happen on the first play of a sound unless it was {@link #preload preloaded}.
+ * </p>
+ */
 public class SoundPlayer {
 
     private static final Logger logger = LogManager.getLogger(SoundPlayer.class);
-    private static final Map<String, Clip> activeClips = new ConcurrentHashMap<>();
+    private static final String SOUND_DIRECTORY = "sounds/";
+    private static final Map<String, ClipPool> clipPools = new ConcurrentHashMap<>();
+    private static final DecodedSoundCache decodedSounds =
+            new DecodedSoundCache(DecodedSoundCache.DEFAULT_MAX_BYTES, SoundPlayer::releaseClips);
+    private static volatile int maxClipsPerSound = 1;
+    private static volatile SoundMixer mixer;
+    private static ForkJoinPool preloadPool;
 
     private final SoundResourceLoader resourceLoader = new SoundResourceLoader();
 
@@ -18,49 +47,233 @@ public class SoundPlayer {
     }
 
     public void playSound(String soundFile, float volume) {
-        String resourcePath = "sounds/" + soundFile;
-        Clip clip = null;
+        String resourcePath = SOUND_DIRECTORY + soundFile;
 
         logger.debug("Attempting to play sound: {} with volume: {}", soundFile, volume);
 
         try {
-            AudioInputStream ais = resourceLoader.loadAudioStream(resourcePath);
-            clip = AudioSystem.getClip();
-            clip.open(ais);
-
-            activeClips.compute(resourcePath, (key, oldClip) -> {
-                if (oldClip != null && oldClip.isRunning()) {
-                    logger.debug("Stopping previous instance of sound: {}", soundFile);
-                    oldClip.stop();
-                }
-                return null;
-            });
-
-            Clip finalClip = clip;
-            clip.addLineListener(event -> {
-                if (event.getType() == LineEvent.Type.STOP) {
-                    logger.debug("Playback completed for sound: {}", soundFile);
-                    activeClips.remove(resourcePath, finalClip);
-                    finalClip.close();
-                }
-            });
-
-            FloatControl gainControl = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
-            float targetdB = calculateTargetDecibels(volume, gainControl);
-            gainControl.setValue(targetdB);
-            logger.debug("Volume set to: {} dB for sound: {}", targetdB, soundFile);
-
-            activeClips.put(resourcePath, clip);
+            SoundMixer activeMixer = mixer;
+            if (activeMixer != null) {
+                activeMixer.start();
+                activeMixer.play(getDecodedSound(resourcePath), Math.max(0f, volume));
+                logger.info("Playing sound through mixer: {}", soundFile);
+                return;
+            }
+
+            Clip clip = acquireClip(resourcePath);
+
+            if (clip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
+                FloatControl gainControl = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
+                float targetdB = calculateTargetDecibels(volume, gainControl);
+                gainControl.setValue(targetdB);
+                logger.debug("Volume set to: {} dB for sound: {}", targetdB, soundFile);
+            }
+
             clip.start();
             logger.info("Playing sound: {}", soundFile);
         } catch (Exception e) {
+            logger.error("Failed to play sound: {}", soundFile, e);
+        }
+    }
+
+    /**
+     * Returns the decoded PCM data of a sound, decoding it on first use. A sound that is being decoded already,
+     * e.g. by {@link #preload}, is not decoded a second time.
+     *
+     * @param resourcePath the resource path of the sound, e.g. {@code sounds/sound1.ogg}
+     * @return the decoded sound
+     */
+    public DecodedSound getDecodedSound(String resourcePath) {
+        return decodedSounds.get(resourcePath, resourceLoader::loadDecodedSound);
+    }
+
+    /**
+     * Decodes sounds in parallel and opens the output for them, so their first play is as fast as any later one.
+     * <p>
+     * Sounds are decoded on a shared pool with one thread per core. Once all are decoded, the output is warmed
+     * up: the mixer set with {@link #useMixer(SoundMixer)} is started and the sounds are converted to its
+     * format, or otherwise one clip per sound is opened. Sounds that do not fit into the decoded sound cache
+     * budget are decoded again on play.
+     * </p>
+     *
+     * @param soundFiles the sound files, relative to {@code sounds/} as for {@link #playSound(String, float)}
+     * @return a future completed with per-file timings once the sounds are ready; it completes normally even if
+     * some sounds, or the warm-up, failed
+     */
+    public CompletableFuture<SoundPreloadResult> preload(Collection<String> soundFiles) {
+        if (soundFiles == null) {
+            throw new IllegalArgumentException("Sound files must not be null");
+        }
+        long start = System.nanoTime();
+        ForkJoinPool pool = getPreloadPool();
+        Map<String, CompletableFuture<DecodedSound>> decodes = new LinkedHashMap<>();
+        Map<String, Double> decodeMillis = new ConcurrentHashMap<>();
+        for (String soundFile : new LinkedHashSet<>(soundFiles)) {
+            decodes.put(soundFile, CompletableFuture.supplyAsync(() -> {
+                long decodeStart = System.nanoTime();
+                DecodedSound sound = getDecodedSound(SOUND_DIRECTORY + soundFile);
+                decodeMillis.put(soundFile, (System.nanoTime() - decodeStart) / 1_000_000.0);
+                return sound;
+            }, pool));
+        }
+        return CompletableFuture.allOf(decodes.values().toArray(new CompletableFuture<?>[0]))
+                // Failed sounds are reported in the result, the others are still warmed up
+                .handle((ignored, error) -> null)
+                .thenApplyAsync(ignored -> {
+                    Map<String, Double> timings = new LinkedHashMap<>();
+                    Map<String, Throwable> failures = new LinkedHashMap<>();
+                    Map<String, DecodedSound> sounds = new LinkedHashMap<>();
+                    decodes.forEach((soundFile, decode) -> {
+                        try {
+                            sounds.put(soundFile, decode.join());
+                            timings.put(soundFile, decodeMillis.get(soundFile));
+                        } catch (CompletionException e) {
+                            logger.warn("Failed to preload sound: {}", soundFile, e.getCause());
+                            failures.put(soundFile, e.getCause());
+                        }
+                    });
+                    long warmUpStart = System.nanoTime();
+                    Throwable warmUpFailure = null;
+                    try {
+                        warmUp(sounds);
+                    } catch (LineUnavailableException | RuntimeException e) {
+                        logger.warn("Failed to warm up audio output: {}", e.toString());
+                        warmUpFailure = e;
+                    }
+                    long end = System.nanoTime();
+                    SoundPreloadResult result = new SoundPreloadResult(timings, failures,
+                            (end - warmUpStart) / 1_000_000.0, warmUpFailure, (end - start) / 1_000_000.0);
+                    logger.info("Preloaded {}", result);
+                    return result;
+                }, pool);
+    }
+
+    /**
+     * Preloads every sound in the {@code sounds/} asset directory; see {@link #preload(Collection)}.
+     *
+     * @return a future completed with per-file timings once the sounds are ready
+     */
+    public CompletableFuture<SoundPreloadResult> preloadAll() {
+        return CompletableFuture.supplyAsync(() -> {
+            List<String> soundFiles = new ArrayList<>();
+            for (String resourcePath : resourceLoader.listSounds(SOUND_DIRECTORY)) {
+                soundFiles.add(resourcePath.substring(SOUND_DIRECTORY.length()));
+            }
+            return soundFiles;
+        }, getPreloadPool()).thenCompose(this::preload);
+    }
+
+    /**
+     * Opens the output for decoded sounds: the active mixer, or one pooled clip per sound. The first clip
+     * also initializes the audio system, which is the slowest part of a first play.
+     */
+    private void warmUp(Map<String, DecodedSound> sounds) throws LineUnavailableException {
+        SoundMixer activeMixer = mixer;
+        if (activeMixer != null) {
+            activeMixer.start();
+            sounds.values().forEach(activeMixer::prepare);
+            return;
+        }
+        for (Map.Entry<String, DecodedSound> entry : sounds.entrySet()) {
+            DecodedSound sound = entry.getValue();
+            ClipPool pool = clipPools.computeIfAbsent(SOUND_DIRECTORY + entry.getKey(), key -> new ClipPool(sound));
+            // A pool closed by a concurrent eviction is simply opened again on play
+            pool.prepare();
+        }
+    }
+
+    private static synchronized ForkJoinPool getPreloadPool() {
+        if (preloadPool == null) {
+            preloadPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("lvm-sound-preload-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+        return preloadPool;
+    }
+
+    private Clip acquireClip(String resourcePath) throws LineUnavailableException {
+        while (true) {
+            ClipPool pool = clipPools.get(resourcePath);
+            if (pool == null) {
+                DecodedSound sound = getDecodedSound(resourcePath);
+                pool = clipPools.computeIfAbsent(resourcePath, key -> new ClipPool(sound));
+            }
+            Clip clip = pool.acquire(maxClipsPerSound);
             if (clip != null) {
-                clip.close();
+                return clip;
             }
-            logger.error("Failed to play sound: {}", soundFile, e);
+            // The pool was closed by a concurrent eviction; retry with a fresh one.
+            clipPools.remove(resourcePath, pool);
+        }
+    }
+
+    private static void releaseClips(String resourcePath) {
+        ClipPool pool = clipPools.remove(resourcePath);
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Switches playback to a software mixer, or back to one clip per playback.
+     * <p>
+     * In mixer mode, all sounds share one output line; the mixer's voice limit replaces the per-sound clip
+     * limit. The previous mixer, if any, is stopped.
+     * </p>
+     *
+     * @param newMixer the mixer to play through, or {@code null} to use clips
+     */
+    public static synchronized void useMixer(SoundMixer newMixer) {
+        SoundMixer previous = mixer;
+        mixer = newMixer;
+        if (previous != null && previous != newMixer) {
+            previous.stop();
+        }
+        if (newMixer != null) {
+            clipPools.keySet().forEach(SoundPlayer::releaseClips);
         }
     }
 
+    public static SoundMixer getMixer() {
+        return mixer;
+    }
+
+    /**
+     * Sets how many clips of the same sound may play at once. When all are busy, the oldest one is restarted.
+     *
+     * @param maxClips the number of clips per sound; at least 1
+     */
+    public static void setMaxClipsPerSound(int maxClips) {
+        if (maxClips < 1) {
+            throw new IllegalArgumentException("At least one clip per sound is required");
+        }
+        maxClipsPerSound = maxClips;
+    }
+
+    /**
+     * Sets the memory budget for decoded PCM data. Sounds evicted from the cache release their clips.
+     *
+     * @param maxBytes the maximum total size of decoded sounds
+     */
+    public static void setDecodedCacheMaxBytes(long maxBytes) {
+        decodedSounds.setMaxBytes(maxBytes);
+    }
+
+    public static DecodedSoundCache getDecodedSoundCache() {
+        return decodedSounds;
+    }
+
+    /**
+     * Drops all decoded sounds and closes all pooled clips.
+     */
+    public static void releaseAll() {
+        decodedSounds.clear();
+        clipPools.keySet().forEach(SoundPlayer::releaseClips);
+    }
+
     private float calculateTargetDecibels(float volume, FloatControl gainControl) {
         float minGain = gainControl.getMinimum();
         float maxGain = gainControl.getMaximum();
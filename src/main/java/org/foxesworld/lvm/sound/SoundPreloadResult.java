@@ -0,0 +1,83 @@
+package org.foxesworld.lvm.sound;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of {@link SoundPlayer#preload}: how long each sound took to decode, which sounds failed, and how
+ * long the audio output took to warm up.
+ * <p>
+ * Times are in milliseconds. A sound that was already decoded reports the time of the cache lookup.
+ * </p>
+ */
+public final class SoundPreloadResult {
+
+    private final Map<String, Double> decodeMillis;
+    private final Map<String, Throwable> failures;
+    private final double warmUpMillis;
+    private final Throwable warmUpFailure;
+    private final double totalMillis;
+
+    SoundPreloadResult(Map<String, Double> decodeMillis, Map<String, Throwable> failures, double warmUpMillis,
+                       Throwable warmUpFailure, double totalMillis) {
+        this.decodeMillis = Collections.unmodifiableMap(new LinkedHashMap<>(decodeMillis));
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+        this.warmUpMillis = warmUpMillis;
+        this.warmUpFailure = warmUpFailure;
+        this.totalMillis = totalMillis;
+    }
+
+    /**
+     * Returns the decode time of every sound that was preloaded, keyed by sound file, in request order.
+     */
+    public Map<String, Double> getDecodeMillis() {
+        return decodeMillis;
+    }
+
+    /**
+     * Returns the sounds that could not be decoded, keyed by sound file.
+     */
+    public Map<String, Throwable> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns the time spent opening the output line, or the clips, for the preloaded sounds.
+     */
+    public double getWarmUpMillis() {
+        return warmUpMillis;
+    }
+
+    /**
+     * Returns why the output could not be warmed up, e.g. because no audio device is available, or
+     * {@code null} if it was. Decoded sounds stay cached either way.
+     */
+    public Throwable getWarmUpFailure() {
+        return warmUpFailure;
+    }
+
+    /**
+     * Returns the wall-clock time from the request until the sounds were ready.
+     */
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(decodeMillis.size()).append(" sounds in ").append(String.format("%.1f ms", totalMillis));
+        sb.append(" (warm-up ").append(String.format("%.1f ms", warmUpMillis));
+        if (warmUpFailure != null) {
+            sb.append(", failed: ").append(warmUpFailure.getMessage());
+        }
+        sb.append(')');
+        decodeMillis.forEach((file, millis) -> sb.append(", ").append(file).append('=')
+                .append(String.format("%.1f ms", millis)));
+        if (!failures.isEmpty()) {
+            sb.append(", failed: ").append(failures.keySet());
+        }
+        return sb.toString();
+    }
+}
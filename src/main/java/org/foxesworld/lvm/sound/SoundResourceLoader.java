@@ -5,19 +5,70 @@ import org.foxesworld.lvm.resourceLoader.ResourceLoader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
 
 public class SoundResourceLoader implements IResourceLoader {
 
     private static final Logger logger = LogManager.getLogger(SoundResourceLoader.class);
+    private final ResourceLoader resourceLoader = new ResourceLoader();
 
     @Override
     public <T> T loadResource(String resourcePath, Class<T> type) {
         logger.debug("Loading resource: {} as {}", resourcePath, type.getSimpleName());
-        return new ResourceLoader().loadResource(resourcePath, type);
+        return resourceLoader.loadResource(resourcePath, type);
     }
 
     public AudioInputStream loadAudioStream(String resourcePath) {
         return loadResource(resourcePath, AudioInputStream.class);
     }
+
+    /**
+     * Loads and fully decodes a sound into PCM.
+     *
+     * @param resourcePath the path to the sound resource
+     * @return the decoded sound
+     * @throws RuntimeException if the sound cannot be loaded or decoded
+     */
+    public DecodedSound loadDecodedSound(String resourcePath) {
+        long start = System.nanoTime();
+        try (AudioInputStream source = loadAudioStream(resourcePath);
+             AudioInputStream pcm = toPcm(source)) {
+            DecodedSound sound = new DecodedSound(pcm.getFormat(), pcm.readAllBytes());
+            logger.debug("Decoded sound: {} ({} bytes in {} ms)", resourcePath, sound.getSizeInBytes(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return sound;
+        } catch (IOException e) {
+            throw new RuntimeException("Error decoding sound: " + resourcePath, e);
+        }
+    }
+
+    /**
+     * Lists the sound files in a resource directory. Only Ogg Vorbis files are listed, the only format the
+     * resource loader can decode.
+     *
+     * @param directory the directory relative to the base directory, e.g. {@code sounds/}
+     * @return the sorted resource paths of the sounds
+     */
+    public List<String> listSounds(String directory) {
+        return resourceLoader.listResources(directory).stream()
+                .filter(path -> path.toLowerCase(Locale.ROOT).endsWith(".ogg"))
+                .collect(Collectors.toList());
+    }
+
+    private static AudioInputStream toPcm(AudioInputStream source) {
+        AudioFormat format = source.getFormat();
+        AudioFormat.Encoding encoding = format.getEncoding();
+        if (AudioFormat.Encoding.PCM_SIGNED.equals(encoding) || AudioFormat.Encoding.PCM_UNSIGNED.equals(encoding)) {
+            return source;
+        }
+        AudioFormat pcmFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+        return AudioSystem.getAudioInputStream(pcmFormat, source);
+    }
 }
@@ -0,0 +1,321 @@
+package org.foxesworld.lvm.telemetry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Performance figures of one animation view: the duration of each load phase and a frame-time histogram.
+ * <p>
+ * Load phases are timed on the Java side:
+ * <ul>
+ *     <li>resource read: loading the animation JSON,</li>
+ *     <li>template render: building the page from the template,</li>
+ *     <li>load content: from {@code loadContent} (or the host's {@code loadJson}) until the page is loaded,</li>
+ *     <li>DOM loaded: from then until Lottie raises {@code DOMLoaded}.</li>
+ * </ul>
+ * Frame intervals are measured in the page with {@code requestAnimationFrame} while the animation plays and
+ * collected there into {@value #BUCKET_COUNT} one-millisecond buckets, the last one holding every interval of
+ * {@value #OVERFLOW_MILLIS} ms or more. The page sends the buckets once per second, so the bridge is crossed
+ * once per second rather than once per frame. Percentiles are accurate to one bucket.
+ * </p>
+ * Recording methods are called on the JavaFX Application Thread; the getters may be called from any thread.
+ */
+public class AnimationTelemetry implements AnimationTelemetryMXBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnimationTelemetry.class);
+    public static final int OVERFLOW_MILLIS = 100;
+    public static final int BUCKET_COUNT = OVERFLOW_MILLIS + 1;
+    private static final String DOMAIN = "org.foxesworld.lvm";
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    private final LongSupplier javaToJsCalls;
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private long frameCount;
+    private long droppedFrames;
+    private long jsToJavaCalls;
+    private long javaToJsCallsAtReset;
+    private double fps;
+    private double reportedMillis;
+    private String animationPath;
+    private long resourceReadNanos;
+    private long templateRenderNanos;
+    private long loadContentNanos;
+    private long domLoadedNanos;
+    private long contentLoadingSince;
+    private long contentLoadedAt;
+    private ObjectName objectName;
+
+    /**
+     * @param javaToJsCalls the number of controller calls made by the view so far
+     */
+    public AnimationTelemetry(LongSupplier javaToJsCalls) {
+        this.javaToJsCalls = javaToJsCalls;
+    }
+
+    // ---- recording, called by the view ----
+
+    public synchronized void setAnimationPath(String animationPath) {
+        this.animationPath = animationPath;
+    }
+
+    public synchronized void recordResourceRead(long nanos) {
+        resourceReadNanos = nanos;
+    }
+
+    public synchronized void recordTemplateRender(long nanos) {
+        templateRenderNanos = nanos;
+    }
+
+    /**
+     * Marks the moment the page content or animation data is handed to WebKit.
+     */
+    public synchronized void markContentLoading() {
+        contentLoadingSince = System.nanoTime();
+        contentLoadedAt = 0;
+        domLoadedNanos = 0;
+    }
+
+    /**
+     * Marks the moment the page reached SUCCEEDED or the animation was swapped in.
+     */
+    public synchronized void markContentLoaded() {
+        if (contentLoadingSince == 0) {
+            return;
+        }
+        contentLoadedAt = System.nanoTime();
+        loadContentNanos = contentLoadedAt - contentLoadingSince;
+        contentLoadingSince = 0;
+    }
+
+    /**
+     * Called by the page when Lottie raises {@code DOMLoaded}. If the DOM was ready before the page finished
+     * loading, the page calls this right after it is bound and the phase takes no time.
+     */
+    public synchronized void onDomLoaded() {
+        if (contentLoadedAt == 0) {
+            return;
+        }
+        domLoadedNanos = System.nanoTime() - contentLoadedAt;
+        contentLoadedAt = 0;
+        logger.debug("Loaded {}: read {} ms, render {} ms, load content {} ms, DOM {} ms", animationPath,
+                millis(resourceReadNanos), millis(templateRenderNanos), millis(loadContentNanos), millis(domLoadedNanos));
+    }
+
+    /**
+     * Called by the page once per second with the frames of that second.
+     *
+     * @param histogram    non-empty buckets as {@code bucket:count} pairs separated by commas
+     * @param frames       the number of frames
+     * @param dropped      the number of refreshes without a new frame
+     * @param bridgeCalls  the number of calls the page made into Java
+     * @param windowMillis the length of the period the figures cover
+     */
+    public synchronized void onFrameStats(String histogram, double frames, double dropped, double bridgeCalls,
+                                          double windowMillis) {
+        if (histogram != null && !histogram.isEmpty()) {
+            for (String pair : histogram.split(",")) {
+                int colon = pair.indexOf(':');
+                if (colon < 0) {
+                    continue;
+                }
+                try {
+                    int bucket = Integer.parseInt(pair.substring(0, colon));
+                    long count = Long.parseLong(pair.substring(colon + 1));
+                    buckets[Math.max(0, Math.min(BUCKET_COUNT - 1, bucket))] += count;
+                } catch (NumberFormatException e) {
+                    logger.debug("Ignoring malformed histogram entry: {}", pair);
+                }
+            }
+        }
+        frameCount += (long) frames;
+        droppedFrames += (long) dropped;
+        jsToJavaCalls += (long) bridgeCalls;
+        fps = windowMillis > 0 ? frames * 1000 / windowMillis : 0;
+        reportedMillis += Math.max(0, windowMillis);
+    }
+
+    // ---- JMX ----
+
+    /**
+     * Registers this telemetry with the platform MBean server under a name unique to the view.
+     */
+    public synchronized void register() {
+        if (objectName != null) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=AnimationTelemetry,name=view-" + sequence.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        } catch (JMException | SecurityException e) {
+            logger.warn("Could not register animation telemetry with JMX", e);
+        }
+    }
+
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(objectName);
+        } catch (JMException e) {
+            logger.debug("Animation telemetry was already unregistered", e);
+        }
+        objectName = null;
+    }
+
+    /**
+     * Returns the JMX name, or {@code null} if this telemetry is not registered.
+     */
+    public synchronized ObjectName getObjectName() {
+        return objectName;
+    }
+
+    // ---- figures ----
+
+    @Override
+    public synchronized String getAnimationPath() {
+        return animationPath;
+    }
+
+    @Override
+    public synchronized double getFps() {
+        return fps;
+    }
+
+    @Override
+    public synchronized double getAverageFps() {
+        return reportedMillis > 0 ? frameCount * 1000 / reportedMillis : 0;
+    }
+
+    /**
+     * Returns the playing time the page has reported frame statistics for since the view was created or
+     * {@link #reset()}, in milliseconds.
+     */
+    public synchronized double getReportedMillis() {
+        return reportedMillis;
+    }
+
+    @Override
+    public synchronized long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public synchronized long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    @Override
+    public double getFrameTimeP50Millis() {
+        return getFrameTimePercentile(0.50);
+    }
+
+    @Override
+    public double getFrameTimeP95Millis() {
+        return getFrameTimePercentile(0.95);
+    }
+
+    @Override
+    public double getFrameTimeP99Millis() {
+        return getFrameTimePercentile(0.99);
+    }
+
+    /**
+     * Returns the frame time below which the given share of frames fall, as the upper edge of its bucket.
+     *
+     * @param quantile a value from 0 to 1
+     * @return the frame time in milliseconds, or {@code 0} without frames
+     */
+    public synchronized double getFrameTimePercentile(double quantile) {
+        long total = 0;
+        for (long count : buckets) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.max(0, Math.min(1, quantile)) * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= Math.max(1, rank)) {
+                return i + 1;
+            }
+        }
+        return BUCKET_COUNT;
+    }
+
+    /**
+     * Returns a copy of the histogram: the number of frames per millisecond of frame time.
+     */
+    public synchronized long[] getHistogram() {
+        return buckets.clone();
+    }
+
+    @Override
+    public synchronized long getJavaToJsCalls() {
+        return javaToJsCalls.getAsLong() - javaToJsCallsAtReset;
+    }
+
+    @Override
+    public synchronized long getJsToJavaCalls() {
+        return jsToJavaCalls;
+    }
+
+    @Override
+    public synchronized double getResourceReadMillis() {
+        return millis(resourceReadNanos);
+    }
+
+    @Override
+    public synchronized double getTemplateRenderMillis() {
+        return millis(templateRenderNanos);
+    }
+
+    @Override
+    public synchronized double getLoadContentMillis() {
+        return millis(loadContentNanos);
+    }
+
+    @Override
+    public synchronized double getDomLoadedMillis() {
+        return millis(domLoadedNanos);
+    }
+
+    /**
+     * Clears the frame statistics and call counts. Load phases are kept until the next load.
+     */
+    @Override
+    public synchronized void reset() {
+        Arrays.fill(buckets, 0);
+        frameCount = 0;
+        droppedFrames = 0;
+        jsToJavaCalls = 0;
+        javaToJsCallsAtReset = javaToJsCalls.getAsLong();
+        fps = 0;
+        reportedMillis = 0;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: %.1f fps, %d frames, p50/p95/p99 %.0f/%.0f/%.0f ms, %d dropped, "
+                        + "%d Java->JS and %d JS->Java calls, load %.1f/%.1f/%.1f/%.1f ms",
+                animationPath, fps, frameCount, getFrameTimeP50Millis(), getFrameTimeP95Millis(),
+                getFrameTimeP99Millis(), droppedFrames, getJavaToJsCalls(), jsToJavaCalls,
+                getResourceReadMillis(), getTemplateRenderMillis(), getLoadContentMillis(), getDomLoadedMillis());
+    }
+}
@@ -0,0 +1,57 @@
+package org.foxesworld.lvm.telemetry;
+
+/**
+ * Management interface of {@link AnimationTelemetry}, registered under
+ * {@code org.foxesworld.lvm:type=AnimationTelemetry,name=<view>} when telemetry is enabled.
+ * <p>
+ * Frame statistics cover all frames since the view was created or {@link #reset()}; times are in
+ * milliseconds.
+ * </p>
+ */
+public interface AnimationTelemetryMXBean {
+
+    String getAnimationPath();
+
+    /**
+     * Returns the frame rate measured in the page during the last reported second.
+     */
+    double getFps();
+
+    /**
+     * Returns the frame rate over all reported frames.
+     */
+    double getAverageFps();
+
+    long getFrameCount();
+
+    /**
+     * Returns the number of display refreshes that passed without a new frame while the animation played.
+     */
+    long getDroppedFrames();
+
+    double getFrameTimeP50Millis();
+
+    double getFrameTimeP95Millis();
+
+    double getFrameTimeP99Millis();
+
+    /**
+     * Returns the number of calls from Java into the page's controller.
+     */
+    long getJavaToJsCalls();
+
+    /**
+     * Returns the number of calls from the page into Java listeners and callbacks.
+     */
+    long getJsToJavaCalls();
+
+    double getResourceReadMillis();
+
+    double getTemplateRenderMillis();
+
+    double getLoadContentMillis();
+
+    double getDomLoadedMillis();
+
+    void reset();
+}
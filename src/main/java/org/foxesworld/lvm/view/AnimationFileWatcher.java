@@ -0,0 +1,270 @@
+package org.foxesworld.lvm.view;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches animation files on disk and reports when their content changes, for hot reload.
+ * <p>
+ * One {@link WatchService} and one daemon thread serve all views; each directory is registered once, however
+ * many of its files are watched. Editors often save in several writes or through a temporary file, so events
+ * for a file are debounced: the file is only read once no event arrived for it during the debounce time. A
+ * listener is then called only if the SHA-256 of the content differs from the last one seen, so saving an
+ * unchanged file, or touching it, does not reload anything.
+ * </p>
+ * Listeners are called on the watcher thread and must hand work to the JavaFX Application Thread themselves.
+ */
+public final class AnimationFileWatcher {
+
+    /**
+     * Default debounce time, overridable with the {@code lvm.animationWatcher.debounceMillis} system property.
+     */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = Long.getLong("lvm.animationWatcher.debounceMillis", 200);
+
+    private static final Logger logger = LoggerFactory.getLogger(AnimationFileWatcher.class);
+    private static final AnimationFileWatcher SHARED = new AnimationFileWatcher(DEFAULT_DEBOUNCE_MILLIS);
+
+    private final long debounceNanos;
+    private final Map<Path, WatchedFile> files = new HashMap<>();
+    private final Map<Path, WatchKey> directories = new HashMap<>();
+    private WatchService watchService;
+
+    /**
+     * @param debounceMillis how long a file has to stay unchanged before it is read
+     */
+    public AnimationFileWatcher(long debounceMillis) {
+        if (debounceMillis < 0) throw new IllegalArgumentException("Debounce time must not be negative");
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+    }
+
+    public static AnimationFileWatcher getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Starts watching a file. The current content is taken as the starting point, so the listener is only
+     * called for later changes.
+     *
+     * @param file     the file to watch
+     * @param listener called on the watcher thread after the content of the file changed
+     * @return the registration; close it to stop watching
+     * @throws IOException if the directory of the file cannot be watched
+     */
+    public synchronized Registration watch(Path file, Runnable listener) throws IOException {
+        if (file == null) throw new IllegalArgumentException("File must not be null");
+        if (listener == null) throw new IllegalArgumentException("Listener must not be null");
+        Path normalized = file.toAbsolutePath().normalize();
+        Path directory = normalized.getParent();
+        if (directory == null) throw new IllegalArgumentException("File has no parent directory: " + file);
+        ensureStarted();
+        if (!directories.containsKey(directory)) {
+            directories.put(directory, directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY));
+            logger.debug("Watching directory {}", directory);
+        }
+        WatchedFile watched = files.get(normalized);
+        if (watched == null) {
+            watched = new WatchedFile(normalized, hash(normalized));
+            files.put(normalized, watched);
+        }
+        watched.listeners.add(listener);
+        return new Registration(normalized, listener);
+    }
+
+    private synchronized void unwatch(Path file, Runnable listener) {
+        WatchedFile watched = files.get(file);
+        if (watched == null || !watched.listeners.remove(listener) || !watched.listeners.isEmpty()) {
+            return;
+        }
+        files.remove(file);
+        Path directory = file.getParent();
+        boolean directoryInUse = files.keySet().stream().anyMatch(other -> directory.equals(other.getParent()));
+        if (!directoryInUse) {
+            WatchKey key = directories.remove(directory);
+            if (key != null) {
+                key.cancel();
+                logger.debug("Stopped watching directory {}", directory);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of files currently watched.
+     */
+    public synchronized int getWatchedFileCount() {
+        return files.size();
+    }
+
+    private void ensureStarted() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        Thread thread = new Thread(this::run, "lvm-animation-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                long waitNanos = nanosUntilNextDue();
+                WatchKey key = waitNanos < 0 ? watchService.take() : watchService.poll(waitNanos, TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    onEvents(key);
+                }
+                checkDueFiles();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            logger.debug("Animation file watcher closed");
+        }
+    }
+
+    private synchronized void onEvents(WatchKey key) {
+        Path directory = (Path) key.watchable();
+        long dueAt = System.nanoTime() + debounceNanos;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost, so any file in the directory may have changed
+                for (WatchedFile watched : files.values()) {
+                    if (directory.equals(watched.file.getParent())) {
+                        watched.dueAt = dueAt;
+                    }
+                }
+                continue;
+            }
+            WatchedFile watched = files.get(directory.resolve((Path) event.context()));
+            if (watched != null) {
+                // Every new event restarts the debounce time of the file
+                watched.dueAt = dueAt;
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * Returns the time until the earliest debounced file is due, or {@code -1} if none is pending.
+     */
+    private synchronized long nanosUntilNextDue() {
+        long now = System.nanoTime();
+        long wait = -1;
+        for (WatchedFile watched : files.values()) {
+            if (watched.dueAt != 0) {
+                long remaining = Math.max(1, watched.dueAt - now);
+                wait = wait < 0 ? remaining : Math.min(wait, remaining);
+            }
+        }
+        return wait;
+    }
+
+    private void checkDueFiles() {
+        List<WatchedFile> due = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            for (WatchedFile watched : files.values()) {
+                if (watched.dueAt != 0 && watched.dueAt - now <= 0) {
+                    watched.dueAt = 0;
+                    due.add(watched);
+                }
+            }
+        }
+        for (WatchedFile watched : due) {
+            byte[] hash = hash(watched.file);
+            // A file that is missing for now, e.g. while an editor replaces it, is read again on its next event
+            if (hash == null || Arrays.equals(hash, watched.hash)) {
+                continue;
+            }
+            watched.hash = hash;
+            logger.info("Animation file changed: {}", watched.file);
+            for (Runnable listener : watched.listeners) {
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    logger.error("Animation file listener failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the SHA-256 of a file, or {@code null} if it cannot be read.
+     */
+    private static byte[] hash(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+            return digest.digest();
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.debug("Could not read {}", file, e);
+            return null;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class WatchedFile {
+        private final Path file;
+        private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+        private volatile byte[] hash;
+        private long dueAt;
+
+        private WatchedFile(Path file, byte[] hash) {
+            this.file = file;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * A watched file and its listener.
+     */
+    public final class Registration implements AutoCloseable {
+        private final Path file;
+        private final Runnable listener;
+
+        private Registration(Path file, Runnable listener) {
+            this.file = file;
+            this.listener = listener;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * Stops calling the listener; the directory is no longer watched once none of its files is.
+         */
+        @Override
+        public void close() {
+            unwatch(file, listener);
+        }
+    }
+}
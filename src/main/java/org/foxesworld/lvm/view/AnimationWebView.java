@@ -1,63 +1,733 @@
 package org.foxesworld.lvm.view;
 
+import com.google.gson.Gson;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
 import javafx.concurrent.Worker;
+import javafx.scene.Node;
 import javafx.scene.layout.Region;
 import javafx.scene.web.WebView;
 import netscape.javascript.JSObject;
 import org.foxesworld.lvm.config.LottieAnimationConfig;
 import org.foxesworld.lvm.event.AnimationCallback;
+import org.foxesworld.lvm.event.AnimationListener;
 import org.foxesworld.lvm.html.HtmlContentBuilder;
+import org.foxesworld.lvm.metadata.AnimationMetadata;
+import org.foxesworld.lvm.metadata.AnimationMetadataIndex;
+import org.foxesworld.lvm.resourceLoader.ResourceLoader;
 import org.foxesworld.lvm.sound.SoundPlayer;
+import org.foxesworld.lvm.telemetry.AnimationTelemetry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
 public class AnimationWebView extends Region {
     private static final Logger logger = LoggerFactory.getLogger(AnimationWebView.class);
     private static final String DEFAULT_HTML_TEMPLATE_PATH = "html/content.html";
+    private static final Gson GSON = new Gson();
 
     private final SoundPlayer soundPlayer;
     private final WebView webView;
     private LottieAnimationConfig config;
     private final HtmlContentBuilder htmlContentBuilder;
+    private final JsControlHandle controls = new JsControlHandle();
+    private final ControlCommandScheduler commandScheduler = new ControlCommandScheduler(controls);
+    private final AnimationTelemetry telemetry = new AnimationTelemetry(controls::getCallCount);
+    private AnimationCallback animationCallback;
+    private AnimationListener animationListener;
+    private boolean hostLoading;
+    private volatile boolean hostReady;
+    private String pendingAnimationJson;
+    private final AtomicLong loadGeneration = new AtomicLong();
+    private volatile CompletableFuture<Void> pendingLoad;
+    private CompletableFuture<Void> pageLoadFuture;
+    private final boolean pooled;
+    private boolean disposed;
+    private VisibilityWatcher visibilityWatcher;
+    private boolean playRequested;
+    private boolean pausedWhileHidden;
+    private long hiddenSince;
+    private volatile AnimationMetadata metadata;
+    private AnimationFileWatcher.Registration fileWatch;
+    /**
+     * The configuration the page was last built or updated with, as {@link #updateConfig} compares against it.
+     */
+    private LottieAnimationConfig appliedConfig;
+    private boolean pageReleased;
+    private final BakeController bake;
+    private final ChangeListener<Worker.State> loadStateListener = (obs, oldState, newState) -> {
+        if (newState == Worker.State.SUCCEEDED) {
+            onPageLoaded();
+        } else if (newState == Worker.State.FAILED) {
+            onPageFailed();
+        }
+    };
 
+    // The constructor builds the node and loads the page, which hands the view to JavaFX listeners before a
+    // subclass is initialized; it calls no method a subclass can override
+    @SuppressWarnings("this-escape")
     public AnimationWebView(LottieAnimationConfig config) {
         if (config == null) throw new IllegalArgumentException("LottieAnimationConfig must not be null");
         this.config = config;
         this.soundPlayer = new SoundPlayer();
-        this.webView = new WebView();
+        this.pooled = config.isUseWebViewPool() && config.isPersistentHost();
+        WebView borrowed = pooled ? WebViewPool.getShared().borrow(config) : null;
+        this.webView = borrowed != null ? borrowed : new WebView();
 
         this.htmlContentBuilder = new HtmlContentBuilder(DEFAULT_HTML_TEMPLATE_PATH);
         getChildren().add(webView);
         webView.prefWidthProperty().bind(widthProperty());
         webView.prefHeightProperty().bind(heightProperty());
-        loadAnimation(this.config.getAnimationJsonResourcePath());
+        webView.getEngine().getLoadWorker().stateProperty().addListener(loadStateListener);
+        playRequested = config.isAutoplay();
+        bake = new BakeController(this, webView, controls, commandScheduler, new BakeHost());
+        widthProperty().addListener(obs -> bake.onSizeChanged());
+        heightProperty().addListener(obs -> bake.onSizeChanged());
+        sceneProperty().addListener(obs -> bake.tryStart());
+        configureVisibilityWatcher();
+        if (config.isTelemetryEnabled()) {
+            telemetry.register();
+        }
+        appliedConfig = new LottieAnimationConfig(config);
+        // A warm pooled page is taken over right away, which needs everything above
+        if (borrowed != null) {
+            adoptPooledView();
+        }
+        load(this.config.getAnimationJsonResourcePath());
+    }
+
+    /**
+     * Takes over a view from the pool: its host page is either loaded already or still loading.
+     */
+    private void adoptPooledView() {
+        Worker.State state = webView.getEngine().getLoadWorker().getState();
+        if (state == Worker.State.SUCCEEDED) {
+            hostLoading = true;
+            onPageLoaded();
+        } else if (state == Worker.State.SCHEDULED || state == Worker.State.RUNNING) {
+            hostLoading = true;
+        }
+        logger.debug("Using a pooled WebView ({})", state);
     }
 
     protected void loadAnimation(String animationUri) {
+        load(animationUri);
+    }
+
+    private void load(String animationUri) {
+        ensureNotDisposed();
+        long generation = supersedePendingLoad();
         config.setAnimationJsonResourcePath(animationUri);
         try {
-            String htmlContent = htmlContentBuilder.buildHtmlContent(config);
-            webView.getEngine().loadContent(htmlContent);
+            inspectInBackground(generation, animationUri);
+            telemetry.setAnimationPath(animationUri);
+            long start = System.nanoTime();
+            String animationJson = htmlContentBuilder.loadAnimationJson(config);
+            long read = System.nanoTime();
+            telemetry.recordResourceRead(read - start);
+            if (config.isPersistentHost()) {
+                swapAnimation(animationJson, null);
+            } else {
+                String htmlContent = htmlContentBuilder.buildHtmlContent(config, animationJson);
+                telemetry.recordTemplateRender(System.nanoTime() - read);
+                loadPage(htmlContent);
+            }
+            onAnimationLoaded();
         } catch (Exception e) {
             logger.error("Failed to load animation", e);
             throw new RuntimeException("Failed to load animation", e);
         }
     }
 
+    /**
+     * Loads an animation without blocking the JavaFX Application Thread.
+     * <p>
+     * Resource I/O and HTML building run on a background executor (virtual threads where available); only
+     * the final engine call runs on the FX thread. The returned future completes when the page has loaded
+     * (or, in persistent host mode, when the animation has been swapped in). Starting another load cancels
+     * the previous one.
+     * </p>
+     *
+     * @param animationUri the animation resource path or {@code file:} URI
+     * @return a future that completes when the animation is loaded
+     */
+    protected CompletableFuture<Void> loadAnimationAsync(String animationUri) {
+        if (animationUri == null) throw new IllegalArgumentException("Animation URI must not be null");
+        ensureNotDisposed();
+        long generation = supersedePendingLoad();
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        pendingLoad = result;
+
+        LottieAnimationConfig snapshot = new LottieAnimationConfig(config);
+        snapshot.setAnimationJsonResourcePath(animationUri);
+        boolean persistent = snapshot.isPersistentHost();
+        boolean buildHost = persistent && !hostReady;
+        LoadExecutors.shared().execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                AnimationMetadata inspected = inspectAnimation(snapshot, animationUri);
+                long start = System.nanoTime();
+                String content = htmlContentBuilder.loadAnimationJson(snapshot);
+                long read = System.nanoTime();
+                telemetry.recordResourceRead(read - start);
+                if (!persistent) {
+                    content = htmlContentBuilder.buildHtmlContent(snapshot, content);
+                    telemetry.recordTemplateRender(System.nanoTime() - read);
+                }
+                String hostContent = buildHost ? htmlContentBuilder.buildHostContent(snapshot) : null;
+                String loadedContent = content;
+                Platform.runLater(() -> applyAsyncLoad(generation, result, animationUri, inspected, loadedContent, hostContent));
+            } catch (Exception e) {
+                logger.error("Failed to load animation asynchronously", e);
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private void applyAsyncLoad(long generation, CompletableFuture<Void> result, String animationUri,
+                                AnimationMetadata inspected, String content, String hostContent) {
+        if (result.isDone() || generation != loadGeneration.get() || disposed) {
+            result.cancel(false);
+            return;
+        }
+        try {
+            config.setAnimationJsonResourcePath(animationUri);
+            metadata = inspected;
+            telemetry.setAnimationPath(animationUri);
+            if (config.isPersistentHost()) {
+                if (swapAnimation(content, hostContent)) {
+                    result.complete(null);
+                } else {
+                    pageLoadFuture = result;
+                }
+            } else {
+                loadPage(content);
+                pageLoadFuture = result;
+            }
+            onAnimationLoaded();
+        } catch (Exception e) {
+            logger.error("Failed to load animation", e);
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Reads the animation's metadata before it is loaded and warns if the animation is larger than the
+     * configured limit.
+     *
+     * @return the metadata, or {@code null} if it cannot be read; loading then reports the error
+     */
+    private AnimationMetadata inspectAnimation(LottieAnimationConfig loadConfig, String animationUri) {
+        AnimationMetadata inspected = AnimationMetadataIndex.getShared().find(animationUri);
+        long limit = loadConfig.getAnimationSizeWarningBytes();
+        if (inspected != null && limit > 0 && inspected.isOversized(limit)) {
+            logger.warn("Animation {} is larger than {} bytes: {} bytes of JSON, {}", animationUri, limit,
+                    inspected.getSourceBytes(), inspected);
+        }
+        return inspected;
+    }
+
+    /**
+     * Reads the metadata for a synchronous load on a background thread, so the FX thread does not read the
+     * animation file twice. Until it is there, {@link #getAnimationMetadata()} returns {@code null}.
+     */
+    private void inspectInBackground(long generation, String animationUri) {
+        metadata = null;
+        LottieAnimationConfig snapshot = new LottieAnimationConfig(config);
+        LoadExecutors.shared().execute(() -> {
+            AnimationMetadata inspected = inspectAnimation(snapshot, animationUri);
+            Platform.runLater(() -> {
+                if (generation == loadGeneration.get() && !disposed) {
+                    metadata = inspected;
+                }
+            });
+        });
+    }
+
+    /**
+     * Returns the metadata of the current animation, read from its JSON before the page has parsed it, or
+     * {@code null} if it could not be read or is still being read after {@link #loadAnimation(String)}.
+     */
+    public AnimationMetadata getAnimationMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Cancels the pending asynchronous load, if any, and starts a new load generation.
+     *
+     * @return the new load generation
+     */
+    private long supersedePendingLoad() {
+        long generation = loadGeneration.incrementAndGet();
+        CompletableFuture<Void> previous = pendingLoad;
+        if (previous != null && !previous.isDone()) {
+            logger.debug("Cancelling superseded animation load");
+            previous.cancel(false);
+        }
+        pendingLoad = null;
+        return generation;
+    }
+
+    /**
+     * Sends new animation data to the persistent host page, loading the host first if necessary.
+     *
+     * @param hostContent the pre-built host page, or {@code null} to build it on demand
+     * @return {@code true} if the animation was swapped in immediately
+     */
+    private boolean swapAnimation(String animationJson, String hostContent) {
+        pageReleased = false;
+        if (hostReady) {
+            telemetry.markContentLoading();
+            getHost().call("loadJson", animationJson);
+            telemetry.markContentLoaded();
+            notifyTelemetryReady();
+            logger.debug("Animation swapped in persistent host");
+            return true;
+        }
+        pendingAnimationJson = animationJson;
+        if (!hostLoading) {
+            loadPage(hostContent != null ? hostContent : htmlContentBuilder.buildHostContent(config));
+            hostLoading = true;
+        }
+        return false;
+    }
+
+    private void loadPage(String htmlContent) {
+        pageReleased = false;
+        controls.unbind();
+        hostReady = false;
+        hostLoading = false;
+        CompletableFuture<Void> superseded = pageLoadFuture;
+        pageLoadFuture = null;
+        if (superseded != null) {
+            superseded.completeExceptionally(new CancellationException("Superseded by a newer page load"));
+        }
+        telemetry.markContentLoading();
+        webView.getEngine().loadContent(htmlContent);
+    }
+
+    private void onPageFailed() {
+        CompletableFuture<Void> future = pageLoadFuture;
+        pageLoadFuture = null;
+        logger.error("Animation page failed to load", webView.getEngine().getLoadWorker().getException());
+        if (future != null) {
+            Throwable error = webView.getEngine().getLoadWorker().getException();
+            future.completeExceptionally(error != null ? error : new IllegalStateException("Animation page failed to load"));
+        }
+    }
+
+    private void onPageLoaded() {
+        if (pageReleased) {
+            // The blank page that replaced a baked animation
+            return;
+        }
+        if (animationCallback != null) {
+            getWindow().setMember("animationCallback", animationCallback);
+        }
+        if (animationListener != null) {
+            getWindow().setMember("animationListener", animationListener);
+        }
+        if (config.isTelemetryEnabled()) {
+            getWindow().setMember("lvmTelemetry", telemetry);
+        }
+        if (hostLoading) {
+            hostLoading = false;
+            hostReady = true;
+            logger.debug("Persistent animation host loaded");
+            if (pendingAnimationJson != null) {
+                String animationJson = pendingAnimationJson;
+                pendingAnimationJson = null;
+                // The host page itself has loaded; what follows is the animation
+                telemetry.markContentLoading();
+                getHost().call("loadJson", animationJson);
+            }
+        }
+        telemetry.markContentLoaded();
+        controls.bind((JSObject) getWindow().getMember("lvmController"));
+        notifyTelemetryReady();
+        CompletableFuture<Void> future = pageLoadFuture;
+        pageLoadFuture = null;
+        if (future != null) {
+            future.complete(null);
+        }
+        bake.tryStart();
+    }
+
+    /**
+     * Lets the page deliver a {@code DOMLoaded} that was raised before {@code lvmTelemetry} was set.
+     */
+    private void notifyTelemetryReady() {
+        if (config.isTelemetryEnabled()) {
+            controls.call("telemetryReady");
+        }
+    }
+
+    /**
+     * Returns the performance figures of this view: load phase timings, and with
+     * {@link LottieAnimationConfig#setTelemetryEnabled(boolean)} also frame times measured in the page.
+     */
+    public AnimationTelemetry getTelemetry() {
+        return telemetry;
+    }
+
+    private JSObject getWindow() {
+        return (JSObject) webView.getEngine().executeScript("window");
+    }
+
+    private JSObject getHost() {
+        return (JSObject) getWindow().getMember("lvmHost");
+    }
+
+    /**
+     * Releases the page of this view. A pooled {@code WebView} is given back to the {@link WebViewPool}, any
+     * other one unloads its page. Pending loads and control commands are dropped, and the view can no longer
+     * load animations.
+     */
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        supersedePendingLoad();
+        commandScheduler.cancel();
+        telemetry.unregister();
+        closeFileWatch();
+        bake.dispose();
+        if (visibilityWatcher != null) {
+            visibilityWatcher.stop();
+            visibilityWatcher = null;
+        }
+        controls.reset();
+        CompletableFuture<Void> future = pageLoadFuture;
+        pageLoadFuture = null;
+        if (future != null) {
+            future.completeExceptionally(new CancellationException("Animation view disposed"));
+        }
+        webView.getEngine().getLoadWorker().stateProperty().removeListener(loadStateListener);
+        webView.prefWidthProperty().unbind();
+        webView.prefHeightProperty().unbind();
+        getChildren().remove(webView);
+        if (pooled && hostReady) {
+            WebViewPool.getShared().release(config, webView);
+        } else {
+            webView.getEngine().loadContent("");
+        }
+        hostReady = false;
+        hostLoading = false;
+        logger.debug("Animation view disposed");
+    }
+
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    private void ensureNotDisposed() {
+        if (disposed) {
+            throw new IllegalStateException("Animation view has been disposed");
+        }
+    }
+
+    /**
+     * Returns {@code true} while the animation is paused because its view is hidden.
+     */
+    public boolean isPausedWhileHidden() {
+        return pausedWhileHidden;
+    }
+
+    /**
+     * Starts, restarts or stops watching visibility according to the current configuration.
+     */
+    private void configureVisibilityWatcher() {
+        if (visibilityWatcher != null) {
+            visibilityWatcher.stop();
+            visibilityWatcher = null;
+        }
+        if (config.isAutoPauseWhenHidden()) {
+            visibilityWatcher = new VisibilityWatcher(this, config.isPauseWhenUnfocused(), this::onVisibilityChanged);
+            visibilityWatcher.start();
+        } else if (pausedWhileHidden) {
+            onVisibilityChanged(true);
+        }
+    }
+
+    private boolean isHidden() {
+        return visibilityWatcher != null && !visibilityWatcher.isVisible();
+    }
+
+    /**
+     * A new animation starts playing on its own when autoplay is on, so it is paused right away if the view
+     * is hidden.
+     */
+    private void onAnimationLoaded() {
+        playRequested = config.isAutoplay();
+        pausedWhileHidden = false;
+        // Frames of the previous animation are useless now; the new one is shown live until it is baked
+        bake.discard();
+        if (isHidden()) {
+            onVisibilityChanged(false);
+        }
+        appliedConfig = new LottieAnimationConfig(config);
+        updateFileWatch();
+        bake.tryStart();
+    }
+
+    /**
+     * Watches the file of the current animation if it was loaded from a {@code file:} URI and
+     * {@link LottieAnimationConfig#setWatchAnimationFile(boolean)} is on, and stops watching the previous one.
+     */
+    private void updateFileWatch() {
+        closeFileWatch();
+        String animationUri = config.getAnimationJsonResourcePath();
+        if (!config.isWatchAnimationFile() || animationUri == null || !animationUri.startsWith("file:")) {
+            return;
+        }
+        try {
+            Path file = Path.of(URI.create(animationUri));
+            fileWatch = AnimationFileWatcher.getShared().watch(file,
+                    () -> Platform.runLater(() -> onAnimationFileChanged(animationUri)));
+            logger.debug("Watching animation file {}", file);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot watch animation file {}", animationUri, e);
+        }
+    }
+
+    private void closeFileWatch() {
+        if (fileWatch != null) {
+            fileWatch.close();
+            fileWatch = null;
+        }
+    }
+
+    /**
+     * Reloads the watched animation after its file changed. The new data is read off the JavaFX Application
+     * Thread and swapped into the running page, which keeps the frame, speed, direction and play state; the
+     * page itself and the callbacks bound to it stay. Without a live page (baked playback, or a load still in
+     * progress) the animation is loaded again instead.
+     */
+    private void onAnimationFileChanged(String animationUri) {
+        if (disposed || !animationUri.equals(config.getAnimationJsonResourcePath())) {
+            return;
+        }
+        // The cached JSON and metadata may still be those of the previous save
+        ResourceLoader.getCache().invalidate(animationUri);
+        AnimationMetadataIndex.getShared().invalidate(animationUri);
+        CompletableFuture<Void> pending = pendingLoad;
+        if (bake.isBaked() || pageReleased || !controls.isBound() || (pending != null && !pending.isDone())) {
+            loadAnimationAsync(animationUri).whenComplete((ignored, error) -> {
+                if (error != null && !(error instanceof CancellationException)) {
+                    logger.error("Failed to reload animation {}", animationUri, error);
+                }
+            });
+            return;
+        }
+        long generation = loadGeneration.get();
+        LottieAnimationConfig snapshot = new LottieAnimationConfig(config);
+        LoadExecutors.shared().execute(() -> {
+            try {
+                AnimationMetadata inspected = inspectAnimation(snapshot, animationUri);
+                long start = System.nanoTime();
+                String animationJson = htmlContentBuilder.loadAnimationJson(snapshot);
+                telemetry.recordResourceRead(System.nanoTime() - start);
+                Platform.runLater(() -> applyHotReload(generation, animationUri, inspected, animationJson));
+            } catch (Exception e) {
+                logger.error("Failed to reload animation {}", animationUri, e);
+            }
+        });
+    }
+
+    private void applyHotReload(long generation, String animationUri, AnimationMetadata inspected,
+                                String animationJson) {
+        if (disposed || generation != loadGeneration.get() || !controls.isBound()) {
+            // Another animation was loaded meanwhile
+            return;
+        }
+        try {
+            commandScheduler.flush();
+            telemetry.markContentLoading();
+            getHost().call("reloadJson", animationJson);
+            telemetry.markContentLoaded();
+            notifyTelemetryReady();
+            metadata = inspected;
+            logger.info("Reloaded animation {} in place", animationUri);
+        } catch (RuntimeException e) {
+            // E.g. a file saved halfway; the previous animation keeps playing until the next save
+            logger.warn("Could not reload animation {}, keeping the previous version: {}", animationUri, e.getMessage());
+        }
+    }
+
+    private void onVisibilityChanged(boolean visible) {
+        BakedSpritePlayer bakedPlayer = bake.getPlayer();
+        if (!visible) {
+            if (playRequested && !pausedWhileHidden) {
+                pausedWhileHidden = true;
+                hiddenSince = System.nanoTime();
+                if (bakedPlayer != null) {
+                    bakedPlayer.pause();
+                } else {
+                    controls.call("pause");
+                }
+                logger.debug("Animation hidden, paused");
+            }
+        } else if (pausedWhileHidden) {
+            pausedWhileHidden = false;
+            if (bakedPlayer != null) {
+                if (config.isResumeAtWallClock()) {
+                    bakedPlayer.resumeAfter((System.nanoTime() - hiddenSince) / 1_000_000.0);
+                } else {
+                    bakedPlayer.play();
+                }
+            } else if (config.isResumeAtWallClock()) {
+                commandScheduler.flush();
+                controls.call("resumeAfter", (System.nanoTime() - hiddenSince) / 1_000_000.0);
+            } else {
+                controls.call("play");
+            }
+            logger.debug("Animation visible again, resumed");
+        }
+    }
+
+    /**
+     * Applies a new configuration, doing only the work its changes need:
+     * <ul>
+     *     <li>loop, autoplay, container id and telemetry are sent to the running page in one call,</li>
+     *     <li>a renderer or event setting change re-creates the player from the data it already has, keeping
+     *     frame, speed and play state,</li>
+     *     <li>visibility and bake settings are applied in Java,</li>
+     *     <li>only a new animation source (path, optimizer settings) loads the animation again, and only a new
+     *     bodymovin rebuilds the page.</li>
+     * </ul>
+     * Without a live page, i.e. during baked playback, page settings also need a reload. Changes made while the
+     * page is still loading are applied once it has loaded. Pool settings take effect for new views.
+     */
     protected void updateConfig(LottieAnimationConfig newConfig) {
         if (newConfig == null) throw new IllegalArgumentException("New configuration must not be null");
+        ensureNotDisposed();
+        LottieAnimationConfig previous = appliedConfig;
         this.config = newConfig;
-        loadAnimation(this.config.getAnimationJsonResourcePath());
+        if (previous.isAutoPauseWhenHidden() != newConfig.isAutoPauseWhenHidden()
+                || previous.isPauseWhenUnfocused() != newConfig.isPauseWhenUnfocused()) {
+            configureVisibilityWatcher();
+        }
+        if (previous.isTelemetryEnabled() != newConfig.isTelemetryEnabled()) {
+            updateTelemetryRegistration();
+        }
+        if (previous.isPersistentHost() != newConfig.isPersistentHost()) {
+            // Every page is built from the host template, so a loaded page can take swapped animations as is
+            hostReady = newConfig.isPersistentHost() && controls.isBound() && !pageReleased;
+        }
+
+        Map<String, Object> pageSettings = changedPageSettings(previous, newConfig);
+        boolean sourceChanged = !Objects.equals(previous.getAnimationJsonResourcePath(), newConfig.getAnimationJsonResourcePath())
+                || previous.isOptimizeAnimationJson() != newConfig.isOptimizeAnimationJson()
+                || previous.getAnimationJsonPrecision() != newConfig.getAnimationJsonPrecision();
+        boolean bakeChanged = previous.isBakedPlayback() != newConfig.isBakedPlayback()
+                || previous.getBakeMemoryBudget() != newConfig.getBakeMemoryBudget()
+                || previous.getBakeFrameStep() != newConfig.getBakeFrameStep();
+        boolean pageGone = bake.isBaked() || pageReleased;
+        bake.setEnabled(newConfig.isBakedPlayback());
+
+        if (!Objects.equals(previous.getBodymovinJsResourcePath(), newConfig.getBodymovinJsResourcePath())
+                || (pageGone && (bakeChanged || !pageSettings.isEmpty()))) {
+            logger.debug("Configuration change needs a new page");
+            hostReady = false;
+            hostLoading = false;
+            loadAnimation(newConfig.getAnimationJsonResourcePath());
+            return;
+        }
+        if (!pageSettings.isEmpty() && !(sourceChanged && !newConfig.isPersistentHost())) {
+            // A new player is created by the load anyway when the source changes
+            boolean recreate = !sourceChanged && (pageSettings.containsKey("renderer")
+                    || pageSettings.containsKey("subscribedEvents") || pageSettings.containsKey("enterFrameMaxRate")
+                    || pageSettings.containsKey("enterFrameChangeOnly"));
+            controls.call("configure", GSON.toJson(pageSettings), recreate);
+            logger.debug("Applied {} to the page{}", pageSettings.keySet(), recreate ? ", player re-created" : "");
+        }
+        if (sourceChanged) {
+            loadAnimation(newConfig.getAnimationJsonResourcePath());
+            return;
+        }
+        if (bakeChanged) {
+            bake.onSettingsChanged();
+        }
+        appliedConfig = new LottieAnimationConfig(newConfig);
+    }
+
+    /**
+     * Returns the settings baked into the page that differ between two configurations, under the names the
+     * page's {@code configure} expects.
+     */
+    private static Map<String, Object> changedPageSettings(LottieAnimationConfig previous, LottieAnimationConfig current) {
+        Map<String, Object> changed = new LinkedHashMap<>();
+        if (!Objects.equals(previous.getRenderer(), current.getRenderer())) {
+            changed.put("renderer", current.getRenderer());
+        }
+        if (previous.isLoop() != current.isLoop()) {
+            changed.put("loop", current.isLoop());
+        }
+        if (previous.isAutoplay() != current.isAutoplay()) {
+            changed.put("autoplay", current.isAutoplay());
+        }
+        if (!Objects.equals(previous.getContainerId(), current.getContainerId())) {
+            changed.put("containerId", current.getContainerId());
+        }
+        if (!previous.getSubscribedEvents().equals(current.getSubscribedEvents())) {
+            changed.put("subscribedEvents", current.getSubscribedEvents());
+        }
+        if (previous.getEnterFrameMaxRate() != current.getEnterFrameMaxRate()) {
+            changed.put("enterFrameMaxRate", current.getEnterFrameMaxRate());
+        }
+        if (previous.isEnterFrameChangeOnly() != current.isEnterFrameChangeOnly()) {
+            changed.put("enterFrameChangeOnly", current.isEnterFrameChangeOnly());
+        }
+        if (previous.isTelemetryEnabled() != current.isTelemetryEnabled()) {
+            changed.put("telemetry", current.isTelemetryEnabled());
+        }
+        return changed;
+    }
+
+    /**
+     * Registers or unregisters the telemetry after it was switched on or off, and hands it to a loaded page.
+     */
+    private void updateTelemetryRegistration() {
+        if (config.isTelemetryEnabled()) {
+            telemetry.register();
+            if (controls.isBound()) {
+                getWindow().setMember("lvmTelemetry", telemetry);
+            }
+        } else {
+            telemetry.unregister();
+        }
     }
 
     protected void setAnimationCallback(AnimationCallback callback) {
         if (callback == null) throw new IllegalArgumentException("AnimationCallback must not be null");
-        webView.getEngine().getLoadWorker().stateProperty().addListener((obs, oldState, newState) -> {
-            if (newState == Worker.State.SUCCEEDED) {
-                JSObject window = (JSObject) webView.getEngine().executeScript("window");
-                window.setMember("animationCallback", callback);
-            }
-        });
+        this.animationCallback = callback;
+        bake.setAnimationCallback(callback);
+        if (!pageReleased && webView.getEngine().getLoadWorker().getState() == Worker.State.SUCCEEDED) {
+            getWindow().setMember("animationCallback", callback);
+        }
+    }
+
+    protected void setAnimationListener(AnimationListener listener) {
+        if (listener == null) throw new IllegalArgumentException("AnimationListener must not be null");
+        this.animationListener = listener;
+        bake.setAnimationListener(listener);
+        if (!pageReleased && webView.getEngine().getLoadWorker().getState() == Worker.State.SUCCEEDED) {
+            getWindow().setMember("animationListener", listener);
+        }
     }
 
     public SoundPlayer getSoundPlayer() {
@@ -66,9 +736,16 @@ public class AnimationWebView extends Region {
 
     protected void playAnimation() {
         try {
-            webView.getEngine().executeScript(
-                    "if (typeof lottieAnimation !== 'undefined') { lottieAnimation.play(); }"
-            );
+            commandScheduler.flush();
+            playRequested = true;
+            if (isHidden()) {
+                // Started on the next show instead
+                onVisibilityChanged(false);
+            } else if (bake.isBaked()) {
+                bake.getPlayer().play();
+            } else {
+                controls.call("play");
+            }
             logger.debug("playAnimation executed");
         } catch (Exception e) {
             logger.error("Failed to play animation", e);
@@ -77,9 +754,14 @@ public class AnimationWebView extends Region {
 
     protected void pauseAnimation() {
         try {
-            webView.getEngine().executeScript(
-                    "if (typeof lottieAnimation !== 'undefined') { lottieAnimation.pause(); }"
-            );
+            commandScheduler.flush();
+            playRequested = false;
+            pausedWhileHidden = false;
+            if (bake.isBaked()) {
+                bake.getPlayer().pause();
+            } else {
+                controls.call("pause");
+            }
             logger.debug("pauseAnimation executed");
         } catch (Exception e) {
             logger.error("Failed to pause animation", e);
@@ -88,9 +770,14 @@ public class AnimationWebView extends Region {
 
     protected void stopAnimation() {
         try {
-            webView.getEngine().executeScript(
-                    "if (typeof lottieAnimation !== 'undefined') { lottieAnimation.stop(); }"
-            );
+            commandScheduler.flush();
+            playRequested = false;
+            pausedWhileHidden = false;
+            if (bake.isBaked()) {
+                bake.getPlayer().stop();
+            } else {
+                controls.call("stop");
+            }
             logger.debug("stopAnimation executed");
         } catch (Exception e) {
             logger.error("Failed to stop animation", e);
@@ -99,10 +786,11 @@ public class AnimationWebView extends Region {
 
     protected void setAnimationSpeed(float speed) {
         try {
-            webView.getEngine().executeScript(
-                    "if (typeof lottieAnimation !== 'undefined') { lottieAnimation.setSpeed(" + speed + "); }"
-            );
-            logger.debug("setAnimationSpeed executed with speed: {}", speed);
+            bake.setSpeed(speed);
+            if (!bake.isBaked()) {
+                commandScheduler.setSpeed(speed);
+            }
+            logger.debug("setAnimationSpeed scheduled with speed: {}", speed);
         } catch (Exception e) {
             logger.error("Failed to set animation speed", e);
         }
@@ -117,18 +805,139 @@ public class AnimationWebView extends Region {
         if (progress < 0) progress = 0;
         if (progress > 1) progress = 1;
         try {
-            webView.getEngine().executeScript(
-                    "if (typeof lottieAnimation !== 'undefined' && lottieAnimation.totalFrames) {" +
-                            "    var frame = Math.floor(lottieAnimation.totalFrames * " + progress + ");" +
-                            "    lottieAnimation.goToAndStop(frame, true);" +
-                            "}"
-            );
-            logger.debug("setAnimationProgress executed with progress: {}", progress);
+            AnimationMetadata current = metadata;
+            if (bake.isBaked()) {
+                bake.getPlayer().setProgress(progress);
+            } else if (current != null) {
+                // The frame is known in Java, so the page does not have to look up totalFrames
+                commandScheduler.goToFrame(current.frameAtProgress(progress));
+            } else {
+                commandScheduler.setProgress(progress);
+            }
+            logger.debug("setAnimationProgress scheduled with progress: {}", progress);
         } catch (Exception e) {
             logger.error("Failed to set animation progress", e);
         }
     }
 
+    /**
+     * Moves the playhead to the given frame and stops there. Like progress changes, seeks are coalesced and
+     * applied once per pulse.
+     * @param frame the frame to show, relative to the first frame of the animation
+     */
+    public void seekToFrame(double frame) {
+        if (frame < 0) frame = 0;
+        try {
+            if (bake.isBaked()) {
+                bake.getPlayer().goToFrame(frame);
+            } else {
+                commandScheduler.goToFrame(frame);
+            }
+            logger.debug("seekToFrame scheduled with frame: {}", frame);
+        } catch (Exception e) {
+            logger.error("Failed to seek animation", e);
+        }
+    }
+
+    /**
+     * Switches the view to baked playback: the current animation is rendered frame by frame into images at
+     * the view's size and render scale, the page is then unloaded and the images are played back from an
+     * {@code ImageView}. Later animations are baked as well, and resizing the view bakes the frames again.
+     *
+     * @return a future that completes when the frames are baked and playing back
+     */
+    protected CompletableFuture<Void> bakeFrames() {
+        ensureNotDisposed();
+        return bake.bake();
+    }
+
+    /**
+     * Returns {@code true} while the animation is played back from baked frames.
+     */
+    public boolean isBaked() {
+        return bake.isBaked();
+    }
+
+    /**
+     * Returns the number of baked images, or {@code 0} if the animation is not baked.
+     */
+    public int getBakedFrameCount() {
+        return bake.getFrameCount();
+    }
+
+    /**
+     * Returns the memory held by the baked images in bytes, or {@code 0} if the animation is not baked.
+     */
+    public long getBakedByteSize() {
+        return bake.getByteSize();
+    }
+
+    /**
+     * Gives baking access to the page and the play state of this view.
+     */
+    private final class BakeHost implements BakeController.Host {
+
+        @Override
+        public LottieAnimationConfig getConfig() {
+            return config;
+        }
+
+        @Override
+        public List<Node> getChildren() {
+            return AnimationWebView.this.getChildren();
+        }
+
+        @Override
+        public boolean isPageReleased() {
+            return pageReleased;
+        }
+
+        /**
+         * Unloads the animation after baking. A persistent host keeps bodymovin loaded so that a re-bake only
+         * swaps the animation in again; any other page is replaced by a blank one.
+         */
+        @Override
+        public void releasePage() {
+            pageReleased = true;
+            if (config.isPersistentHost() && hostReady) {
+                getHost().call("unload");
+            } else {
+                controls.unbind();
+                hostReady = false;
+                hostLoading = false;
+                webView.getEngine().loadContent("");
+            }
+        }
+
+        @Override
+        public void reloadPage() throws Exception {
+            if (config.isPersistentHost()) {
+                swapAnimation(htmlContentBuilder.loadAnimationJson(config), null);
+            } else {
+                loadPage(htmlContentBuilder.buildHtmlContent(config));
+            }
+        }
+
+        @Override
+        public boolean isPlayRequested() {
+            return playRequested && !pausedWhileHidden;
+        }
+    }
+
+    /**
+     * Returns how many progress, seek and speed commands were replaced by a newer one before being applied.
+     */
+    public long getCoalescedCommandCount() {
+        return commandScheduler.getCoalescedCount();
+    }
+
+    /**
+     * Returns how many progress, seek and speed commands were actually sent to the page.
+     */
+    public long getAppliedCommandCount() {
+        return commandScheduler.getFlushedCount();
+    }
+
     public WebView getWebView() {
         return webView;
     }
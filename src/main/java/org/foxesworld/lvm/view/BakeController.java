@@ -0,0 +1,336 @@
+package org.foxesworld.lvm.view;
+
+import com.google.gson.Gson;
+import javafx.animation.PauseTransition;
+import javafx.scene.Node;
+import javafx.scene.layout.Region;
+import javafx.scene.web.WebView;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import org.foxesworld.lvm.config.LottieAnimationConfig;
+import org.foxesworld.lvm.event.AnimationCallback;
+import org.foxesworld.lvm.event.AnimationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Baked playback of an {@link AnimationWebView}: renders the animation of the page into images with a
+ * {@link FrameBaker} once the page, the animation and the layout are ready, then shows them with a
+ * {@link BakedSpritePlayer} in place of the {@code WebView}. A resize bakes the frames again at the new size.
+ */
+final class BakeController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BakeController.class);
+    private static final Gson GSON = new Gson();
+    /**
+     * Resizes are debounced so that a window drag bakes once at the final size.
+     */
+    private static final Duration REBAKE_DELAY = Duration.millis(250);
+
+    /**
+     * The parts of the view that baking depends on besides its page.
+     */
+    interface Host {
+
+        LottieAnimationConfig getConfig();
+
+        /**
+         * Returns the children of the view, where the images replace the {@code WebView}.
+         */
+        List<Node> getChildren();
+
+        /**
+         * Returns {@code true} while the animation is unloaded from the page after baking.
+         */
+        boolean isPageReleased();
+
+        /**
+         * Unloads the animation from the page once its frames are baked.
+         */
+        void releasePage();
+
+        /**
+         * Loads the animation into the released page again, so that it can be baked anew.
+         */
+        void reloadPage() throws Exception;
+
+        /**
+         * Returns {@code true} if the animation is to play: it was started and is not paused while hidden.
+         */
+        boolean isPlayRequested();
+    }
+
+    private final Region view;
+    private final WebView webView;
+    private final JsControlHandle controls;
+    private final ControlCommandScheduler commandScheduler;
+    private final Host host;
+    private final PauseTransition rebakeDelay = new PauseTransition(REBAKE_DELAY);
+    private boolean enabled;
+    private boolean disposed;
+    private FrameBaker frameBaker;
+    private BakedSpritePlayer player;
+    private CompletableFuture<Void> result;
+    private AnimationCallback animationCallback;
+    private AnimationListener animationListener;
+    private double speed = 1;
+
+    BakeController(Region view, WebView webView, JsControlHandle controls, ControlCommandScheduler commandScheduler,
+                   Host host) {
+        this.view = view;
+        this.webView = webView;
+        this.controls = controls;
+        this.commandScheduler = commandScheduler;
+        this.host = host;
+        this.enabled = host.getConfig().isBakedPlayback();
+        rebakeDelay.setOnFinished(e -> rebake());
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Enables baking and starts it if possible.
+     *
+     * @return a future that completes when the frames are baked and playing back
+     */
+    CompletableFuture<Void> bake() {
+        enabled = true;
+        if (result == null) {
+            result = new CompletableFuture<>();
+        }
+        CompletableFuture<Void> pending = result;
+        tryStart();
+        return pending;
+    }
+
+    /**
+     * Returns the player of the baked frames, or {@code null} while the animation plays live in the page.
+     */
+    BakedSpritePlayer getPlayer() {
+        return player;
+    }
+
+    boolean isBaked() {
+        return player != null;
+    }
+
+    int getFrameCount() {
+        return player != null ? player.getFrames().getImageCount() : 0;
+    }
+
+    long getByteSize() {
+        return player != null ? player.getFrames().getByteSize() : 0;
+    }
+
+    void setAnimationCallback(AnimationCallback animationCallback) {
+        this.animationCallback = animationCallback;
+        if (player != null) {
+            player.setAnimationCallback(animationCallback);
+        }
+    }
+
+    void setAnimationListener(AnimationListener animationListener) {
+        this.animationListener = animationListener;
+        if (player != null) {
+            player.setAnimationListener(animationListener);
+        }
+    }
+
+    void setSpeed(double speed) {
+        this.speed = speed;
+        if (player != null) {
+            player.setSpeed(speed);
+        }
+    }
+
+    /**
+     * Starts baking after it was enabled or its settings changed, or stops a bake in progress after it was
+     * disabled.
+     */
+    void onSettingsChanged() {
+        if (enabled) {
+            tryStart();
+        } else {
+            cancel();
+        }
+    }
+
+    /**
+     * Starts baking if it is enabled and the page, the animation and the layout are ready for it.
+     */
+    void tryStart() {
+        if (!enabled || disposed || frameBaker != null || host.isPageReleased() || !controls.isBound()) {
+            return;
+        }
+        double width = view.getWidth();
+        double height = view.getHeight();
+        if (width <= 0 || height <= 0 || view.getScene() == null) {
+            return;
+        }
+        double renderScale = getRenderScale();
+        if (player != null && player.getFrames().matches(width, height, renderScale)) {
+            complete(null);
+            return;
+        }
+        Object info = controls.call("frameInfo");
+        if (!(info instanceof String)) {
+            return;
+        }
+        FrameInfo frameInfo = GSON.fromJson((String) info, FrameInfo.class);
+        if (frameInfo.totalFrames <= 0) {
+            return;
+        }
+        commandScheduler.flush();
+        controls.call("pause");
+        List<Node> children = host.getChildren();
+        if (!children.contains(webView)) {
+            // WebKit only paints views that are in the scene; the old frames stay on top while it bakes
+            children.add(0, webView);
+        }
+        LottieAnimationConfig config = host.getConfig();
+        FrameBaker baker = new FrameBaker(webView, controls, frameInfo.totalFrames, frameInfo.frameRate,
+                config.getBakeFrameStep(), config.getBakeMemoryBudget(), width, height, renderScale);
+        frameBaker = baker;
+        baker.start().whenComplete((frames, error) -> {
+            if (frameBaker != baker) {
+                return;
+            }
+            frameBaker = null;
+            if (error != null) {
+                logger.error("Failed to bake animation frames", error);
+                complete(error);
+            } else {
+                onFramesBaked(frames, frameInfo);
+            }
+        });
+        logger.debug("Baking {} frames at {}x{} (scale {})", frameInfo.totalFrames, width, height, renderScale);
+    }
+
+    /**
+     * Drops the frames of the previous animation and any bake in progress; the view shows the page again.
+     */
+    void discard() {
+        cancel();
+        if (player == null) {
+            return;
+        }
+        player.dispose();
+        host.getChildren().remove(player.getImageView());
+        player = null;
+        if (!disposed && !host.getChildren().contains(webView)) {
+            host.getChildren().add(0, webView);
+        }
+    }
+
+    void onSizeChanged() {
+        if (player != null) {
+            player.resize(view.getWidth(), view.getHeight());
+        }
+        if (enabled && !disposed) {
+            rebakeDelay.playFromStart();
+        }
+    }
+
+    void dispose() {
+        disposed = true;
+        rebakeDelay.stop();
+        discard();
+        if (result != null) {
+            result.completeExceptionally(new CancellationException("Animation view disposed"));
+            result = null;
+        }
+    }
+
+    private void onFramesBaked(BakedFrames frames, FrameInfo frameInfo) {
+        boolean firstBake = player == null;
+        if (firstBake) {
+            player = new BakedSpritePlayer(host.getConfig());
+            if (animationCallback != null) {
+                player.setAnimationCallback(animationCallback);
+            }
+            if (animationListener != null) {
+                player.setAnimationListener(animationListener);
+            }
+            host.getChildren().add(player.getImageView());
+        }
+        player.setFrames(frames);
+        player.setSpeed(speed);
+        player.resize(view.getWidth(), view.getHeight());
+        if (firstBake) {
+            player.setDirection(frameInfo.direction);
+            player.setCurrentFrame(frameInfo.currentFrame);
+        }
+        host.getChildren().remove(webView);
+        host.releasePage();
+        if (host.isPlayRequested()) {
+            player.play();
+        }
+        logger.debug("Animation baked, page released");
+        complete(null);
+    }
+
+    private void complete(Throwable error) {
+        CompletableFuture<Void> pending = result;
+        result = null;
+        if (pending != null) {
+            if (error != null) {
+                pending.completeExceptionally(error);
+            } else {
+                pending.complete(null);
+            }
+        }
+    }
+
+    private void cancel() {
+        FrameBaker baker = frameBaker;
+        frameBaker = null;
+        if (baker != null) {
+            baker.cancel();
+        }
+    }
+
+    /**
+     * Bakes again at the current size, reloading the animation into the page first if it was released.
+     */
+    private void rebake() {
+        if (disposed || (player != null && frameBaker == null
+                && player.getFrames().matches(view.getWidth(), view.getHeight(), getRenderScale()))) {
+            return;
+        }
+        cancel();
+        if (host.isPageReleased()) {
+            try {
+                host.reloadPage();
+            } catch (Exception e) {
+                logger.error("Failed to reload animation for baking", e);
+                return;
+            }
+        }
+        tryStart();
+    }
+
+    private double getRenderScale() {
+        Window window = view.getScene() != null ? view.getScene().getWindow() : null;
+        return window != null ? window.getRenderScaleX() : 1.0;
+    }
+
+    /**
+     * The page's {@code lvmController.frameInfo()} result.
+     */
+    private static final class FrameInfo {
+        private double totalFrames;
+        private double frameRate;
+        private double currentFrame;
+        private int direction = 1;
+    }
+}
@@ -0,0 +1,88 @@
+package org.foxesworld.lvm.view;
+
+import javafx.scene.image.Image;
+
+/**
+ * Pre-rendered frames of one animation at one size and render scale.
+ */
+final class BakedFrames {
+
+    private final Image[] images;
+    private final int frameStep;
+    private final double totalFrames;
+    private final double frameRate;
+    private final double width;
+    private final double height;
+    private final double renderScale;
+
+    /**
+     * @param images      frame {@code i * frameStep} at index {@code i}
+     * @param width       size in layout units the frames were baked for
+     * @param renderScale output scale the frames were baked at; images are {@code width * renderScale} pixels wide
+     */
+    BakedFrames(Image[] images, int frameStep, double totalFrames, double frameRate,
+                double width, double height, double renderScale) {
+        this.images = images;
+        this.frameStep = frameStep;
+        this.totalFrames = totalFrames;
+        this.frameRate = frameRate;
+        this.width = width;
+        this.height = height;
+        this.renderScale = renderScale;
+    }
+
+    /**
+     * Returns the image that shows the given frame, i.e. the closest baked frame at or before it.
+     */
+    Image imageAt(double frame) {
+        int index = (int) (frame / frameStep);
+        return images[Math.max(0, Math.min(images.length - 1, index))];
+    }
+
+    int getImageCount() {
+        return images.length;
+    }
+
+    int getFrameStep() {
+        return frameStep;
+    }
+
+    double getTotalFrames() {
+        return totalFrames;
+    }
+
+    double getFrameRate() {
+        return frameRate;
+    }
+
+    double getWidth() {
+        return width;
+    }
+
+    double getHeight() {
+        return height;
+    }
+
+    double getRenderScale() {
+        return renderScale;
+    }
+
+    /**
+     * Returns the memory held by the images, at four bytes per pixel.
+     */
+    long getByteSize() {
+        long bytes = 0;
+        for (Image image : images) {
+            bytes += 4L * (long) image.getWidth() * (long) image.getHeight();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns whether the frames were baked for the given size and scale, ignoring sub-pixel differences.
+     */
+    boolean matches(double width, double height, double renderScale) {
+        return Math.abs(this.width - width) < 0.5 && Math.abs(this.height - height) < 0.5
+                && this.renderScale == renderScale;
+    }
+}
@@ -0,0 +1,203 @@
+package org.foxesworld.lvm.view;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.image.ImageView;
+import org.foxesworld.lvm.config.LottieAnimationConfig;
+import org.foxesworld.lvm.event.AnimationCallback;
+import org.foxesworld.lvm.event.AnimationListener;
+
+/**
+ * Plays {@link BakedFrames} in an {@link ImageView}: each pulse only swaps the image when the frame changes.
+ * <p>
+ * Follows lottie-web's playback rules for loop, speed and seeking, and raises {@code enterFrame},
+ * {@code loopComplete} and {@code complete} for the subscribed events, so a baked animation is driven like
+ * a live one.
+ * </p>
+ */
+final class BakedSpritePlayer {
+
+    private final ImageView imageView = new ImageView();
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            tick(now);
+        }
+    };
+    private final LottieAnimationConfig config;
+    private final PlaybackClock clock;
+    private final EnterFrameThrottle enterFrameThrottle;
+    private BakedFrames frames;
+    private AnimationCallback animationCallback;
+    private AnimationListener animationListener;
+    private boolean playing;
+
+    BakedSpritePlayer(LottieAnimationConfig config) {
+        this.config = config;
+        this.clock = new PlaybackClock(config::isLoop);
+        this.enterFrameThrottle = new EnterFrameThrottle(config);
+        imageView.setSmooth(true);
+        imageView.setPreserveRatio(false);
+    }
+
+    ImageView getImageView() {
+        return imageView;
+    }
+
+    BakedFrames getFrames() {
+        return frames;
+    }
+
+    /**
+     * Replaces the frames, e.g. after a re-bake, keeping the playhead.
+     */
+    void setFrames(BakedFrames frames) {
+        this.frames = frames;
+        clock.setTiming(frames.getTotalFrames(), frames.getFrameRate());
+        imageView.setImage(frames.imageAt(clock.getCurrentFrame()));
+    }
+
+    void setAnimationCallback(AnimationCallback animationCallback) {
+        this.animationCallback = animationCallback;
+    }
+
+    void setAnimationListener(AnimationListener animationListener) {
+        this.animationListener = animationListener;
+    }
+
+    /**
+     * Sets the size in layout units the images are stretched to.
+     */
+    void resize(double width, double height) {
+        imageView.setFitWidth(width);
+        imageView.setFitHeight(height);
+    }
+
+    void play() {
+        clock.rewindIfComplete();
+        playing = true;
+        clock.restart();
+        timer.start();
+    }
+
+    void pause() {
+        playing = false;
+        timer.stop();
+    }
+
+    void stop() {
+        pause();
+        show(clock.getStartFrame());
+    }
+
+    boolean isPlaying() {
+        return playing;
+    }
+
+    void setSpeed(double speed) {
+        clock.setSpeed(speed);
+    }
+
+    /**
+     * Sets the playing direction the page had, {@code 1} forward or {@code -1} backward.
+     */
+    void setDirection(int direction) {
+        clock.setDirection(direction);
+    }
+
+    void setProgress(float progress) {
+        goToFrame(Math.floor(frames.getTotalFrames() * progress));
+    }
+
+    void goToFrame(double frame) {
+        pause();
+        clock.setCurrentFrame(frame);
+        show(clock.getCurrentFrame());
+    }
+
+    void setCurrentFrame(double frame) {
+        clock.setCurrentFrame(frame);
+        imageView.setImage(frames.imageAt(clock.getCurrentFrame()));
+    }
+
+    double getCurrentFrame() {
+        return clock.getCurrentFrame();
+    }
+
+    /**
+     * Resumes at the frame the animation would have reached had it kept playing for the given time.
+     */
+    void resumeAfter(double elapsedMs) {
+        if (clock.skip(elapsedMs / 1000)) {
+            play();
+        } else {
+            show(clock.getCurrentFrame());
+        }
+    }
+
+    void dispose() {
+        pause();
+        imageView.setImage(null);
+        frames = null;
+    }
+
+    private void tick(long now) {
+        switch (clock.advance(now)) {
+            case FRAME:
+                show(clock.getCurrentFrame());
+                break;
+            case LOOP_COMPLETE:
+                fireLoopComplete();
+                show(clock.getCurrentFrame());
+                break;
+            case COMPLETE:
+                show(clock.getCurrentFrame());
+                pause();
+                fireComplete();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void show(double frame) {
+        clock.setCurrentFrame(frame);
+        // Only the image reference changes, and only when the frame does
+        if (imageView.getImage() != frames.imageAt(frame)) {
+            imageView.setImage(frames.imageAt(frame));
+        }
+        if (config.getSubscribedEvents().contains("enterFrame") && enterFrameThrottle.shouldDeliver(frame)) {
+            if (animationListener != null) {
+                animationListener.onEnterFrame(frame, frames.getTotalFrames(), clock.getDirection());
+            }
+            if (animationCallback != null) {
+                animationCallback.onEvent("enterFrame", "{\"type\":\"enterFrame\",\"currentTime\":" + frame
+                        + ",\"totalTime\":" + frames.getTotalFrames() + ",\"direction\":" + clock.getDirection() + '}');
+            }
+        }
+    }
+
+    private void fireLoopComplete() {
+        if (!config.getSubscribedEvents().contains("loopComplete")) {
+            return;
+        }
+        if (animationListener != null) {
+            animationListener.onLoopComplete(clock.getCurrentLoop(), clock.getDirection());
+        }
+        if (animationCallback != null) {
+            animationCallback.onEvent("loopComplete", "{\"type\":\"loopComplete\",\"currentLoop\":"
+                    + clock.getCurrentLoop() + ",\"direction\":" + clock.getDirection() + '}');
+        }
+    }
+
+    private void fireComplete() {
+        if (!config.getSubscribedEvents().contains("complete")) {
+            return;
+        }
+        if (animationListener != null) {
+            animationListener.onComplete(clock.getDirection());
+        }
+        if (animationCallback != null) {
+            animationCallback.onEvent("complete", "{\"type\":\"complete\",\"direction\":" + clock.getDirection() + '}');
+        }
+    }
+}
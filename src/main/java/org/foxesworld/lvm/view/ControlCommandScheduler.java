@@ -0,0 +1,116 @@
+package org.foxesworld.lvm.view;
+
+import javafx.animation.AnimationTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces rapid position and speed changes and applies them at most once per JavaFX pulse.
+ * <p>
+ * Every command kind keeps only its latest value (last write wins), so dragging a slider over hundreds of
+ * values costs one {@code goToAndStop} render per frame instead of one per value. Progress and frame
+ * seeks share a slot, because both set the playhead. The timer only runs while commands are pending.
+ * </p>
+ * Must only be used on the JavaFX Application Thread.
+ */
+final class ControlCommandScheduler extends AnimationTimer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ControlCommandScheduler.class);
+
+    private final JsControlHandle controls;
+    private boolean speedPending;
+    private double speed;
+    private String positionMethod;
+    private double position;
+    private boolean running;
+    private long coalescedCount;
+    private long flushedCount;
+
+    ControlCommandScheduler(JsControlHandle controls) {
+        this.controls = controls;
+    }
+
+    void setSpeed(double speed) {
+        if (speedPending) {
+            coalescedCount++;
+        }
+        this.speed = speed;
+        speedPending = true;
+        schedule();
+    }
+
+    void setProgress(double progress) {
+        setPosition("setProgress", progress);
+    }
+
+    void goToFrame(double frame) {
+        setPosition("goToFrame", frame);
+    }
+
+    private void setPosition(String method, double value) {
+        if (positionMethod != null) {
+            coalescedCount++;
+        }
+        positionMethod = method;
+        position = value;
+        schedule();
+    }
+
+    private void schedule() {
+        if (!running) {
+            running = true;
+            start();
+        }
+    }
+
+    @Override
+    public void handle(long now) {
+        flush();
+    }
+
+    /**
+     * Applies all pending commands immediately, e.g. before a command that must keep its order
+     * relative to them.
+     */
+    void flush() {
+        if (running) {
+            running = false;
+            stop();
+        }
+        try {
+            if (speedPending) {
+                speedPending = false;
+                controls.call("setSpeed", speed);
+                flushedCount++;
+            }
+            if (positionMethod != null) {
+                String method = positionMethod;
+                positionMethod = null;
+                controls.call(method, position);
+                flushedCount++;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to apply animation control command", e);
+        }
+    }
+
+    /**
+     * Drops all pending commands without applying them.
+     */
+    void cancel() {
+        if (running) {
+            running = false;
+            stop();
+        }
+        speedPending = false;
+        positionMethod = null;
+    }
+
+    long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    long getFlushedCount() {
+        return flushedCount;
+    }
+}
@@ -0,0 +1,48 @@
+package org.foxesworld.lvm.view;
+
+import org.foxesworld.lvm.config.LottieAnimationConfig;
+
+/**
+ * Applies the {@code enterFrame} limits of a {@link LottieAnimationConfig} to animations played back in Java,
+ * like the page does for live ones: only whole frame changes with
+ * {@link LottieAnimationConfig#isEnterFrameChangeOnly()}, and at most
+ * {@link LottieAnimationConfig#getEnterFrameMaxRate()} events per second.
+ */
+public final class EnterFrameThrottle {
+
+    private final LottieAnimationConfig config;
+    private long lastFrame = -1;
+    private long lastTime;
+
+    public EnterFrameThrottle(LottieAnimationConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Returns {@code true} if an {@code enterFrame} for the given frame is to be delivered now.
+     */
+    public boolean shouldDeliver(double frame) {
+        if (config.isEnterFrameChangeOnly()) {
+            long wholeFrame = (long) Math.floor(frame);
+            if (wholeFrame == lastFrame) {
+                return false;
+            }
+            lastFrame = wholeFrame;
+        }
+        if (config.getEnterFrameMaxRate() > 0) {
+            long now = System.nanoTime();
+            if (lastTime != 0 && now - lastTime < 1_000_000_000.0 / config.getEnterFrameMaxRate()) {
+                return false;
+            }
+            lastTime = now;
+        }
+        return true;
+    }
+
+    /**
+     * Forgets the last delivered frame, e.g. for a new animation that starts on the same frame.
+     */
+    public void reset() {
+        lastFrame = -1;
+    }
+}
@@ -0,0 +1,147 @@
+package org.foxesworld.lvm.view;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Transform;
+import javafx.scene.web.WebView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Rasterizes every frame of the animation in a {@link WebView} into images.
+ * <p>
+ * The page is moved to each frame with {@code goToFrame} and the view is snapshotted at the window's render
+ * scale on the following pulses. WebKit may paint a frame a few pulses late, so a snapshot that still equals
+ * the previous frame is retaken until it changes or {@link #MAX_SETTLE_PULSES} have passed. The frame step
+ * is raised until the images fit into the memory budget.
+ * </p>
+ */
+final class FrameBaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrameBaker.class);
+    /**
+     * Pulses to wait for a frame that looks like the previous one; frames that really are identical cost
+     * this many pulses.
+     */
+    private static final int MAX_SETTLE_PULSES = 4;
+
+    private final WebView webView;
+    private final JsControlHandle controls;
+    private final double totalFrames;
+    private final double frameRate;
+    private final int frameStep;
+    private final double width;
+    private final double height;
+    private final double renderScale;
+    private final Image[] images;
+    private final CompletableFuture<BakedFrames> result = new CompletableFuture<>();
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            step();
+        }
+    };
+    private int nextIndex;
+    private int settlePulses;
+    private boolean awaitingPaint;
+    private int[] previousPixels;
+    private long startedAt;
+
+    /**
+     * @param requestedStep bake every n-th frame at least
+     * @param memoryBudget  maximum size of all images in bytes
+     */
+    FrameBaker(WebView webView, JsControlHandle controls, double totalFrames, double frameRate,
+               int requestedStep, long memoryBudget, double width, double height, double renderScale) {
+        this.webView = webView;
+        this.controls = controls;
+        this.totalFrames = totalFrames;
+        this.frameRate = frameRate;
+        this.width = width;
+        this.height = height;
+        this.renderScale = renderScale;
+        long frameBytes = 4L * (long) Math.ceil(width * renderScale) * (long) Math.ceil(height * renderScale);
+        int frameCount = Math.max(1, (int) Math.ceil(totalFrames));
+        long budgetFrames = Math.max(1, memoryBudget / Math.max(1, frameBytes));
+        int step = Math.max(1, requestedStep);
+        if (frameCount / step > budgetFrames) {
+            step = (int) Math.ceil(frameCount / (double) budgetFrames);
+            logger.debug("Frame step raised from {} to {} to fit {} bytes", requestedStep, step, memoryBudget);
+        }
+        this.frameStep = step;
+        this.images = new Image[(frameCount + step - 1) / step];
+    }
+
+    CompletableFuture<BakedFrames> start() {
+        startedAt = System.nanoTime();
+        nextIndex = 0;
+        awaitingPaint = false;
+        timer.start();
+        return result;
+    }
+
+    void cancel() {
+        timer.stop();
+        result.completeExceptionally(new CancellationException("Frame baking cancelled"));
+    }
+
+    private void step() {
+        if (result.isDone()) {
+            timer.stop();
+            return;
+        }
+        try {
+            if (awaitingPaint) {
+                Image image = snapshot();
+                int[] pixels = readPixels(image);
+                settlePulses++;
+                if (Arrays.equals(pixels, previousPixels) && settlePulses < MAX_SETTLE_PULSES) {
+                    return;
+                }
+                images[nextIndex++] = image;
+                previousPixels = pixels;
+            }
+            if (nextIndex >= images.length) {
+                timer.stop();
+                previousPixels = null;
+                BakedFrames frames = new BakedFrames(images, frameStep, totalFrames, frameRate, width, height, renderScale);
+                logger.debug("Baked {} frames ({} bytes) in {} ms", images.length, frames.getByteSize(),
+                        (System.nanoTime() - startedAt) / 1_000_000);
+                result.complete(frames);
+                return;
+            }
+            if (previousPixels == null) {
+                // Frame 0 is compared with whatever the page showed before
+                previousPixels = readPixels(snapshot());
+            }
+            controls.call("goToFrame", (double) nextIndex * frameStep);
+            awaitingPaint = true;
+            settlePulses = 0;
+        } catch (RuntimeException e) {
+            timer.stop();
+            result.completeExceptionally(e);
+        }
+    }
+
+    private static int[] readPixels(Image image) {
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] pixels = new int[width * height];
+        image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        return pixels;
+    }
+
+    private Image snapshot() {
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        parameters.setTransform(Transform.scale(renderScale, renderScale));
+        return webView.snapshot(parameters, null);
+    }
+}
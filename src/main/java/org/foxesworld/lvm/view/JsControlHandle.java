@@ -0,0 +1,93 @@
+package org.foxesworld.lvm.view;
+
+import netscape.javascript.JSObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Java-side handle to the page's {@code lvmController} object.
+ * <p>
+ * Methods are invoked with {@link JSObject#call(String, Object...)}, so WebKit does not have to parse and
+ * compile a new script for every control call. Calls made while no page is bound (before the load worker
+ * reaches SUCCEEDED) are queued and replayed in order once the controller is available.
+ * </p>
+ * Must only be used on the JavaFX Application Thread.
+ */
+final class JsControlHandle {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsControlHandle.class);
+    private static final int MAX_QUEUED_CALLS = 256;
+
+    private final Queue<PendingCall> pendingCalls = new ArrayDeque<>();
+    private JSObject controller;
+    private volatile long callCount;
+
+    /**
+     * Binds the handle to the controller of a freshly loaded page and replays queued calls.
+     */
+    void bind(JSObject controller) {
+        this.controller = controller;
+        PendingCall call;
+        while ((call = pendingCalls.poll()) != null) {
+            callCount++;
+            controller.call(call.method, call.args);
+        }
+    }
+
+    /**
+     * Detaches the handle from the current page, e.g. before a new page is loaded.
+     */
+    void unbind() {
+        controller = null;
+    }
+
+    /**
+     * Detaches the handle and drops all queued calls.
+     */
+    void reset() {
+        controller = null;
+        pendingCalls.clear();
+    }
+
+    boolean isBound() {
+        return controller != null;
+    }
+
+    /**
+     * Invokes a controller method now, or queues it until a page is bound.
+     *
+     * @return the result of the call, or {@code null} if the call was queued
+     */
+    Object call(String method, Object... args) {
+        if (controller != null) {
+            callCount++;
+            return controller.call(method, args);
+        }
+        if (pendingCalls.size() >= MAX_QUEUED_CALLS) {
+            logger.warn("Too many control calls queued before page load, dropping the oldest");
+            pendingCalls.poll();
+        }
+        pendingCalls.add(new PendingCall(method, args));
+        return null;
+    }
+
+    /**
+     * Returns the number of calls made into the page so far.
+     */
+    long getCallCount() {
+        return callCount;
+    }
+
+    private static final class PendingCall {
+        private final String method;
+        private final Object[] args;
+
+        private PendingCall(String method, Object[] args) {
+            this.method = method;
+            this.args = args;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.foxesworld.lvm.view;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared executor for resource I/O and HTML building off the JavaFX Application Thread.
+ * <p>
+ * Public so that views outside this package load on the same threads.
+ * </p>
+ */
+public final class LoadExecutors {
+
+    private static final ExecutorService SHARED = create();
+
+    private LoadExecutors() {
+    }
+
+    public static ExecutorService shared() {
+        return SHARED;
+    }
+
+    /**
+     * Creates the executor for background loading: virtual threads on Java 21+, daemon threads otherwise.
+     */
+    private static ExecutorService create() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "lvm-loader-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
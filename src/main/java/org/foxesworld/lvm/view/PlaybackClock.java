@@ -0,0 +1,179 @@
+package org.foxesworld.lvm.view;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Playhead of an animation played back in Java, advanced on each pulse by the time since the previous one.
+ * <p>
+ * Follows lottie-web's rules for speed, direction and loop: a looping animation wraps around, any other one
+ * stops on its last frame, or on the first when it plays backward. Public so that views outside this package
+ * play back by the same rules.
+ * </p>
+ */
+public final class PlaybackClock {
+
+    /**
+     * What a call to {@link #advance(long)} did to the playhead.
+     */
+    public enum Step {
+        /**
+         * The first pulse after a (re)start only records the time.
+         */
+        STARTED,
+        FRAME,
+        LOOP_COMPLETE,
+        COMPLETE
+    }
+
+    private final BooleanSupplier loop;
+    private double totalFrames;
+    private double frameRate;
+    private double speed = 1;
+    private int direction = 1;
+    private double currentFrame;
+    private int currentLoop;
+    private long lastTick;
+
+    /**
+     * @param loop whether the animation loops, read on each pulse
+     */
+    public PlaybackClock(BooleanSupplier loop) {
+        this.loop = loop;
+    }
+
+    /**
+     * Sets the length of the animation, moving the playhead onto its last frame if it was past it.
+     */
+    public void setTiming(double totalFrames, double frameRate) {
+        this.totalFrames = totalFrames;
+        this.frameRate = frameRate;
+        currentFrame = Math.min(currentFrame, getLastFrame());
+    }
+
+    /**
+     * Moves the playhead to the first frame and the direction back to forward, as for a new animation.
+     */
+    public void reset() {
+        currentFrame = 0;
+        currentLoop = 0;
+        direction = 1;
+        lastTick = 0;
+    }
+
+    /**
+     * Makes the next pulse only record the time, so that a pause is not counted as playback.
+     */
+    public void restart() {
+        lastTick = 0;
+    }
+
+    /**
+     * Advances the playhead to the given pulse time.
+     *
+     * @param now the pulse time in nanoseconds, as passed to an {@code AnimationTimer}
+     */
+    public Step advance(long now) {
+        if (lastTick == 0) {
+            lastTick = now;
+            return Step.STARTED;
+        }
+        double elapsedSeconds = (now - lastTick) / 1_000_000_000.0;
+        lastTick = now;
+        double frame = currentFrame + elapsedSeconds * frameRate * speed * direction;
+        if (frame < totalFrames && frame >= 0) {
+            currentFrame = frame;
+            return Step.FRAME;
+        }
+        if (loop.getAsBoolean()) {
+            currentFrame = ((frame % totalFrames) + totalFrames) % totalFrames;
+            currentLoop++;
+            return Step.LOOP_COMPLETE;
+        }
+        currentFrame = direction > 0 ? getLastFrame() : 0;
+        return Step.COMPLETE;
+    }
+
+    /**
+     * Moves the playhead to the frame it would have reached had it kept playing for the given time, without
+     * counting loops.
+     *
+     * @return {@code false} if an animation that does not loop reached its end meanwhile
+     */
+    public boolean skip(double elapsedSeconds) {
+        double frame = currentFrame + elapsedSeconds * frameRate * speed * direction;
+        if (loop.getAsBoolean()) {
+            currentFrame = ((frame % totalFrames) + totalFrames) % totalFrames;
+            return true;
+        }
+        currentFrame = Math.max(0, Math.min(getLastFrame(), frame));
+        return frame > 0 && frame < getLastFrame();
+    }
+
+    /**
+     * Rewinds an animation that does not loop and stopped at its end, so that playing starts it over.
+     */
+    public void rewindIfComplete() {
+        if (!loop.getAsBoolean() && isAtEnd()) {
+            currentFrame = getStartFrame();
+        }
+    }
+
+    public boolean isAtEnd() {
+        return direction > 0 ? currentFrame >= getLastFrame() : currentFrame <= 0;
+    }
+
+    /**
+     * Returns the frame playback starts from: the first one, or the last one when playing backward.
+     */
+    public double getStartFrame() {
+        return direction > 0 ? 0 : getLastFrame();
+    }
+
+    public double getLastFrame() {
+        return Math.max(0, totalFrames - 1);
+    }
+
+    public double getTotalFrames() {
+        return totalFrames;
+    }
+
+    public double getFrameRate() {
+        return frameRate;
+    }
+
+    public double getCurrentFrame() {
+        return currentFrame;
+    }
+
+    /**
+     * Moves the playhead, keeping it within the animation.
+     */
+    public void setCurrentFrame(double frame) {
+        currentFrame = Math.max(0, Math.min(getLastFrame(), frame));
+    }
+
+    public int getCurrentLoop() {
+        return currentLoop;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(double speed) {
+        this.speed = speed;
+    }
+
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Sets the playing direction.
+     *
+     * @param direction {@code 1} to play forward, {@code -1} to play backward
+     */
+    public void setDirection(int direction) {
+        this.direction = direction < 0 ? -1 : 1;
+    }
+}
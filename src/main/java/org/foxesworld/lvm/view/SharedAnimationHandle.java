@@ -0,0 +1,267 @@
+package org.foxesworld.lvm.view;
+
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Region;
+import netscape.javascript.JSObject;
+import org.foxesworld.lvm.AnimationController;
+import org.foxesworld.lvm.config.LottieAnimationConfig;
+import org.foxesworld.lvm.event.AnimationCallback;
+import org.foxesworld.lvm.event.AnimationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Placeholder node for one animation drawn by a {@link SharedAnimationSurface}.
+ * <p>
+ * The handle takes part in layout like any other region; the surface keeps the animation's container at the
+ * handle's bounds and hides it while the handle is not visible, pausing it too if the configuration asks for
+ * {@link LottieAnimationConfig#isAutoPauseWhenHidden() autoPauseWhenHidden}. Control calls go to the handle's own
+ * instance in the shared page and are coalesced per pulse like those of {@link AnimationWebView}. Since the
+ * surface does not receive mouse events, hover and click are raised from the handle.
+ * </p>
+ * Handles are created with {@link SharedAnimationSurface#createAnimation(LottieAnimationConfig)}.
+ */
+public class SharedAnimationHandle extends Region implements AnimationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedAnimationHandle.class);
+
+    private final SharedAnimationSurface surface;
+    private final String animationId;
+    private final LottieAnimationConfig config;
+    private final JsControlHandle controls = new JsControlHandle();
+    private final ControlCommandScheduler commandScheduler = new ControlCommandScheduler(controls);
+    private final VisibilityWatcher visibilityWatcher;
+    private final InvalidationListener moved = obs -> requestPlacement();
+    private AnimationCallback animationCallback;
+    private AnimationListener animationListener;
+    private boolean shown;
+    private long loadGeneration;
+    private CompletableFuture<Void> pendingLoad;
+    private boolean disposed;
+
+    SharedAnimationHandle(SharedAnimationSurface surface, String animationId, LottieAnimationConfig config) {
+        this.surface = surface;
+        this.animationId = animationId;
+        this.config = config;
+        setPickOnBounds(true);
+        localToSceneTransformProperty().addListener(moved);
+        layoutBoundsProperty().addListener(moved);
+        visibilityWatcher = new VisibilityWatcher(this, false, visible -> {
+            shown = visible;
+            requestPlacement();
+        });
+        visibilityWatcher.start();
+        shown = visibilityWatcher.isVisible();
+        addEventHandler(MouseEvent.MOUSE_ENTERED, e -> onHover(true));
+        addEventHandler(MouseEvent.MOUSE_EXITED, e -> onHover(false));
+        addEventHandler(MouseEvent.MOUSE_CLICKED, this::onClick);
+    }
+
+    /**
+     * Loads an animation into this handle's instance, replacing the current one.
+     *
+     * @param animationUri the animation resource path or {@code file:} URI
+     */
+    public void loadAnimation(String animationUri) {
+        if (animationUri == null) throw new IllegalArgumentException("Animation URI must not be null");
+        ensureNotDisposed();
+        supersedePendingLoad();
+        config.setAnimationJsonResourcePath(animationUri);
+        try {
+            controls.call("load", surface.getHtmlContentBuilder().loadAnimationJson(config));
+        } catch (Exception e) {
+            logger.error("Failed to load animation", e);
+            throw new RuntimeException("Failed to load animation", e);
+        }
+    }
+
+    /**
+     * Loads an animation without blocking the JavaFX Application Thread. Starting another load cancels
+     * this one.
+     *
+     * @param animationUri the animation resource path or {@code file:} URI
+     * @return a future that completes when the animation data has been handed to the page
+     */
+    public CompletableFuture<Void> loadAnimationAsync(String animationUri) {
+        if (animationUri == null) throw new IllegalArgumentException("Animation URI must not be null");
+        ensureNotDisposed();
+        long generation = supersedePendingLoad();
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        pendingLoad = result;
+        LottieAnimationConfig snapshot = new LottieAnimationConfig(config);
+        snapshot.setAnimationJsonResourcePath(animationUri);
+        LoadExecutors.shared().execute(() -> {
+            try {
+                String animationJson = surface.getHtmlContentBuilder().loadAnimationJson(snapshot);
+                Platform.runLater(() -> {
+                    if (result.isDone() || generation != loadGeneration || disposed) {
+                        result.cancel(false);
+                        return;
+                    }
+                    config.setAnimationJsonResourcePath(animationUri);
+                    controls.call("load", animationJson);
+                    result.complete(null);
+                });
+            } catch (Exception e) {
+                logger.error("Failed to load animation asynchronously", e);
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private long supersedePendingLoad() {
+        CompletableFuture<Void> previous = pendingLoad;
+        if (previous != null && !previous.isDone()) {
+            previous.cancel(false);
+        }
+        pendingLoad = null;
+        return ++loadGeneration;
+    }
+
+    @Override
+    public void play() {
+        commandScheduler.flush();
+        controls.call("play");
+    }
+
+    @Override
+    public void pause() {
+        commandScheduler.flush();
+        controls.call("pause");
+    }
+
+    @Override
+    public void stop() {
+        commandScheduler.flush();
+        controls.call("stop");
+    }
+
+    @Override
+    public void setSpeed(float speed) {
+        if (speed <= 0.0f) {
+            throw new IllegalArgumentException("Speed must be greater than 0");
+        }
+        commandScheduler.setSpeed(speed);
+    }
+
+    /**
+     * Sets the animation progress.
+     * @param progress a value from 0 to 1, where 0 is the first and 1 the last frame
+     */
+    public void setAnimationProgress(float progress) {
+        commandScheduler.setProgress(Math.max(0f, Math.min(1f, progress)));
+    }
+
+    /**
+     * Moves the playhead to the given frame and stops there.
+     * @param frame the frame to show, relative to the first frame of the animation
+     */
+    public void seekToFrame(double frame) {
+        commandScheduler.goToFrame(Math.max(0, frame));
+    }
+
+    @Override
+    public void setAnimationCallback(AnimationCallback callback) {
+        if (callback == null) throw new IllegalArgumentException("AnimationCallback must not be null");
+        this.animationCallback = callback;
+        surface.setInstanceCallback(this, callback);
+    }
+
+    @Override
+    public void setAnimationListener(AnimationListener listener) {
+        if (listener == null) throw new IllegalArgumentException("AnimationListener must not be null");
+        this.animationListener = listener;
+        surface.setInstanceListener(this, listener);
+    }
+
+    /**
+     * Destroys the animation instance and detaches the handle from its surface.
+     */
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        supersedePendingLoad();
+        commandScheduler.cancel();
+        controls.reset();
+        visibilityWatcher.stop();
+        localToSceneTransformProperty().removeListener(moved);
+        layoutBoundsProperty().removeListener(moved);
+        surface.remove(this);
+    }
+
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    public String getAnimationId() {
+        return animationId;
+    }
+
+    public LottieAnimationConfig getConfig() {
+        return config;
+    }
+
+    public SharedAnimationSurface getSurface() {
+        return surface;
+    }
+
+    AnimationCallback getAnimationCallback() {
+        return animationCallback;
+    }
+
+    AnimationListener getAnimationListener() {
+        return animationListener;
+    }
+
+    /**
+     * Returns whether the handle is currently visible on screen.
+     */
+    boolean isShown() {
+        return shown;
+    }
+
+    /**
+     * Binds the handle to its instance controller once the surface page has created it.
+     */
+    void bind(JSObject controller) {
+        controls.bind(controller);
+    }
+
+    private void requestPlacement() {
+        if (!disposed) {
+            surface.requestPlacement(this);
+        }
+    }
+
+    private void onHover(boolean entered) {
+        if (animationListener != null) {
+            animationListener.onHover(entered);
+        }
+        if (animationCallback != null) {
+            animationCallback.onHover("{\"type\":\"" + (entered ? "mouseenter" : "mouseleave") + "\"}");
+        }
+    }
+
+    private void onClick(MouseEvent event) {
+        if (animationListener != null) {
+            animationListener.onClick(event.getX(), event.getY());
+        }
+        if (animationCallback != null) {
+            animationCallback.onClick("{\"x\":" + event.getX() + ",\"y\":" + event.getY()
+                    + ",\"timestamp\":" + System.currentTimeMillis() + '}');
+        }
+    }
+
+    private void ensureNotDisposed() {
+        if (disposed) {
+            throw new IllegalStateException("Animation handle has been disposed");
+        }
+    }
+}
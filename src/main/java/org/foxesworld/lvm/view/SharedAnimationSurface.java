@@ -0,0 +1,235 @@
+package org.foxesworld.lvm.view;
+
+import com.google.gson.Gson;
+import javafx.animation.AnimationTimer;
+import javafx.beans.InvalidationListener;
+import javafx.concurrent.Worker;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.web.WebView;
+import netscape.javascript.JSObject;
+import org.foxesworld.lvm.config.LottieAnimationConfig;
+import org.foxesworld.lvm.html.HtmlContentBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transparent overlay {@link WebView} that renders many Lottie animations in a single page.
+ * <p>
+ * Each animation is a {@link SharedAnimationHandle}: an empty node placed in the layout like any other
+ * control, whose animation is drawn by this surface in a container that follows the handle's position,
+ * size and visibility. All animations share one WebKit page, one JS heap and one copy of bodymovin, so an
+ * additional animation costs little more than its JSON data.
+ * </p>
+ * The surface must be laid over the content that contains its handles, for example as the last child of a
+ * {@code StackPane} root. It is mouse transparent; hover and click events are raised by the handles.
+ */
+public final class SharedAnimationSurface extends Region {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedAnimationSurface.class);
+    private static final String SURFACE_TEMPLATE_PATH = "html/surface.html";
+    private static final Gson GSON = new Gson();
+
+    private final WebView webView = new WebView();
+    private final HtmlContentBuilder htmlContentBuilder = new HtmlContentBuilder(SURFACE_TEMPLATE_PATH);
+    private final Map<String, SharedAnimationHandle> handles = new LinkedHashMap<>();
+    private final Set<SharedAnimationHandle> dirtyHandles = new LinkedHashSet<>();
+    private final InvalidationListener surfaceMoved = obs -> requestPlacementAll();
+    private final AnimationTimer placementTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flushPlacement();
+        }
+    };
+    private JSObject surface;
+    private boolean placementScheduled;
+    private int nextId;
+    private boolean disposed;
+
+    public SharedAnimationSurface() {
+        this(new LottieAnimationConfig());
+    }
+
+    /**
+     * Creates a surface and starts loading its page.
+     *
+     * @param config supplies the bodymovin resource; animation settings come from each handle's configuration
+     */
+    public SharedAnimationSurface(LottieAnimationConfig config) {
+        if (config == null) throw new IllegalArgumentException("LottieAnimationConfig must not be null");
+        setMouseTransparent(true);
+        setPickOnBounds(false);
+        webView.setPageFill(Color.TRANSPARENT);
+        webView.setContextMenuEnabled(false);
+        webView.prefWidthProperty().bind(widthProperty());
+        webView.prefHeightProperty().bind(heightProperty());
+        getChildren().add(webView);
+        localToSceneTransformProperty().addListener(surfaceMoved);
+        layoutBoundsProperty().addListener(surfaceMoved);
+        webView.getEngine().getLoadWorker().stateProperty().addListener((obs, oldState, newState) -> {
+            if (newState == Worker.State.SUCCEEDED) {
+                onPageLoaded();
+            } else if (newState == Worker.State.FAILED) {
+                logger.error("Shared animation surface failed to load", webView.getEngine().getLoadWorker().getException());
+            }
+        });
+        webView.getEngine().loadContent(htmlContentBuilder.buildHostContent(config));
+    }
+
+    /**
+     * Creates a handle for a new animation on this surface and starts loading it off the JavaFX Application
+     * Thread. Add the handle to the layout where the animation should appear.
+     *
+     * @param config the animation configuration; later changes to it are not picked up
+     * @return the new handle
+     */
+    public SharedAnimationHandle createAnimation(LottieAnimationConfig config) {
+        if (config == null) throw new IllegalArgumentException("LottieAnimationConfig must not be null");
+        if (disposed) throw new IllegalStateException("Animation surface has been disposed");
+        SharedAnimationHandle handle = new SharedAnimationHandle(this, "a" + (++nextId), new LottieAnimationConfig(config));
+        handles.put(handle.getAnimationId(), handle);
+        if (surface != null) {
+            createInstance(handle);
+        }
+        // Reading and optimizing the JSON off the FX thread keeps screens with many widgets from stuttering;
+        // failures are logged by the handle
+        handle.loadAnimationAsync(config.getAnimationJsonResourcePath());
+        return handle;
+    }
+
+    /**
+     * Returns the number of animations hosted by this surface.
+     */
+    public int getAnimationCount() {
+        return handles.size();
+    }
+
+    /**
+     * Destroys all animations and unloads the page.
+     */
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        for (SharedAnimationHandle handle : handles.values().toArray(new SharedAnimationHandle[0])) {
+            handle.dispose();
+        }
+        disposed = true;
+        placementTimer.stop();
+        localToSceneTransformProperty().removeListener(surfaceMoved);
+        layoutBoundsProperty().removeListener(surfaceMoved);
+        surface = null;
+        webView.getEngine().loadContent("");
+    }
+
+    public WebView getWebView() {
+        return webView;
+    }
+
+    HtmlContentBuilder getHtmlContentBuilder() {
+        return htmlContentBuilder;
+    }
+
+    void setInstanceListener(SharedAnimationHandle handle, Object listener) {
+        if (surface != null) {
+            surface.call("setListener", handle.getAnimationId(), listener);
+        }
+    }
+
+    void setInstanceCallback(SharedAnimationHandle handle, Object callback) {
+        if (surface != null) {
+            surface.call("setCallback", handle.getAnimationId(), callback);
+        }
+    }
+
+    void remove(SharedAnimationHandle handle) {
+        handles.remove(handle.getAnimationId());
+        dirtyHandles.remove(handle);
+        if (surface != null) {
+            surface.call("destroy", handle.getAnimationId());
+        }
+    }
+
+    /**
+     * Schedules the handle's container to be moved on the next pulse. Repeated requests within a pulse are
+     * merged.
+     */
+    void requestPlacement(SharedAnimationHandle handle) {
+        dirtyHandles.add(handle);
+        if (!placementScheduled) {
+            placementScheduled = true;
+            placementTimer.start();
+        }
+    }
+
+    private void requestPlacementAll() {
+        for (SharedAnimationHandle handle : handles.values()) {
+            requestPlacement(handle);
+        }
+    }
+
+    private void onPageLoaded() {
+        surface = (JSObject) webView.getEngine().executeScript("window.lvmSurface");
+        for (SharedAnimationHandle handle : handles.values()) {
+            createInstance(handle);
+        }
+        requestPlacementAll();
+        logger.debug("Shared animation surface loaded with {} animations", handles.size());
+    }
+
+    private void createInstance(SharedAnimationHandle handle) {
+        LottieAnimationConfig config = handle.getConfig();
+        Map<String, Object> options = new LinkedHashMap<>();
+        options.put("renderer", config.getRenderer());
+        options.put("loop", config.isLoop());
+        options.put("autoplay", config.isAutoplay());
+        options.put("events", config.getSubscribedEvents());
+        options.put("enterFrameMaxRate", config.getEnterFrameMaxRate());
+        options.put("enterFrameChangeOnly", config.isEnterFrameChangeOnly());
+        options.put("autoPauseWhenHidden", config.isAutoPauseWhenHidden());
+        options.put("resumeAtWallClock", config.isResumeAtWallClock());
+        Object controller = surface.call("create", handle.getAnimationId(), GSON.toJson(options),
+                handle.getAnimationListener(), handle.getAnimationCallback());
+        handle.bind((JSObject) controller);
+        requestPlacement(handle);
+    }
+
+    private void flushPlacement() {
+        placementScheduled = false;
+        placementTimer.stop();
+        if (surface == null) {
+            return;
+        }
+        for (SharedAnimationHandle handle : dirtyHandles) {
+            place(handle);
+        }
+        dirtyHandles.clear();
+    }
+
+    private void place(SharedAnimationHandle handle) {
+        String id = handle.getAnimationId();
+        if (!handle.isShown() || handle.getScene() == null || handle.getScene() != getScene()) {
+            surface.call("hide", id);
+            return;
+        }
+        handle.getLocalToSceneTransform();
+        Bounds sceneBounds = handle.localToScene(handle.getLayoutBounds());
+        Bounds visible = VisibilityWatcher.clipToScrollPanes(handle, sceneBounds);
+        if (visible == null) {
+            surface.call("hide", id);
+            return;
+        }
+        Bounds local = sceneToLocal(sceneBounds);
+        // CSS clip rectangles are relative to the container's own box
+        surface.call("place", id, local.getMinX(), local.getMinY(), sceneBounds.getWidth(), sceneBounds.getHeight(),
+                visible.getMinY() - sceneBounds.getMinY(), visible.getMaxX() - sceneBounds.getMinX(),
+                visible.getMaxY() - sceneBounds.getMinY(), visible.getMinX() - sceneBounds.getMinX());
+    }
+}
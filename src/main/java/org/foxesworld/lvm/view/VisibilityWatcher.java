@@ -0,0 +1,183 @@
+package org.foxesworld.lvm.view;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.ScrollPane;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tracks whether a node can actually be seen and reports changes.
+ * <p>
+ * A node counts as hidden when it is not in a showing window, when the window is minimized (or unfocused,
+ * if requested), when the node or any ancestor is invisible, or when its bounds lie outside the scene or
+ * outside the viewport of an enclosing {@link ScrollPane}. Listeners are attached to the current ancestor
+ * chain and re-attached whenever the node is moved in the scene graph.
+ * </p>
+ * Must only be used on the JavaFX Application Thread.
+ */
+final class VisibilityWatcher {
+
+    private final Node node;
+    private final boolean hideWhenUnfocused;
+    private final Consumer<Boolean> onChange;
+    private final InvalidationListener updateListener = obs -> update();
+    private final InvalidationListener structureListener = obs -> {
+        rebind();
+        update();
+    };
+    private final List<Observable> updateSources = new ArrayList<>();
+    private final List<Observable> structureSources = new ArrayList<>();
+    private boolean visible = true;
+
+    /**
+     * @param node              the node to watch
+     * @param hideWhenUnfocused whether an unfocused window counts as hidden
+     * @param onChange          called with the new state whenever visibility changes
+     */
+    VisibilityWatcher(Node node, boolean hideWhenUnfocused, Consumer<Boolean> onChange) {
+        this.node = node;
+        this.hideWhenUnfocused = hideWhenUnfocused;
+        this.onChange = onChange;
+    }
+
+    void start() {
+        rebind();
+        update();
+    }
+
+    void stop() {
+        unbind();
+    }
+
+    boolean isVisible() {
+        return visible;
+    }
+
+    private void update() {
+        boolean nowVisible = computeVisible();
+        if (nowVisible != visible) {
+            visible = nowVisible;
+            onChange.accept(nowVisible);
+        }
+    }
+
+    private boolean computeVisible() {
+        Scene scene = node.getScene();
+        if (scene == null) {
+            return false;
+        }
+        Window window = scene.getWindow();
+        if (window == null || !window.isShowing()) {
+            return false;
+        }
+        if (window instanceof Stage && ((Stage) window).isIconified()) {
+            return false;
+        }
+        if (hideWhenUnfocused && !window.isFocused()) {
+            return false;
+        }
+        // Reading the transform re-validates it, so the invalidation listener fires on the next move
+        node.getLocalToSceneTransform();
+        Bounds bounds = node.localToScene(node.getLayoutBounds());
+        if (bounds.getWidth() <= 0 || bounds.getHeight() <= 0
+                || !bounds.intersects(0, 0, scene.getWidth(), scene.getHeight())) {
+            return false;
+        }
+        for (Node current = node; current != null; current = current.getParent()) {
+            if (!current.isVisible()) {
+                return false;
+            }
+        }
+        return clipToScrollPanes(node, bounds) != null;
+    }
+
+    /**
+     * Intersects scene bounds with the viewports of all scroll panes enclosing the node.
+     *
+     * @return the visible part, or {@code null} if nothing is visible
+     */
+    static Bounds clipToScrollPanes(Node node, Bounds sceneBounds) {
+        double minX = sceneBounds.getMinX();
+        double minY = sceneBounds.getMinY();
+        double maxX = sceneBounds.getMaxX();
+        double maxY = sceneBounds.getMaxY();
+        for (Node current = node.getParent(); current != null; current = current.getParent()) {
+            if (!(current instanceof ScrollPane)) {
+                continue;
+            }
+            ScrollPane scrollPane = (ScrollPane) current;
+            Bounds viewport = scrollPane.getViewportBounds();
+            Bounds viewportInScene = scrollPane.localToScene(new BoundingBox(scrollPane.snappedLeftInset(),
+                    scrollPane.snappedTopInset(), viewport.getWidth(), viewport.getHeight()));
+            minX = Math.max(minX, viewportInScene.getMinX());
+            minY = Math.max(minY, viewportInScene.getMinY());
+            maxX = Math.min(maxX, viewportInScene.getMaxX());
+            maxY = Math.min(maxY, viewportInScene.getMaxY());
+        }
+        if (maxX <= minX || maxY <= minY) {
+            return null;
+        }
+        return new BoundingBox(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    /**
+     * Attaches listeners to the current ancestor chain, scene and window.
+     */
+    private void rebind() {
+        unbind();
+        observe(structureSources, structureListener, node.sceneProperty());
+        observe(updateSources, updateListener, node.localToSceneTransformProperty());
+        observe(updateSources, updateListener, node.layoutBoundsProperty());
+        for (Node current = node; current != null; current = current.getParent()) {
+            observe(structureSources, structureListener, current.parentProperty());
+            observe(updateSources, updateListener, current.visibleProperty());
+            if (current != node && current instanceof ScrollPane) {
+                // Scrolling moves the node, which the transform listener already sees
+                observe(updateSources, updateListener, ((ScrollPane) current).viewportBoundsProperty());
+            }
+        }
+        Scene scene = node.getScene();
+        if (scene == null) {
+            return;
+        }
+        observe(structureSources, structureListener, scene.windowProperty());
+        observe(updateSources, updateListener, scene.widthProperty());
+        observe(updateSources, updateListener, scene.heightProperty());
+        Window window = scene.getWindow();
+        if (window == null) {
+            return;
+        }
+        observe(updateSources, updateListener, window.showingProperty());
+        if (window instanceof Stage) {
+            observe(updateSources, updateListener, ((Stage) window).iconifiedProperty());
+        }
+        if (hideWhenUnfocused) {
+            observe(updateSources, updateListener, window.focusedProperty());
+        }
+    }
+
+    private void unbind() {
+        for (Observable source : updateSources) {
+            source.removeListener(updateListener);
+        }
+        for (Observable source : structureSources) {
+            source.removeListener(structureListener);
+        }
+        updateSources.clear();
+        structureSources.clear();
+    }
+
+    private static void observe(List<Observable> sources, InvalidationListener listener, Observable source) {
+        source.addListener(listener);
+        sources.add(source);
+    }
+}
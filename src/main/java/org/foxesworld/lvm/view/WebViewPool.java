@@ -0,0 +1,408 @@
+package org.foxesworld.lvm.view;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.concurrent.Worker;
+import javafx.scene.web.WebView;
+import javafx.util.Duration;
+import netscape.javascript.JSObject;
+import org.foxesworld.lvm.config.LottieAnimationConfig;
+import org.foxesworld.lvm.html.HtmlContentBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pool of {@link WebView}s that already have the persistent host page and bodymovin loaded.
+ * <p>
+ * Creating a {@code WebView} means creating a WebKit page and a JS context and then parsing bodymovin,
+ * which dominates the time to open a screen with many small animations. Pooled views are created ahead of
+ * time with {@link #prewarm(LottieAnimationConfig, int)}, handed out by {@link #borrow(LottieAnimationConfig)}
+ * and given back by {@link #release(LottieAnimationConfig, WebView)}. The host page bakes in the renderer,
+ * loop, autoplay and event settings, so views are pooled per set of those settings.
+ * </p>
+ * Views that stay idle longer than the idle timeout are discarded, and prewarmed settings are only warmed up
+ * again by the next borrow. All methods except {@code prewarm} must be called on the JavaFX Application Thread.
+ */
+public final class WebViewPool {
+
+    /**
+     * Default number of idle views kept across all host settings, overridable with the
+     * {@code lvm.webViewPool.maxIdle} system property.
+     */
+    public static final int DEFAULT_MAX_IDLE = Integer.getInteger("lvm.webViewPool.maxIdle", 8);
+
+    /**
+     * Default time an idle view is kept, overridable with the {@code lvm.webViewPool.idleTimeoutSeconds}
+     * system property.
+     */
+    public static final Duration DEFAULT_IDLE_TIMEOUT =
+            Duration.seconds(Long.getLong("lvm.webViewPool.idleTimeoutSeconds", 60));
+
+    private static final Logger logger = LoggerFactory.getLogger(WebViewPool.class);
+    private static final String DEFAULT_HTML_TEMPLATE_PATH = "html/content.html";
+    private static final Duration REFILL_DELAY = Duration.millis(500);
+    private static final WebViewPool SHARED = new WebViewPool(DEFAULT_MAX_IDLE, DEFAULT_IDLE_TIMEOUT);
+
+    private final HtmlContentBuilder htmlContentBuilder = new HtmlContentBuilder(DEFAULT_HTML_TEMPLATE_PATH);
+    private final Map<String, String> hostContents = new ConcurrentHashMap<>();
+    private final Map<String, Deque<PooledView>> idleViews = new HashMap<>();
+    private final Map<String, Integer> warmTargets = new HashMap<>();
+    /**
+     * Warm targets of settings whose views expired, restored by the next borrow.
+     */
+    private final Map<String, Integer> dormantTargets = new HashMap<>();
+    private int maxIdle;
+    private Duration idleTimeout;
+    private int idleCount;
+    private Timeline evictionTimer;
+    private final PauseTransition refillDelay = new PauseTransition(REFILL_DELAY);
+    private long createdCount;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates a pool.
+     *
+     * @param maxIdle     the maximum number of idle views kept across all host settings
+     * @param idleTimeout how long an unused view is kept before it is discarded
+     */
+    public WebViewPool(int maxIdle, Duration idleTimeout) {
+        setMaxIdle(maxIdle);
+        setIdleTimeout(idleTimeout);
+        refillDelay.setOnFinished(e -> {
+            for (String key : warmTargets.keySet()) {
+                refill(key, hostContents.get(key), new ArrayList<>(), null);
+            }
+        });
+    }
+
+    /**
+     * Returns the pool used by {@link AnimationWebView} when pooling is enabled in its configuration.
+     */
+    public static WebViewPool getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Creates views with the host page for the given settings until {@code count} of them are idle, and
+     * keeps refilling to that level as views are borrowed. Views that expire unused are not replaced until the
+     * next borrow for the same settings. May be called from any thread: the host page is
+     * built in the background and one view is created per pulse.
+     *
+     * @param config the settings the views are prepared for
+     * @param count  the number of views to keep warm
+     * @return a future that completes when the created views have loaded the host page
+     */
+    public CompletableFuture<Void> prewarm(LottieAnimationConfig config, int count) {
+        if (config == null) throw new IllegalArgumentException("LottieAnimationConfig must not be null");
+        if (count < 0) throw new IllegalArgumentException("View count must not be negative");
+        LottieAnimationConfig snapshot = new LottieAnimationConfig(config);
+        String key = keyOf(snapshot);
+        return CompletableFuture
+                .supplyAsync(() -> hostContent(key, snapshot), LoadExecutors.shared())
+                .thenCompose(content -> {
+                    CompletableFuture<Void> result = new CompletableFuture<>();
+                    Platform.runLater(() -> {
+                        dormantTargets.remove(key);
+                        warmTargets.put(key, count);
+                        refill(key, content, new ArrayList<>(), result);
+                    });
+                    return result;
+                });
+    }
+
+    /**
+     * Takes a warm view for the given settings out of the pool. The view may still be loading the host
+     * page; check its load worker state.
+     *
+     * @param config the settings of the animation that will use the view
+     * @return a pooled view, or {@code null} if none is available
+     */
+    public WebView borrow(LottieAnimationConfig config) {
+        String key = keyOf(config);
+        Integer dormantTarget = dormantTargets.remove(key);
+        if (dormantTarget != null) {
+            // The settings are in use again after an idle period
+            warmTargets.put(key, dormantTarget);
+        }
+        if (warmTargets.containsKey(key)) {
+            // Refill once the burst of borrows is over, so new pages do not compete with the screen opening
+            refillDelay.playFromStart();
+        }
+        PooledView pooled = takeIdle(idleViews.get(key));
+        if (pooled == null) {
+            missCount++;
+            return null;
+        }
+        idleCount--;
+        hitCount++;
+        logger.debug("Borrowed a warm WebView, {} idle left", idleCount);
+        return pooled.webView;
+    }
+
+    /**
+     * Takes the most recently idle view that has finished loading, or the newest one if none has.
+     */
+    private static PooledView takeIdle(Deque<PooledView> views) {
+        if (views == null || views.isEmpty()) {
+            return null;
+        }
+        Iterator<PooledView> it = views.descendingIterator();
+        while (it.hasNext()) {
+            PooledView pooled = it.next();
+            if (pooled.webView.getEngine().getLoadWorker().getState() == Worker.State.SUCCEEDED) {
+                it.remove();
+                return pooled;
+            }
+        }
+        return views.pollLast();
+    }
+
+    /**
+     * Gives a view back to the pool. The animation in it is destroyed and the page callbacks are removed;
+     * views that are not fully loaded, or that do not fit into the pool, are discarded instead.
+     *
+     * @param config the settings the view's host page was built with
+     * @param webView the view, already removed from the scene graph
+     */
+    public void release(LottieAnimationConfig config, WebView webView) {
+        if (webView == null) throw new IllegalArgumentException("WebView must not be null");
+        if (idleCount >= maxIdle || webView.getEngine().getLoadWorker().getState() != Worker.State.SUCCEEDED) {
+            discard(webView);
+            return;
+        }
+        try {
+            JSObject window = (JSObject) webView.getEngine().executeScript("window");
+            ((JSObject) window.getMember("lvmHost")).call("unload");
+            window.removeMember("animationCallback");
+            window.removeMember("animationListener");
+        } catch (Exception e) {
+            logger.warn("Failed to reset a released WebView, discarding it", e);
+            discard(webView);
+            return;
+        }
+        addIdle(keyOf(config), new PooledView(webView, null));
+        logger.debug("WebView returned to the pool, {} idle", idleCount);
+    }
+
+    /**
+     * Discards all idle views and stops refilling.
+     */
+    public void clear() {
+        for (Deque<PooledView> views : idleViews.values()) {
+            for (PooledView pooled : views) {
+                pooled.discard();
+            }
+        }
+        idleViews.clear();
+        warmTargets.clear();
+        dormantTargets.clear();
+        refillDelay.stop();
+        idleCount = 0;
+        stopEvictionTimer();
+    }
+
+    /**
+     * Changes the maximum number of idle views. Surplus views are discarded on the next release.
+     */
+    public void setMaxIdle(int maxIdle) {
+        if (maxIdle < 0) throw new IllegalArgumentException("Pool size must not be negative");
+        this.maxIdle = maxIdle;
+    }
+
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    /**
+     * Changes how long an unused view is kept.
+     */
+    public void setIdleTimeout(Duration idleTimeout) {
+        if (idleTimeout == null || idleTimeout.lessThanOrEqualTo(Duration.ZERO)) {
+            throw new IllegalArgumentException("Idle timeout must be positive");
+        }
+        this.idleTimeout = idleTimeout;
+        if (evictionTimer != null) {
+            stopEvictionTimer();
+            startEvictionTimer();
+        }
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public int getIdleCount() {
+        return idleCount;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Creates views one per pulse until the warm target for {@code key} is reached.
+     */
+    private void refill(String key, String content, List<CompletableFuture<Void>> loads,
+                        CompletableFuture<Void> result) {
+        Integer target = warmTargets.get(key);
+        Deque<PooledView> views = idleViews.get(key);
+        int idle = views != null ? views.size() : 0;
+        if (content == null || target == null || idle >= target || idleCount >= maxIdle) {
+            if (result != null) {
+                CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]))
+                        .whenComplete((ignored, error) -> {
+                            if (error != null) {
+                                result.completeExceptionally(error);
+                            } else {
+                                result.complete(null);
+                            }
+                        });
+            }
+            return;
+        }
+        WebView webView = new WebView();
+        createdCount++;
+        CompletableFuture<Void> loaded = new CompletableFuture<>();
+        loads.add(loaded);
+        addIdle(key, new PooledView(webView, loaded));
+        webView.getEngine().loadContent(content);
+        Platform.runLater(() -> refill(key, content, loads, result));
+    }
+
+    private String hostContent(String key, LottieAnimationConfig config) {
+        return hostContents.computeIfAbsent(key, k -> htmlContentBuilder.buildHostContent(config));
+    }
+
+    private void addIdle(String key, PooledView pooled) {
+        idleViews.computeIfAbsent(key, k -> new ArrayDeque<>()).addLast(pooled);
+        idleCount++;
+        startEvictionTimer();
+    }
+
+    /**
+     * Discards views that have been idle for longer than the timeout. Their memory is the point of evicting
+     * them, so prewarmed settings are not refilled until they are borrowed again.
+     */
+    private void evictExpired() {
+        long now = System.nanoTime();
+        long timeoutNanos = (long) (idleTimeout.toMillis() * 1_000_000L);
+        Iterator<Map.Entry<String, Deque<PooledView>>> it = idleViews.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Deque<PooledView>> entry = it.next();
+            Deque<PooledView> views = entry.getValue();
+            int before = views.size();
+            // Oldest views are at the head of the deque
+            while (!views.isEmpty() && now - views.peekFirst().idleSince >= timeoutNanos) {
+                PooledView pooled = views.pollFirst();
+                pooled.discard();
+                idleCount--;
+                evictionCount++;
+            }
+            if (views.size() < before && warmTargets.containsKey(entry.getKey())) {
+                dormantTargets.put(entry.getKey(), warmTargets.remove(entry.getKey()));
+            }
+            if (views.isEmpty()) {
+                it.remove();
+            }
+        }
+        if (idleCount == 0) {
+            stopEvictionTimer();
+        }
+    }
+
+    private void startEvictionTimer() {
+        if (evictionTimer != null) {
+            return;
+        }
+        evictionTimer = new Timeline(new KeyFrame(idleTimeout.divide(2), e -> evictExpired()));
+        evictionTimer.setCycleCount(Timeline.INDEFINITE);
+        evictionTimer.play();
+    }
+
+    private void stopEvictionTimer() {
+        if (evictionTimer != null) {
+            evictionTimer.stop();
+            evictionTimer = null;
+        }
+    }
+
+    private static void discard(WebView webView) {
+        // Unloading the page frees the JS context; the view itself is then garbage collected
+        webView.getEngine().loadContent("");
+    }
+
+    /**
+     * Builds the pool key from the settings baked into the host page.
+     */
+    static String keyOf(LottieAnimationConfig config) {
+        return config.getBodymovinJsResourcePath() + '|' + config.getContainerId() + '|' + config.getRenderer()
+                + '|' + config.isLoop() + '|' + config.isAutoplay() + '|' + config.getSubscribedEvents()
+                + '|' + config.getEnterFrameMaxRate() + '|' + config.isEnterFrameChangeOnly()
+                + '|' + config.isTelemetryEnabled();
+    }
+
+    private static final class PooledView {
+        private final WebView webView;
+        private final CompletableFuture<Void> loaded;
+        private final long idleSince = System.nanoTime();
+
+        private PooledView(WebView webView, CompletableFuture<Void> loaded) {
+            this.webView = webView;
+            this.loaded = loaded;
+            if (loaded == null) {
+                return;
+            }
+            ReadOnlyObjectProperty<Worker.State> state = webView.getEngine().getLoadWorker().stateProperty();
+            state.addListener(new ChangeListener<>() {
+                @Override
+                public void changed(ObservableValue<? extends Worker.State> obs, Worker.State oldState,
+                                    Worker.State newState) {
+                    if (newState == Worker.State.SUCCEEDED) {
+                        loaded.complete(null);
+                    } else if (newState == Worker.State.FAILED || newState == Worker.State.CANCELLED) {
+                        loaded.completeExceptionally(new IllegalStateException("Pooled host page failed to load"));
+                    } else {
+                        return;
+                    }
+                    state.removeListener(this);
+                }
+            });
+        }
+
+        private void discard() {
+            if (loaded != null) {
+                loaded.cancel(false);
+            }
+            WebViewPool.discard(webView);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.foxesworld.lvm.event;
+
+import org.foxesworld.lvm.AnimationController;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AnimationListenerCallbackTest {
+
+    @Test
+    void deliversPageEventsToTheListener() {
+        List<String> calls = new ArrayList<>();
+        AnimationListenerCallback callback = new AnimationListenerCallback(new RecordingListener(calls));
+
+        callback.onEvent("enterFrame", "{\"type\":\"enterFrame\",\"currentTime\":12.5,\"totalTime\":60,\"direction\":-1}");
+        callback.onEvent("loopComplete", "{\"type\":\"loopComplete\",\"currentLoop\":3,\"direction\":1}");
+        callback.onEvent("complete", "{\"type\":\"complete\",\"direction\":1}");
+        callback.onEvent("segmentStart", "{\"type\":\"segmentStart\",\"firstFrame\":10,\"totalFrames\":20}");
+        callback.onEvent("DOMLoaded", "{\"type\":\"DOMLoaded\"}");
+        callback.onEvent("unknown", null);
+        callback.onHover("{\"type\":\"mouseleave\"}");
+        callback.onClick("{\"x\":4,\"y\":5,\"timestamp\":1}");
+
+        assertEquals(List.of("enterFrame 12.5/60.0 -1", "loopComplete 3 1", "complete 1", "segmentStart 10.0 20.0",
+                "DOMLoaded", "hover false", "click 4.0,5.0"), calls);
+    }
+
+    @Test
+    void defaultControllerMethodUsesTheCallback() {
+        List<String> calls = new ArrayList<>();
+        List<AnimationCallback> callbacks = new ArrayList<>();
+        AnimationController controller = new AnimationController() {
+            @Override
+            public void play() {
+            }
+
+            @Override
+            public void pause() {
+            }
+
+            @Override
+            public void stop() {
+            }
+
+            @Override
+            public void setSpeed(float speed) {
+            }
+
+            @Override
+            public void setAnimationCallback(AnimationCallback callback) {
+                callbacks.add(callback);
+            }
+        };
+
+        controller.setAnimationListener(new RecordingListener(calls));
+        callbacks.get(0).onEvent("complete", "{\"direction\":1}");
+
+        assertEquals(List.of("complete 1"), calls);
+        assertThrows(IllegalArgumentException.class, () -> controller.setAnimationListener(null));
+    }
+
+    private static final class RecordingListener implements AnimationListener {
+
+        private final List<String> calls;
+
+        RecordingListener(List<String> calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        public void onEnterFrame(double currentTime, double totalTime, int direction) {
+            calls.add("enterFrame " + currentTime + '/' + totalTime + ' ' + direction);
+        }
+
+        @Override
+        public void onLoopComplete(int currentLoop, int direction) {
+            calls.add("loopComplete " + currentLoop + ' ' + direction);
+        }
+
+        @Override
+        public void onComplete(int direction) {
+            calls.add("complete " + direction);
+        }
+
+        @Override
+        public void onSegmentStart(double firstFrame, double totalFrames) {
+            calls.add("segmentStart " + firstFrame + ' ' + totalFrames);
+        }
+
+        @Override
+        public void onDOMLoaded() {
+            calls.add("DOMLoaded");
+        }
+
+        @Override
+        public void onHover(boolean entered) {
+            calls.add("hover " + entered);
+        }
+
+        @Override
+        public void onClick(double x, double y) {
+            calls.add("click " + x + ',' + y);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.foxesworld.lvm.metadata;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnimationMetadataTest {
+
+    private static final String HEADER = "{\"v\":\"5.7.4\",\"fr\":30,\"ip\":0,\"op\":90,\"w\":200,\"h\":100,"
+            + "\"nm\":\"comp\",";
+    private static final String CONTENTS = "\"assets\":[{\"id\":\"img\",\"p\":\"data:image/png;base64,AAAA\"},"
+            + "{\"id\":\"pre\",\"layers\":[]}],\"layers\":[{\"ty\":4},{\"ty\":2}],"
+            + "\"markers\":[{\"cm\":\"intro\",\"tm\":10,\"dr\":20}]}";
+
+    @Test
+    void stopsReadingAfterTheHeader() throws IOException {
+        // Everything after the header is malformed, so only a header read gets through
+        AtomicInteger opened = new AtomicInteger();
+        AnimationMetadata metadata = AnimationMetadata.read(new StringReader(HEADER + "\"layers\":[{]"), -1, () -> {
+            opened.incrementAndGet();
+            return new StringReader(HEADER + CONTENTS);
+        });
+
+        assertEquals("5.7.4", metadata.getVersion());
+        assertEquals("comp", metadata.getName());
+        assertEquals(90, metadata.getTotalFrames(), 1e-9);
+        assertEquals(200, metadata.getWidth(), 1e-9);
+        assertEquals(0, opened.get());
+        assertFalse(metadata.toString().contains("layers"));
+    }
+
+    @Test
+    void stopsAtTheContentsWhenOptionalMembersAreMissing() throws IOException {
+        AnimationMetadata metadata = AnimationMetadata.read(
+                new StringReader("{\"fr\":25,\"ip\":0,\"op\":50,\"w\":10,\"h\":10,\"layers\":[{]"), -1,
+                () -> new StringReader("{}"));
+
+        assertEquals(2, metadata.getDurationSeconds(), 1e-9);
+        assertNull(metadata.getName());
+    }
+
+    @Test
+    void readsTheContentsOnceOnFirstUse() throws IOException {
+        AtomicInteger opened = new AtomicInteger();
+        AnimationMetadata metadata = AnimationMetadata.read(new StringReader(HEADER + CONTENTS), -1, () -> {
+            opened.incrementAndGet();
+            return new StringReader(HEADER + CONTENTS);
+        });
+
+        assertEquals(2, metadata.getLayerCount());
+        assertEquals(2, metadata.getAssetCount());
+        assertEquals(1, metadata.getImageAssetCount());
+        assertEquals(3, metadata.getEmbeddedImageBytes());
+        assertEquals(10, metadata.getMarker("intro").getTime(), 1e-9);
+        assertEquals(1, opened.get());
+    }
+
+    @Test
+    void readsEverythingFromOneReaderWithoutASource() throws IOException {
+        AnimationMetadata metadata = AnimationMetadata.read(new StringReader(HEADER + CONTENTS), -1);
+
+        assertEquals(2, metadata.getLayerCount());
+        assertEquals(1, metadata.getMarkers().size());
+        assertTrue(metadata.toString().contains("2 layers"));
+    }
+
+    @Test
+    void judgesSizeByTheJsonWhenItIsKnown() throws IOException {
+        AnimationMetadata metadata = AnimationMetadata.read(new StringReader(HEADER + CONTENTS), 1000, () -> {
+            throw new IOException("contents are not needed");
+        });
+
+        assertTrue(metadata.isOversized(999));
+        assertFalse(metadata.isOversized(1000));
+    }
+
+    @Test
+    void rejectsJsonWithoutAHeader() {
+        assertThrows(IOException.class, () -> AnimationMetadata.read(new StringReader("{\"layers\":[]}"), -1,
+                () -> new StringReader("{}")));
+    }
+}
@@ -0,0 +1,111 @@
+package org.foxesworld.lvm.optimizer;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LottieJsonOptimizerTest {
+
+    private final LottieJsonOptimizer optimizer = new LottieJsonOptimizer();
+
+    @AfterEach
+    void clearCache() {
+        LottieJsonOptimizer.clearCache();
+    }
+
+    @Test
+    void dropsEditorKeysWithoutExpressions() {
+        JsonObject out = optimize("{\"nm\":\"comp\",\"layers\":[{\"ind\":1,\"nm\":\"a\",\"mn\":\"ADBE\","
+                + "\"ks\":{\"o\":{\"a\":0,\"k\":100,\"ix\":11}}}]}");
+
+        JsonObject layer = out.getAsJsonArray("layers").get(0).getAsJsonObject();
+        assertFalse(out.has("nm"));
+        assertFalse(layer.has("nm"));
+        assertFalse(layer.has("mn"));
+        assertFalse(layer.getAsJsonObject("ks").getAsJsonObject("o").has("ix"));
+    }
+
+    @Test
+    void keepsEditorKeysWhenAnExpressionIsPresent() {
+        JsonObject out = optimize("{\"nm\":\"comp\",\"layers\":[{\"ind\":1,\"nm\":\"a\",\"mn\":\"ADBE\","
+                + "\"ks\":{\"o\":{\"a\":0,\"k\":100,\"ix\":11,\"x\":\"thisComp.layer('a').transform.opacity\"}}}]}");
+
+        JsonObject layer = out.getAsJsonArray("layers").get(0).getAsJsonObject();
+        JsonObject opacity = layer.getAsJsonObject("ks").getAsJsonObject("o");
+        assertEquals("comp", out.get("nm").getAsString());
+        assertEquals("a", layer.get("nm").getAsString());
+        assertEquals("ADBE", layer.get("mn").getAsString());
+        assertEquals(11, opacity.get("ix").getAsInt());
+        assertEquals("thisComp.layer('a').transform.opacity", opacity.get("x").getAsString());
+    }
+
+    @Test
+    void dropsHiddenLayersUnlessTheyAreParentsOrMattes() {
+        JsonObject out = optimize("{\"layers\":["
+                + "{\"ind\":1,\"hd\":true},"
+                + "{\"ind\":2,\"hd\":true},"
+                + "{\"ind\":3,\"hd\":true,\"td\":1},"
+                + "{\"ind\":4,\"parent\":2,\"tt\":1}]}");
+
+        JsonArray layers = out.getAsJsonArray("layers");
+        assertEquals(3, layers.size());
+        assertEquals(2, layers.get(0).getAsJsonObject().get("ind").getAsInt());
+        assertEquals(3, layers.get(1).getAsJsonObject().get("ind").getAsInt());
+        assertEquals(4, layers.get(2).getAsJsonObject().get("ind").getAsInt());
+    }
+
+    @Test
+    void keepsPrecompsReachableOnlyThroughOtherPrecomps() {
+        JsonObject out = optimize("{\"assets\":["
+                + "{\"id\":\"outer\",\"layers\":[{\"ind\":1,\"ty\":0,\"refId\":\"inner\"}]},"
+                + "{\"id\":\"inner\",\"layers\":[{\"ind\":1,\"ty\":4}]},"
+                + "{\"id\":\"unused\",\"layers\":[]},"
+                + "{\"id\":\"hiddenOnly\",\"layers\":[]}],"
+                + "\"layers\":[{\"ind\":1,\"ty\":0,\"refId\":\"outer\"},"
+                + "{\"ind\":2,\"ty\":0,\"refId\":\"hiddenOnly\",\"hd\":true}]}");
+
+        JsonArray assets = out.getAsJsonArray("assets");
+        assertEquals(2, assets.size());
+        assertEquals("outer", assets.get(0).getAsJsonObject().get("id").getAsString());
+        assertEquals("inner", assets.get(1).getAsJsonObject().get("id").getAsString());
+        assertEquals(1, out.getAsJsonArray("layers").size());
+    }
+
+    @Test
+    void roundsNumbersIncludingExponentLiterals() {
+        LottieJsonOptimizer.Result result = optimizer.optimize("test",
+                "{\"a\":[1.23456,-0.0004,1e-7,2.5E2,1.23456789e2,3E+1,7,-12.5000]}");
+
+        assertEquals("{\"a\":[1.235,0,0,250,123.457,30,7,-12.5]}", result.getJson());
+        assertTrue(result.getReport().getQuantizedNumbers() > 0);
+    }
+
+    @Test
+    void keepsNumbersWithNegativePrecision() {
+        String json = "{\"a\":[1.23456,1e-7]}";
+        assertEquals(json, new LottieJsonOptimizer(-1).optimize("test", json).getJson());
+    }
+
+    @Test
+    void cachedOutputIsReusedForAnEqualSourceString() {
+        String json = "{\"nm\":\"comp\",\"a\":[1.23456]}";
+        String first = LottieJsonOptimizer.optimizeCached("anim/test.json", json);
+        // A freshly decoded copy of the same file must still hit the cache
+        String second = LottieJsonOptimizer.optimizeCached("anim/test.json", new String(json.toCharArray()));
+        String changed = LottieJsonOptimizer.optimizeCached("anim/test.json", "{\"a\":[2.5]}");
+
+        assertSame(first, second);
+        assertEquals("{\"a\":[2.5]}", changed);
+    }
+
+    private JsonObject optimize(String json) {
+        return JsonParser.parseString(optimizer.optimize("test", json).getJson()).getAsJsonObject();
+    }
+}
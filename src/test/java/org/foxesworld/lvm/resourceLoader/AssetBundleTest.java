@@ -0,0 +1,139 @@
+package org.foxesworld.lvm.resourceLoader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AssetBundleTest {
+
+    @TempDir
+    Path dir;
+
+    private Path bundle;
+    private byte[] text;
+    private byte[] noise;
+
+    @BeforeEach
+    void writeBundle() throws IOException {
+        Path assets = Files.createDirectories(dir.resolve("assets"));
+        // Repetitive text compresses well and is deflated, random bytes do not and are stored
+        text = "{\"layers\":[]}\n".repeat(500).getBytes(StandardCharsets.UTF_8);
+        noise = new byte[4096];
+        new Random(42).nextBytes(noise);
+        Files.createDirectories(assets.resolve("anim"));
+        Files.write(assets.resolve("anim/test.json"), text);
+        Files.createDirectories(assets.resolve("sounds"));
+        Files.write(assets.resolve("sounds/noise.bin"), noise);
+        Files.write(assets.resolve("empty.txt"), new byte[0]);
+        bundle = dir.resolve("assets.lvmb");
+        assertEquals(3, AssetBundleWriter.write(assets, bundle));
+    }
+
+    @Test
+    void readsWhatWasWritten() throws IOException {
+        AssetBundle assets = AssetBundle.open(bundle);
+
+        assertEquals(Set.of("anim/test.json", "sounds/noise.bin", "empty.txt"), assets.getPaths());
+        assertTrue(Files.size(bundle) < text.length + noise.length, "text entry should be deflated");
+        assertTrue(assets.contains("/anim/test.json"));
+        assertFalse(assets.contains("anim/missing.json"));
+        assertEquals(text.length, assets.getLength("anim/test.json"));
+        assertEquals(-1, assets.getLength("anim/missing.json"));
+        assertArrayEquals(text, assets.read("anim/test.json"));
+        assertArrayEquals(noise, assets.read("sounds/noise.bin"));
+        assertArrayEquals(new byte[0], assets.read("empty.txt"));
+        assertArrayEquals(text, toArray(assets.readBuffer("anim/test.json")));
+        assertArrayEquals(noise, toArray(assets.readBuffer("sounds/noise.bin")));
+        try (InputStream in = assets.openStream("sounds/noise.bin")) {
+            assertArrayEquals(noise, in.readAllBytes());
+        }
+        assertThrows(IOException.class, () -> assets.read("anim/missing.json"));
+    }
+
+    @Test
+    void rejectsCorruptStoredEntry() throws IOException {
+        flipByte(indexOf(Files.readAllBytes(bundle), noise) + noise.length / 2);
+        AssetBundle assets = AssetBundle.open(bundle);
+
+        assertThrows(IOException.class, () -> assets.read("sounds/noise.bin"));
+        assertThrows(IOException.class, () -> assets.readBuffer("sounds/noise.bin"));
+        assertArrayEquals(text, assets.read("anim/test.json"));
+    }
+
+    @Test
+    void rejectsCorruptDeflatedEntry() throws IOException {
+        // The payload starts with the text entry, as paths are written in sorted order
+        flipByte((int) Files.size(bundle) - noise.length - 10);
+        AssetBundle assets = AssetBundle.open(bundle);
+
+        assertThrows(IOException.class, () -> assets.read("anim/test.json"));
+        assertArrayEquals(noise, assets.read("sounds/noise.bin"));
+    }
+
+    @Test
+    void rejectsOffsetPastEndOfFile() throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(bundle)).order(ByteOrder.LITTLE_ENDIAN);
+        int pathLength = data.getShort(AssetBundle.HEADER_SIZE) & 0xFFFF;
+        data.putLong(AssetBundle.HEADER_SIZE + 2 + pathLength, Files.size(bundle));
+        Files.write(bundle, data.array());
+
+        assertThrows(IOException.class, () -> AssetBundle.open(bundle));
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        byte[] data = Files.readAllBytes(bundle);
+        Files.write(bundle, Arrays.copyOf(data, data.length - 100));
+
+        assertThrows(IOException.class, () -> AssetBundle.open(bundle));
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Files.write(bundle, "not a bundle at all".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> AssetBundle.open(bundle));
+    }
+
+    private void flipByte(int position) throws IOException {
+        byte[] data = Files.readAllBytes(bundle);
+        data[position] ^= 0x5A;
+        Files.write(bundle, data);
+    }
+
+    private static int indexOf(byte[] data, byte[] part) {
+        outer:
+        for (int i = 0; i <= data.length - part.length; i++) {
+            for (int j = 0; j < part.length; j++) {
+                if (data[i + j] != part[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new AssertionError("Payload not found in bundle");
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
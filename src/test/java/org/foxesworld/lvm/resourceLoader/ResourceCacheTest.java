@@ -0,0 +1,120 @@
+package org.foxesworld.lvm.resourceLoader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResourceCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesOverTheBudget() {
+        ResourceCache cache = new ResourceCache(30);
+        cache.put("a", byte[].class, new byte[10], null, 0, 0);
+        cache.put("b", byte[].class, new byte[10], null, 0, 0);
+        cache.put("c", byte[].class, new byte[10], null, 0, 0);
+        // Using a makes b the least recently used entry
+        assertNotNull(cache.get("a", byte[].class));
+
+        cache.put("d", byte[].class, new byte[10], null, 0, 0);
+
+        assertNull(cache.get("b", byte[].class));
+        assertNotNull(cache.get("a", byte[].class));
+        assertNotNull(cache.get("c", byte[].class));
+        assertNotNull(cache.get("d", byte[].class));
+        assertEquals(30, cache.getCurrentBytes());
+        assertEquals(1, cache.getEvictionCount());
+
+        cache.setMaxBytes(15);
+        assertEquals(1, cache.getEntryCount());
+        assertNotNull(cache.get("d", byte[].class));
+    }
+
+    @Test
+    void doesNotCacheEntriesLargerThanTheBudget() {
+        ResourceCache cache = new ResourceCache(10);
+        cache.put("small", byte[].class, new byte[4], null, 0, 0);
+
+        cache.put("large", byte[].class, new byte[11], null, 0, 0);
+        // Strings count two bytes per character
+        cache.put("text", String.class, "123456", null, 0, 0);
+
+        assertNull(cache.get("large", byte[].class));
+        assertNull(cache.get("text", String.class));
+        assertNotNull(cache.get("small", byte[].class), "a rejected entry must not evict others");
+        assertEquals(4, cache.getCurrentBytes());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    void dropsEntriesWhoseFileChanged() throws IOException {
+        ResourceCache cache = new ResourceCache(1024);
+        File file = Files.writeString(dir.resolve("anim.json"), "{}").toFile();
+        cache.put("anim.json", String.class, "{}", file, file.lastModified(), file.length());
+        assertEquals("{}", cache.get("anim.json", String.class));
+
+        // Same length, different modification time
+        Files.writeString(file.toPath(), "[]");
+        file.setLastModified(file.lastModified() + 5000);
+        assertNull(cache.get("anim.json", String.class));
+        assertEquals(1, cache.getInvalidationCount());
+        assertEquals(0, cache.getCurrentBytes());
+
+        // Same modification time, different length
+        cache.put("anim.json", String.class, "[]", file, file.lastModified(), file.length());
+        long lastModified = file.lastModified();
+        Files.writeString(file.toPath(), "[1]");
+        file.setLastModified(lastModified);
+        assertNull(cache.get("anim.json", String.class));
+        assertEquals(2, cache.getInvalidationCount());
+    }
+
+    @Test
+    void keepsItsOwnCopyOfByteArrays() {
+        ResourceCache cache = new ResourceCache(1024);
+        byte[] original = {1, 2, 3};
+        cache.put("data.bin", byte[].class, original, null, 0, 0);
+
+        original[0] = 9;
+        byte[] first = cache.get("data.bin", byte[].class);
+        assertArrayEquals(new byte[]{1, 2, 3}, first);
+
+        first[1] = 9;
+        assertArrayEquals(new byte[]{1, 2, 3}, cache.get("data.bin", byte[].class));
+    }
+
+    @Test
+    void invalidatesEveryTypeOfAResource() {
+        ResourceCache cache = new ResourceCache(1024);
+        cache.put("anim.json", String.class, "{}", null, 0, 0);
+        cache.put("anim.json", byte[].class, new byte[2], null, 0, 0);
+        cache.put("anim.json.bak", String.class, "{}", null, 0, 0);
+
+        cache.invalidate("anim.json");
+
+        assertNull(cache.get("anim.json", String.class));
+        assertNull(cache.get("anim.json", byte[].class));
+        assertNotNull(cache.get("anim.json.bak", String.class));
+        assertEquals(4, cache.getCurrentBytes());
+    }
+
+    @Test
+    void rejectsUncacheableTypesAndNegativeBudgets() {
+        ResourceCache cache = new ResourceCache(1024);
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.put("anim.json", Object.class, new Object(), null, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ResourceCache(-1));
+    }
+}
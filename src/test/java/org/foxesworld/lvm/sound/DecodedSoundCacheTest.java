@@ -0,0 +1,61 @@
+package org.foxesworld.lvm.sound;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DecodedSoundCacheTest {
+
+    private static final AudioFormat FORMAT = new AudioFormat(44100, 16, 2, true, false);
+
+    @Test
+    void decodesASoundOnceForConcurrentCallers() throws Exception {
+        DecodedSoundCache cache = new DecodedSoundCache(1024, path -> { });
+        AtomicInteger decodes = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        DecodedSound decoded = new DecodedSound(FORMAT, new byte[16]);
+
+        List<CompletableFuture<DecodedSound>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> cache.get("sounds/a.ogg", path -> {
+                decodes.incrementAndGet();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return decoded;
+            })));
+        }
+        // Let every caller reach the cache before the decode finishes
+        Thread.sleep(200);
+        release.countDown();
+
+        for (CompletableFuture<DecodedSound> result : results) {
+            assertSame(decoded, result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, decodes.get());
+        assertSame(decoded, cache.get("sounds/a.ogg"));
+    }
+
+    @Test
+    void retriesAFailedDecode() {
+        DecodedSoundCache cache = new DecodedSoundCache(1024, path -> { });
+        assertThrows(IllegalStateException.class, () -> cache.get("sounds/a.ogg", path -> {
+            throw new IllegalStateException("broken");
+        }));
+
+        DecodedSound decoded = new DecodedSound(FORMAT, new byte[16]);
+        assertSame(decoded, cache.get("sounds/a.ogg", path -> decoded));
+    }
+}
@@ -0,0 +1,80 @@
+package org.foxesworld.lvm.view;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlaybackClockTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void advancesByElapsedTimeSpeedAndDirection() {
+        PlaybackClock clock = new PlaybackClock(() -> true);
+        clock.setTiming(60, 30);
+        clock.setSpeed(2);
+
+        assertEquals(PlaybackClock.Step.STARTED, clock.advance(SECOND));
+        assertEquals(PlaybackClock.Step.FRAME, clock.advance(SECOND + SECOND / 2));
+        assertEquals(30, clock.getCurrentFrame(), 1e-9);
+
+        clock.setDirection(-1);
+        assertEquals(PlaybackClock.Step.FRAME, clock.advance(SECOND + SECOND * 3 / 4));
+        assertEquals(15, clock.getCurrentFrame(), 1e-9);
+    }
+
+    @Test
+    void wrapsAroundWhenLooping() {
+        PlaybackClock clock = new PlaybackClock(() -> true);
+        clock.setTiming(60, 30);
+        clock.setCurrentFrame(50);
+        clock.advance(SECOND);
+
+        assertEquals(PlaybackClock.Step.LOOP_COMPLETE, clock.advance(2 * SECOND));
+        assertEquals(20, clock.getCurrentFrame(), 1e-9);
+        assertEquals(1, clock.getCurrentLoop());
+
+        clock.setDirection(-1);
+        assertEquals(PlaybackClock.Step.LOOP_COMPLETE, clock.advance(3 * SECOND));
+        assertEquals(50, clock.getCurrentFrame(), 1e-9);
+        assertEquals(2, clock.getCurrentLoop());
+    }
+
+    @Test
+    void stopsAtTheEndOfItsDirectionWithoutLoop() {
+        PlaybackClock clock = new PlaybackClock(() -> false);
+        clock.setTiming(60, 30);
+        clock.advance(SECOND);
+
+        assertEquals(PlaybackClock.Step.COMPLETE, clock.advance(3 * SECOND));
+        assertEquals(59, clock.getCurrentFrame(), 1e-9);
+        clock.rewindIfComplete();
+        assertEquals(0, clock.getCurrentFrame(), 1e-9);
+
+        clock.setDirection(-1);
+        clock.setCurrentFrame(10);
+        clock.restart();
+        clock.advance(SECOND);
+        assertEquals(PlaybackClock.Step.COMPLETE, clock.advance(2 * SECOND));
+        assertEquals(0, clock.getCurrentFrame(), 1e-9);
+        clock.rewindIfComplete();
+        assertEquals(59, clock.getCurrentFrame(), 1e-9);
+    }
+
+    @Test
+    void skipReportsWhetherPlaybackCanGoOn() {
+        PlaybackClock loop = new PlaybackClock(() -> true);
+        loop.setTiming(60, 30);
+        assertTrue(loop.skip(3));
+        assertEquals(30, loop.getCurrentFrame(), 1e-9);
+        assertEquals(0, loop.getCurrentLoop());
+
+        PlaybackClock once = new PlaybackClock(() -> false);
+        once.setTiming(60, 30);
+        assertTrue(once.skip(1));
+        assertFalse(once.skip(5));
+        assertEquals(59, once.getCurrentFrame(), 1e-9);
+    }
+}
@@ -0,0 +1,98 @@
+package org.foxesworld.lvm.view;
+
+import javafx.application.Platform;
+import javafx.util.Duration;
+import org.foxesworld.lvm.config.LottieAnimationConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebViewPoolTest {
+
+    private final WebViewPool pool = WebViewPool.getShared();
+
+    @BeforeAll
+    static void startToolkit() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException e) {
+            // Started by another test already
+            started.countDown();
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+    }
+
+    @AfterEach
+    void clearPool() throws Exception {
+        onFx(() -> {
+            pool.clear();
+            return null;
+        });
+    }
+
+    @Test
+    void borrowsAWarmView() throws Exception {
+        LottieAnimationConfig config = new LottieAnimationConfig();
+        config.setAnimationJsonResourcePath("/anim/test.json");
+        config.setUseWebViewPool(true);
+        config.setPersistentHost(true);
+        pool.prewarm(config, 1).get(30, TimeUnit.SECONDS);
+        long hits = pool.getHitCount();
+
+        AnimationWebView view = onFx(() -> new AnimationWebView(config));
+
+        assertEquals(hits + 1, pool.getHitCount());
+        onFx(() -> {
+            assertFalse(view.isDisposed());
+            // The animation was swapped into the borrowed page right away
+            assertSame(Boolean.TRUE, view.getWebView().getEngine().executeScript("lottieAnimation != null"));
+            view.dispose();
+            return null;
+        });
+    }
+
+    @Test
+    void expiredViewsAreOnlyReplacedAfterTheNextBorrow() throws Exception {
+        WebViewPool idlePool = onFx(() -> new WebViewPool(4, Duration.millis(400)));
+        LottieAnimationConfig config = new LottieAnimationConfig();
+        idlePool.prewarm(config, 1).get(30, TimeUnit.SECONDS);
+        assertEquals(1, idlePool.getCreatedCount());
+
+        Thread.sleep(1500);
+        assertEquals(0, (int) onFx(idlePool::getIdleCount));
+        assertEquals(1, idlePool.getEvictionCount());
+        assertEquals(1, idlePool.getCreatedCount(), "an idle pool must not rebuild its views");
+
+        assertNull(onFx(() -> idlePool.borrow(config)));
+        Thread.sleep(1000);
+        assertEquals(2, idlePool.getCreatedCount(), "a borrow warms the settings up again");
+        onFx(() -> {
+            idlePool.clear();
+            return null;
+        });
+    }
+
+    private static <T> T onFx(Supplier<T> action) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(action.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.get(30, TimeUnit.SECONDS);
+    }
+}